@@ -0,0 +1,57 @@
+package com.multiplanner.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.concurrent.ExecutorService;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * RoutingService for benchmarks of its pure helpers (parse, select, summarise).
+ * - collaborators those helpers never reach (TfL cache, resolver, local router, stations) are Mockito mocks
+ * - settings are the application.yml defaults, named here so the constructor call stays readable
+ */
+final class BenchmarkRoutingServices {
+
+    private BenchmarkRoutingServices() {}
+
+    static RoutingService forHelpers(ObjectMapper objectMapper, JourneyResultsParser parser) {
+        boolean parallelEnabled = false;
+        int maxConcurrency = 1;
+        int optimiseMaxStops = 10;
+        int optimiseExactMaxIntermediate = 6;
+        int matrixMaxCells = 100;
+        int batchMaxItineraries = 50;
+        int batchMaxLegs = 200;
+        boolean itineraryCacheEnabled = false;
+        boolean localFallback = false;
+        int snapMaxDistanceMeters = 1000;
+
+        return new RoutingService(
+                objectMapper,
+                mock(JourneyCacheService.class),
+                parser,
+                mock(StopPointResolver.class),
+                new PopularityTracker(16),
+                new RoutingMetrics(new SimpleMeterRegistry()),
+                mock(ExecutorService.class),
+                parallelEnabled,
+                maxConcurrency,
+                optimiseMaxStops,
+                optimiseExactMaxIntermediate,
+                matrixMaxCells,
+                batchMaxItineraries,
+                batchMaxLegs,
+                new ConcurrentMapCacheManager(),
+                itineraryCacheEnabled,
+                mock(LocalRoutingService.class),
+                localFallback,
+                mock(StationService.class),
+                snapMaxDistanceMeters
+        );
+    }
+}
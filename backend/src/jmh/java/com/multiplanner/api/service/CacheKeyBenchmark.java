@@ -0,0 +1,71 @@
+package com.multiplanner.api.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the per-leg cache key work.
+ * - roundNowTo5MinKey: the time bucket computed once per request
+ * - journeyKeySpel: the @Cacheable key expression on JourneyCacheService.journeyResults, evaluated the way
+ *   the cache interceptor does (fresh evaluation context per call, expression parsed once)
+ * - journeyKeyDirect: the same key built by calling JourneyCacheService.journeyKey directly
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheKeyBenchmark {
+
+    private static final String FROM = "940GZZLUKSX";
+    private static final String TO = "940GZZLUWLO";
+    private static final String MODES = "tube,overground,elizabeth-line,dlr,national-rail,bus,tram";
+
+    private Expression journeyKeyExpression;
+    private String departAt;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Read the expression from the annotation so the benchmark follows any change to it
+        Cacheable cacheable = JourneyCacheService.class
+                .getMethod("journeyResults", String.class, String.class, String.class, String.class)
+                .getAnnotation(Cacheable.class);
+        journeyKeyExpression = new SpelExpressionParser().parseExpression(cacheable.key());
+        departAt = TimeBuckets.roundNowTo5MinKey();
+    }
+
+    @Benchmark
+    public String roundNowTo5MinKey() {
+        return TimeBuckets.roundNowTo5MinKey();
+    }
+
+    @Benchmark
+    public Object journeyKeySpel() {
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        context.setVariable("fromId", FROM);
+        context.setVariable("toId", TO);
+        context.setVariable("departAtRounded5", departAt);
+        context.setVariable("modesCsv", MODES);
+        return journeyKeyExpression.getValue(context);
+    }
+
+    @Benchmark
+    public String journeyKeyDirect() {
+        return JourneyCacheService.journeyKey(FROM, TO, departAt, MODES);
+    }
+}
@@ -0,0 +1,53 @@
+package com.multiplanner.api.service;
+
+import com.multiplanner.api.model.Station;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads the TfL payloads and station list under src/fixtures (on the classpath as /fixtures).
+ * - tfl/journey-results-{small,large}.json: JourneyResults shaped like TfL's (the large one carries
+ *   full path geometry and stop sequences, like a real multi-journey answer)
+ * - tfl/stop-point-search-{small,large}.json: StopPoint/Search answers
+ * - stations.csv: London rail station names (atco_code,name)
+ */
+final class Fixtures {
+
+    private Fixtures() {}
+
+    static String journeyResults(String size) {
+        return read("tfl/journey-results-" + size + ".json");
+    }
+
+    static String stopPointSearch(String size) {
+        return read("tfl/stop-point-search-" + size + ".json");
+    }
+
+    static List<Station> stations() {
+        List<Station> stations = new ArrayList<>();
+        String[] lines = read("stations.csv").split("\n");
+        for (int i = 1; i < lines.length; i++) {
+            int comma = lines[i].indexOf(',');
+            if (comma > 0) {
+                stations.add(new Station(lines[i].substring(0, comma), lines[i].substring(comma + 1).trim()));
+            }
+        }
+        return stations;
+    }
+
+    static String read(String path) {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + path)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing fixture " + path);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
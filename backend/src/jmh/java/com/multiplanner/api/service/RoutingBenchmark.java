@@ -0,0 +1,93 @@
+package com.multiplanner.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.multiplanner.api.controller.RoutingController;
+import com.multiplanner.api.model.JourneyLeg;
+import com.multiplanner.api.model.JourneyOption;
+import com.multiplanner.api.model.LegSummary;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-leg CPU and allocation budget of RoutingService, on small and large TfL JourneyResults.
+ * - buildLegSummary: parse + select + summary record (everything after the cache returns)
+ * - pickBestJourney for both SortBy values, estimateInterchanges, buildSummaryFromLegs
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoutingBenchmark {
+
+    @Param({"small", "large"})
+    public String fixture;
+
+    private RoutingService routingService;
+    private String journeyJson;
+    private List<JourneyOption> journeys;
+    private List<JourneyLeg> longestLegs;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        JourneyResultsParser parser = new JourneyResultsParser(objectMapper);
+
+        routingService = BenchmarkRoutingServices.forHelpers(objectMapper, parser);
+
+        journeyJson = Fixtures.journeyResults(fixture);
+        journeys = parser.parse(journeyJson).journeys();
+        longestLegs = journeys.stream()
+                .map(JourneyOption::legs)
+                .max((a, b) -> Integer.compare(a.size(), b.size()))
+                .orElseThrow();
+    }
+
+    @Benchmark
+    public LegSummary buildLegSummary() throws Exception {
+        return routingService.buildLegSummary(
+                "King's Cross St. Pancras",
+                "Waterloo",
+                "940GZZLUKSX",
+                "940GZZLUWLO",
+                journeyJson,
+                RoutingController.SortBy.FASTEST,
+                true,
+                true
+        );
+    }
+
+    @Benchmark
+    public JourneyOption pickBestJourneyFastest() {
+        return routingService.pickBestJourney(journeys, RoutingController.SortBy.FASTEST, true, true);
+    }
+
+    @Benchmark
+    public JourneyOption pickBestJourneyFewestTransfers() {
+        return routingService.pickBestJourney(journeys, RoutingController.SortBy.FEWEST_TRANSFERS, true, true);
+    }
+
+    @Benchmark
+    public int estimateInterchanges() {
+        return routingService.estimateInterchanges(longestLegs);
+    }
+
+    @Benchmark
+    public String buildSummaryFromLegs() {
+        return routingService.buildSummaryFromLegs(longestLegs);
+    }
+}
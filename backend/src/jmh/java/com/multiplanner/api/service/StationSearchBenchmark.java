@@ -0,0 +1,72 @@
+package com.multiplanner.api.service;
+
+import com.multiplanner.api.model.Station;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Autocomplete ranking in StationSearchIndex.
+ * - small: the London rail fixture (a couple of hundred names)
+ * - large: the fixture expanded to roughly NaPTAN scale, with near-duplicate names
+ * - queries cover whole-name prefix, word prefix, short substring and a misspelt (fuzzy) match
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StationSearchBenchmark {
+
+    @Param({"small", "large"})
+    public String stations;
+
+    @Param({"wat", "cross", "st", "stratfrd"})
+    public String query;
+
+    private StationSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        List<Station> loaded = Fixtures.stations();
+        if ("large".equals(stations)) {
+            List<Station> expanded = new ArrayList<>(loaded);
+            String[] suffixes = {"Rail Station", "Underground Station", "Bus Station", "(Platform 1)", "North", "South",
+                    "East", "West", "Interchange", "Junction", "Road", "Park", "High Street", "Lane", "Green"};
+            for (String suffix : suffixes) {
+                for (Station s : loaded) {
+                    expanded.add(new Station(s.getCode() + suffix.length(), s.getName() + " " + suffix));
+                }
+            }
+            loaded = expanded;
+        }
+
+        List<Station> source = loaded;
+        index = new StationSearchIndex(new StationRepository(null) {
+            @Override
+            public List<Station> findAll() {
+                return source;
+            }
+        });
+        index.refresh();
+    }
+
+    @Benchmark
+    public List<Station> search() {
+        return index.search(query, 5);
+    }
+}
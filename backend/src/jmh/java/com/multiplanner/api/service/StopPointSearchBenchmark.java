@@ -0,0 +1,62 @@
+package com.multiplanner.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StopPoint id extraction from a (cached) TfL StopPoint/Search answer, as done on a resolver miss.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StopPointSearchBenchmark {
+
+    @Param({"small", "large"})
+    public String fixture;
+
+    private JourneyCacheService journeyCacheService;
+    private StopPointResolver resolver;
+
+    @Setup
+    public void setUp() {
+        String json = Fixtures.stopPointSearch(fixture);
+
+        // Stands in for the stopPoints cache hit
+        journeyCacheService = new JourneyCacheService(null, null, null, new RoutingMetrics(new SimpleMeterRegistry()), 0, 1, 1) {
+            @Override
+            public String cachedStopPointSearch(String stationName) {
+                return json;
+            }
+        };
+        resolver = new StopPointResolver(journeyCacheService, null, new ObjectMapper(), null, false, 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        journeyCacheService.shutdown();
+    }
+
+    @Benchmark
+    public Object searchTfl() {
+        return resolver.searchTfl("King's Cross");
+    }
+}
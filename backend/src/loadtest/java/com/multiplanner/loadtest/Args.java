@@ -0,0 +1,44 @@
+package com.multiplanner.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * key=value command line arguments (e.g. duration-s=30 concurrency=64 stub.error-rate=0.02).
+ */
+final class Args {
+
+    private final Map<String, String> values;
+
+    private Args(Map<String, String> values) {
+        this.values = values;
+    }
+
+    static Args parse(String[] argv) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : argv) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            values.put(arg.substring(0, eq).replaceFirst("^--", ""), arg.substring(eq + 1));
+        }
+        return new Args(values);
+    }
+
+    String get(String key, String fallback) {
+        return values.getOrDefault(key, fallback);
+    }
+
+    int getInt(String key, int fallback) {
+        return values.containsKey(key) ? Integer.parseInt(values.get(key)) : fallback;
+    }
+
+    long getLong(String key, long fallback) {
+        return values.containsKey(key) ? Long.parseLong(values.get(key)) : fallback;
+    }
+
+    double getDouble(String key, double fallback) {
+        return values.containsKey(key) ? Double.parseDouble(values.get(key)) : fallback;
+    }
+}
@@ -0,0 +1,65 @@
+package com.multiplanner.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * In-process Postgres (with pg_trgm) and Redis for the load test, so it runs without Docker.
+ * - Postgres gets the same schema as infra (01_schema.sql, on the classpath as /schema)
+ * - properties() points the application at both
+ */
+final class EmbeddedInfra implements AutoCloseable {
+
+    private final EmbeddedPostgres postgres;
+    private final RedisServer redis;
+    private final int redisPort;
+
+    private EmbeddedInfra(EmbeddedPostgres postgres, RedisServer redis, int redisPort) {
+        this.postgres = postgres;
+        this.redis = redis;
+        this.redisPort = redisPort;
+    }
+
+    static EmbeddedInfra start() throws IOException, SQLException {
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder().setPort(0).start();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(StubTflServer.readResource("/schema/01_schema.sql"));
+        }
+
+        int redisPort = freePort();
+        RedisServer redis = new RedisServer(redisPort);
+        redis.start();
+
+        return new EmbeddedInfra(postgres, redis, redisPort);
+    }
+
+    Map<String, Object> properties() {
+        return Map.of(
+                "spring.datasource.url", postgres.getJdbcUrl("postgres", "postgres"),
+                "spring.datasource.username", "postgres",
+                "spring.datasource.password", "postgres",
+                "spring.data.redis.host", "127.0.0.1",
+                "spring.data.redis.port", redisPort
+        );
+    }
+
+    @Override
+    public void close() throws IOException {
+        redis.stop();
+        postgres.close();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
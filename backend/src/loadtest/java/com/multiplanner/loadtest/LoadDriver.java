@@ -0,0 +1,173 @@
+package com.multiplanner.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Closed-loop HTTP load generator.
+ * - `concurrency` virtual-thread clients each send the next request as soon as the previous one completes
+ * - Latencies are kept per endpoint for the whole run, so percentiles are exact rather than bucketed
+ * - Non-2xx answers and transport errors count as errors (their latency is still recorded)
+ */
+final class LoadDriver {
+
+    //One request to send; `endpoint` is the label it is reported under.
+    record Call(String endpoint, HttpRequest request) {}
+
+    record EndpointResult(
+            String scenario,
+            String endpoint,
+            int requests,
+            int errors,
+            double seconds,
+            long p50Nanos,
+            long p90Nanos,
+            long p99Nanos,
+            long maxNanos
+    ) {
+        double throughput() {
+            return requests / seconds;
+        }
+    }
+
+    private final HttpClient client;
+    private final String baseUrl;
+
+    LoadDriver(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    HttpRequest get(String pathAndQuery) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + pathAndQuery))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    HttpRequest postJson(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    //Sends each call once, in order, ignoring the answers (used to warm caches).
+    void prime(List<Call> calls) {
+        for (Call call : calls) {
+            try {
+                client.send(call.request(), HttpResponse.BodyHandlers.discarding());
+            } catch (Exception e) {
+                // Priming is best effort; the measured run reports errors
+            }
+        }
+    }
+
+    List<EndpointResult> run(String scenario, Duration duration, int concurrency, Supplier<Call> nextCall)
+            throws InterruptedException {
+        Map<String, Recorder> recorders = new TreeMap<>();
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        Call call = nextCall.get();
+                        long sent = System.nanoTime();
+                        boolean ok;
+                        try {
+                            HttpResponse<Void> response = client.send(call.request(), HttpResponse.BodyHandlers.discarding());
+                            ok = response.statusCode() / 100 == 2;
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        long elapsed = System.nanoTime() - sent;
+
+                        Recorder recorder;
+                        synchronized (recorders) {
+                            recorder = recorders.computeIfAbsent(call.endpoint(), k -> new Recorder());
+                        }
+                        recorder.record(elapsed, ok);
+                    }
+                });
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        List<EndpointResult> results = new ArrayList<>();
+        recorders.forEach((endpoint, recorder) -> results.add(recorder.result(scenario, endpoint, seconds)));
+        return results;
+    }
+
+    static void printReport(List<EndpointResult> results) {
+        System.out.printf(Locale.ROOT, "%n%-8s %-18s %9s %7s %9s %9s %9s %9s %9s%n",
+                "scenario", "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (EndpointResult r : results) {
+            System.out.printf(Locale.ROOT, "%-8s %-18s %9d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    r.scenario(), r.endpoint(), r.requests(), r.errors(), r.throughput(),
+                    r.p50Nanos() / 1e6, r.p90Nanos() / 1e6, r.p99Nanos() / 1e6, r.maxNanos() / 1e6);
+        }
+    }
+
+    //Latencies for one endpoint.
+    private static final class Recorder {
+
+        private long[] latencies = new long[1024];
+        private int size;
+        private int errors;
+
+        synchronized void record(long nanos, boolean ok) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = nanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        synchronized EndpointResult result(String scenario, String endpoint, double seconds) {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            return new EndpointResult(
+                    scenario,
+                    endpoint,
+                    size,
+                    errors,
+                    seconds,
+                    percentile(sorted, 0.50),
+                    percentile(sorted, 0.90),
+                    percentile(sorted, 0.99),
+                    size == 0 ? 0 : sorted[size - 1]
+            );
+        }
+
+        private static long percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+    }
+}
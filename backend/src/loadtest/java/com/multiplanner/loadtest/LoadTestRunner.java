@@ -0,0 +1,208 @@
+package com.multiplanner.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.multiplanner.api.MultiPlannerApplication;
+import com.multiplanner.api.model.Station;
+import com.multiplanner.api.service.StationSearchIndex;
+import com.multiplanner.api.service.StopPointResolver;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * End-to-end load test: stub TfL + the real application + a closed-loop driver.
+ *
+ * 1. starts {@link StubTflServer} and the app (profile "loadtest") pointed at it
+ * 2. seeds the stations table from src/fixtures/stations.csv if it is empty
+ * 3. cold scenario: caches and StopPoint mappings (in memory and in Postgres) cleared, then journeys between random
+ *    station pairs; with a few hundred fixture stations pairs start to repeat, so the hit rate climbs over long runs
+ * 4. warm scenario: a small hot set of pairs, fetched once beforehand (almost all hits)
+ * 5. prints throughput and p50/p90/p99/max for /api/route, /api/route/multi and /api/stations
+ *
+ * Postgres and Redis are embedded by default (infra=embedded); infra=compose uses the containers from
+ * infra/loadtest/docker-compose.yml instead (see application-loadtest.yml).
+ * Arguments (key=value): infra, duration-s, concurrency, hot-pairs, stub.latency-ms, stub.jitter-ms,
+ * stub.error-rate, stub.fixture (small | large | mixed).
+ */
+public final class LoadTestRunner {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private LoadTestRunner() {}
+
+    public static void main(String[] argv) throws Exception {
+        Args args = Args.parse(argv);
+        Duration duration = Duration.ofSeconds(args.getLong("duration-s", 30));
+        int concurrency = args.getInt("concurrency", 32);
+        int hotPairs = args.getInt("hot-pairs", 20);
+
+        boolean embedded = !"compose".equals(args.get("infra", "embedded"));
+
+        List<Station> stations = loadStations();
+        List<LoadDriver.EndpointResult> results = new ArrayList<>();
+
+        try (EmbeddedInfra infra = embedded ? EmbeddedInfra.start() : null;
+             StubTflServer stub = StubTflServer.start(0, StubTflServer.Settings.from(args));
+             ConfigurableApplicationContext app = startApp(infra, stub)) {
+
+            seedStations(app, stations);
+
+            String port = app.getEnvironment().getProperty("local.server.port");
+            LoadDriver driver = new LoadDriver("http://127.0.0.1:" + port);
+
+            // Cold: nothing cached or resolved, every trip (2-4 stops) drawn from the whole station list
+            clearCaches(app);
+            clearStopPointMappings(app);
+            results.addAll(driver.run("cold", duration, concurrency, mix(driver, () -> randomStops(stations, 2 + ThreadLocalRandom.current().nextInt(3)), stations)));
+
+            // Warm: a hot set of pairs (and multi-stop trips built from them), all fetched once beforehand
+            List<List<Station>> hot = new ArrayList<>();
+            for (int i = 0; i < hotPairs; i++) {
+                hot.add(randomStops(stations, 2 + (i % 3)));
+            }
+            Supplier<List<Station>> hotTrip = () -> hot.get(ThreadLocalRandom.current().nextInt(hot.size()));
+            driver.prime(hot.stream().map(stops -> multiRoute(driver, stops)).toList());
+            driver.prime(hot.stream().map(stops -> route(driver, stops.get(0), stops.get(stops.size() - 1))).toList());
+            results.addAll(driver.run("warm", duration, concurrency, mix(driver, hotTrip, stations)));
+
+            LoadDriver.printReport(results);
+            System.out.println("\nStub TfL: " + stub.stats());
+        }
+
+        System.exit(0);
+    }
+
+    // HELPERS
+    //Passed as command line arguments so they override application-loadtest.yml.
+    private static ConfigurableApplicationContext startApp(EmbeddedInfra infra, StubTflServer stub) {
+        Map<String, Object> properties = new HashMap<>();
+        if (infra != null) {
+            properties.putAll(infra.properties());
+        }
+        properties.put("tfl.base-url", stub.baseUrl());
+        properties.put("server.port", 0);
+
+        String[] appArgs = properties.entrySet().stream()
+                .map(e -> "--" + e.getKey() + "=" + e.getValue())
+                .toArray(String[]::new);
+
+        return new SpringApplicationBuilder(MultiPlannerApplication.class)
+                .profiles("loadtest")
+                .run(appArgs);
+    }
+
+    //40% /api/route, 20% /api/route/multi, 40% /api/stations (autocomplete is the most frequent call).
+    private static Supplier<LoadDriver.Call> mix(LoadDriver driver, Supplier<List<Station>> trips, List<Station> stations) {
+        return () -> {
+            int roll = ThreadLocalRandom.current().nextInt(100);
+            if (roll < 40) {
+                List<Station> trip = trips.get();
+                return route(driver, trip.get(0), trip.get(trip.size() - 1));
+            }
+            if (roll < 60) {
+                List<Station> trip = trips.get();
+                return multiRoute(driver, trip);
+            }
+            return stationSearch(driver, stations);
+        };
+    }
+
+    private static LoadDriver.Call route(LoadDriver driver, Station from, Station to) {
+        ObjectNode body = MAPPER.createObjectNode();
+        body.set("from", stationJson(from));
+        body.set("to", stationJson(to));
+        return new LoadDriver.Call("/api/route", driver.postJson("/api/route", body.toString()));
+    }
+
+    private static LoadDriver.Call multiRoute(LoadDriver driver, List<Station> stops) {
+        ObjectNode body = MAPPER.createObjectNode();
+        ArrayNode array = body.putArray("stops");
+        stops.forEach(s -> array.add(stationJson(s)));
+        body.putObject("preferences").put("sortBy", "FASTEST");
+        return new LoadDriver.Call("/api/route/multi", driver.postJson("/api/route/multi", body.toString()));
+    }
+
+    //Autocomplete as typed: a 2-6 character prefix of a real station name.
+    private static LoadDriver.Call stationSearch(LoadDriver driver, List<Station> stations) {
+        String name = pick(stations).getName();
+        String prefix = name.substring(0, Math.min(name.length(), 2 + ThreadLocalRandom.current().nextInt(5)));
+        String query = URLEncoder.encode(prefix, StandardCharsets.UTF_8);
+        return new LoadDriver.Call("/api/stations", driver.get("/api/stations?query=" + query));
+    }
+
+    private static ObjectNode stationJson(Station station) {
+        ObjectNode node = MAPPER.createObjectNode();
+        node.put("code", station.getCode());
+        node.put("name", station.getName());
+        return node;
+    }
+
+    private static List<Station> randomStops(List<Station> stations, int count) {
+        List<Station> stops = new ArrayList<>(count);
+        while (stops.size() < count) {
+            Station next = pick(stations);
+            if (!stops.contains(next)) {
+                stops.add(next);
+            }
+        }
+        return stops;
+    }
+
+    private static Station pick(List<Station> stations) {
+        return stations.get(ThreadLocalRandom.current().nextInt(stations.size()));
+    }
+
+    private static List<Station> loadStations() {
+        List<Station> stations = new ArrayList<>();
+        String[] lines = StubTflServer.readFixture("stations.csv").split("\n");
+        for (int i = 1; i < lines.length; i++) {
+            int comma = lines[i].indexOf(',');
+            if (comma > 0) {
+                stations.add(new Station(lines[i].substring(0, comma), lines[i].substring(comma + 1).trim()));
+            }
+        }
+        return stations;
+    }
+
+    //A fresh load-test database has the schema but no NaPTAN import.
+    private static void seedStations(ConfigurableApplicationContext app, List<Station> stations) {
+        JdbcTemplate jdbc = app.getBean(JdbcTemplate.class);
+        Integer existing = jdbc.queryForObject("SELECT count(*) FROM stations", Integer.class);
+        if (existing != null && existing > 0) {
+            return;
+        }
+
+        jdbc.batchUpdate(
+                "INSERT INTO stations (atco_code, name, stop_type) VALUES (?, ?, 'RLY') ON CONFLICT DO NOTHING",
+                stations.stream().map(s -> new Object[] {s.getCode(), s.getName()}).toList()
+        );
+        app.getBean(StationSearchIndex.class).refresh();
+    }
+
+    //Stations resolve through TfL StopPoint search again, as on a fresh deployment.
+    private static void clearStopPointMappings(ConfigurableApplicationContext app) {
+        app.getBean(JdbcTemplate.class).update("DELETE FROM stop_point_mappings");
+        app.getBean(StopPointResolver.class).clear();
+    }
+
+    private static void clearCaches(ConfigurableApplicationContext app) {
+        CacheManager cacheManager = app.getBean(CacheManager.class);
+        for (String name : cacheManager.getCacheNames()) {
+            cacheManager.getCache(name).clear();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.multiplanner.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local stand-in for the TfL Unified API, serving recorded-shape fixtures.
+ * - GET /Journey/JourneyResults/{from}/to/{to}: a JourneyResults fixture (small, large or a mix)
+ * - GET /StopPoint/Search/{query}: one match whose id is derived from the query, so every station
+ *   resolves to its own StopPoint and journey cache keys stay distinct
+ * - Every response waits latencyMs + random(0..jitterMs); errorRate of them answer 503
+ * - gzip is honoured like TfL's edge, so the client's decompression path is exercised
+ *
+ * Standalone: java -cp ... com.multiplanner.loadtest.StubTflServer port=8089 latency-ms=120 error-rate=0.02
+ */
+public final class StubTflServer implements AutoCloseable {
+
+    public record Settings(long latencyMs, long jitterMs, double errorRate, String journeyFixture) {
+
+        static Settings from(Args args) {
+            return new Settings(
+                    args.getLong("stub.latency-ms", 120),
+                    args.getLong("stub.jitter-ms", 80),
+                    args.getDouble("stub.error-rate", 0.0),
+                    args.get("stub.fixture", "mixed")
+            );
+        }
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpServer server;
+    private final Settings settings;
+    private final Payload smallJourney;
+    private final Payload largeJourney;
+    private final ObjectNode searchTemplate;
+
+    private final LongAdder journeyRequests = new LongAdder();
+    private final LongAdder searchRequests = new LongAdder();
+    private final LongAdder injectedErrors = new LongAdder();
+
+    private StubTflServer(int port, Settings settings) throws IOException {
+        this.settings = settings;
+        this.smallJourney = new Payload(readFixture("tfl/journey-results-small.json"));
+        this.largeJourney = new Payload(readFixture("tfl/journey-results-large.json"));
+        this.searchTemplate = (ObjectNode) MAPPER.readTree(readFixture("tfl/stop-point-search-small.json"));
+
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 512);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.server.createContext("/Journey/JourneyResults/", this::journeyResults);
+        this.server.createContext("/StopPoint/Search/", this::stopPointSearch);
+    }
+
+    public static StubTflServer start(int port, Settings settings) throws IOException {
+        StubTflServer stub = new StubTflServer(port, settings);
+        stub.server.start();
+        return stub;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + port();
+    }
+
+    public String stats() {
+        return "journeyResults=" + journeyRequests.sum()
+                + " stopPointSearch=" + searchRequests.sum()
+                + " injectedErrors=" + injectedErrors.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    public static void main(String[] argv) throws IOException {
+        Args args = Args.parse(argv);
+        StubTflServer stub = start(args.getInt("port", 8089), Settings.from(args));
+        System.out.println("Stub TfL listening on " + stub.baseUrl() + " " + stub.settings);
+    }
+
+    // HANDLERS
+    private void journeyResults(HttpExchange exchange) throws IOException {
+        journeyRequests.increment();
+        try (exchange) {
+            // /Journey/JourneyResults/{from}/to/{to}
+            String[] parts = exchange.getRequestURI().getPath().split("/");
+            if (parts.length != 6 || !"to".equals(parts[4])) {
+                send(exchange, 404, new Payload("{\"message\":\"No journey found\"}"));
+                return;
+            }
+            if (delayOrFail(exchange)) {
+                return;
+            }
+            send(exchange, 200, pickJourney());
+        }
+    }
+
+    private void stopPointSearch(HttpExchange exchange) throws IOException {
+        searchRequests.increment();
+        try (exchange) {
+            String raw = exchange.getRequestURI().getRawPath().substring("/StopPoint/Search/".length());
+            String query = URLDecoder.decode(raw, StandardCharsets.UTF_8);
+            if (delayOrFail(exchange)) {
+                return;
+            }
+            send(exchange, 200, new Payload(searchAnswer(query)));
+        }
+    }
+
+    // HELPERS
+    //Sleeps the configured latency; returns true if an error was injected instead of a response.
+    private boolean delayOrFail(HttpExchange exchange) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = settings.latencyMs() + (settings.jitterMs() > 0 ? random.nextLong(settings.jitterMs() + 1) : 0);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (random.nextDouble() < settings.errorRate()) {
+            injectedErrors.increment();
+            send(exchange, 503, new Payload("{\"message\":\"Injected stub failure\"}"));
+            return true;
+        }
+        return false;
+    }
+
+    private Payload pickJourney() {
+        return switch (settings.journeyFixture()) {
+            case "small" -> smallJourney;
+            case "large" -> largeJourney;
+            // Most pairs are short hops, some are long multi-journey answers
+            default -> ThreadLocalRandom.current().nextDouble() < 0.8 ? smallJourney : largeJourney;
+        };
+    }
+
+    private String searchAnswer(String query) {
+        ObjectNode answer = searchTemplate.deepCopy();
+        answer.put("query", query);
+        answer.put("total", 1);
+
+        ObjectNode match = (ObjectNode) answer.get("matches").get(0).deepCopy();
+        match.put("id", "940GZZST" + Integer.toHexString(query.toLowerCase().hashCode()));
+        match.put("name", query);
+
+        ArrayNode matches = answer.putArray("matches");
+        matches.add(match);
+        return answer.toString();
+    }
+
+    private static void send(HttpExchange exchange, int status, Payload payload) throws IOException {
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        byte[] body = gzip ? payload.gzip() : payload.raw();
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        if (gzip) {
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    static String readFixture(String path) {
+        return readResource("/fixtures/" + path);
+    }
+
+    static String readResource(String path) {
+        try (InputStream in = StubTflServer.class.getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing resource " + path);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //Response body with its gzip form computed once.
+    private static final class Payload {
+
+        private final byte[] raw;
+        private volatile byte[] gzip;
+
+        Payload(String json) {
+            this.raw = json.getBytes(StandardCharsets.UTF_8);
+        }
+
+        byte[] raw() {
+            return raw;
+        }
+
+        byte[] gzip() throws IOException {
+            byte[] compressed = gzip;
+            if (compressed == null) {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(raw.length / 4);
+                try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+                    out.write(raw);
+                }
+                compressed = buffer.toByteArray();
+                gzip = compressed;
+            }
+            return compressed;
+        }
+    }
+}
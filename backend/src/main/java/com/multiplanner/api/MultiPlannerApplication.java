@@ -3,13 +3,16 @@ package com.multiplanner.api;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 /**
  * Application entry point.
  * - Enables Spring Boot auto-configuration and application-wide caching
+ * - Enables scheduled jobs (e.g. station search index refresh)
  */
 
 @SpringBootApplication
 @EnableCaching
+@EnableScheduling
 public class MultiPlannerApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,100 @@
+package com.multiplanner.api.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Negotiates compressed responses and decodes them transparently.
+ * - Adds Accept-Encoding: gzip, deflate to every request
+ * - Unwraps gzip/deflate bodies, so callers always read plain JSON
+ * - An empty body (204, HEAD) is passed through as is, even when it claims an encoding
+ */
+public class CompressionInterceptor implements ClientHttpRequestInterceptor {
+
+    @Override
+    public ClientHttpResponse intercept(
+            HttpRequest request,
+            byte[] body,
+            ClientHttpRequestExecution execution
+    ) throws IOException {
+        request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+
+        ClientHttpResponse response = execution.execute(request, body);
+        String encoding = response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (encoding == null) {
+            return response;
+        }
+
+        return switch (encoding.trim().toLowerCase()) {
+            case "gzip", "x-gzip" -> new DecodedResponse(response, true);
+            case "deflate" -> new DecodedResponse(response, false);
+            default -> response;
+        };
+    }
+
+    //Response wrapper that decompresses the body and drops the now-wrong encoding/length headers.
+    private static final class DecodedResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final boolean gzip;
+        private final HttpHeaders headers;
+        private InputStream body;
+
+        private DecodedResponse(ClientHttpResponse delegate, boolean gzip) {
+            this.delegate = delegate;
+            this.gzip = gzip;
+
+            HttpHeaders copy = new HttpHeaders();
+            copy.putAll(delegate.getHeaders());
+            copy.remove(HttpHeaders.CONTENT_ENCODING);
+            copy.remove(HttpHeaders.CONTENT_LENGTH);
+            this.headers = HttpHeaders.readOnlyHttpHeaders(copy);
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                // GZIPInputStream reads the header eagerly and fails on an empty stream, so peek first
+                PushbackInputStream raw = new PushbackInputStream(delegate.getBody(), 1);
+                int first = raw.read();
+                if (first < 0) {
+                    body = raw;
+                } else {
+                    raw.unread(first);
+                    body = gzip ? new GZIPInputStream(raw) : new InflaterInputStream(raw);
+                }
+            }
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.multiplanner.api.client;
+
+import java.util.function.Supplier;
+
+/**
+ * Priority of outbound TfL calls made by the current thread.
+ * - INTERACTIVE (default): work an API client is waiting for (/api/route*)
+ * - BACKGROUND: pre-warming, stale refreshes, precompute jobs; queued behind interactive calls
+ */
+public enum RequestPriority {
+    INTERACTIVE,
+    BACKGROUND;
+
+    private static final ThreadLocal<RequestPriority> CURRENT = ThreadLocal.withInitial(() -> INTERACTIVE);
+
+    public static RequestPriority current() {
+        return CURRENT.get();
+    }
+
+    public static void runAs(RequestPriority priority, Runnable task) {
+        callAs(priority, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public static <T> T callAs(RequestPriority priority, Supplier<T> task) {
+        RequestPriority previous = CURRENT.get();
+        CURRENT.set(priority);
+        try {
+            return task.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.multiplanner.api.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Circuit breaker for outbound TfL calls.
+ * - CLOSED: calls go through; outcomes are recorded in a sliding window of the last windowSize calls
+ * - Trips to OPEN when the failure rate or the slow-call rate crosses its threshold
+ * - OPEN: calls are rejected immediately with {@link TflUnavailableException} for openDurationMs
+ * - HALF_OPEN: a few probe calls are let through; all healthy closes the circuit, any failure re-opens it
+ * - The state gauge is bound once the breaker is fully built (MeterBinder), not from the constructor
+ */
+@Component
+public class TflCircuitBreaker implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(TflCircuitBreaker.class);
+
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openDurationNanos;
+    private final int halfOpenProbes;
+    private final LongSupplier nanoTime;
+
+    private final Counter rejections;
+
+    // Guarded by this. Ring buffer of outcomes: bit 0 = failed, bit 1 = slow
+    private final byte[] outcomes;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int probesStarted;
+    private int probesSucceeded;
+
+    @Autowired
+    public TflCircuitBreaker(
+            @Value("${tfl.circuit-breaker.window-size:20}") int windowSize,
+            @Value("${tfl.circuit-breaker.minimum-calls:10}") int minimumCalls,
+            @Value("${tfl.circuit-breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+            @Value("${tfl.circuit-breaker.slow-call-rate-threshold:0.8}") double slowCallRateThreshold,
+            @Value("${tfl.circuit-breaker.slow-call-ms:4000}") long slowCallMs,
+            @Value("${tfl.circuit-breaker.open-duration-ms:30000}") long openDurationMs,
+            @Value("${tfl.circuit-breaker.half-open-probes:3}") int halfOpenProbes,
+            MeterRegistry meterRegistry
+    ) {
+        this(windowSize, minimumCalls, failureRateThreshold, slowCallRateThreshold, slowCallMs, openDurationMs,
+                halfOpenProbes, meterRegistry, System::nanoTime);
+    }
+
+    //With the clock used for the open duration (tests).
+    TflCircuitBreaker(
+            int windowSize,
+            int minimumCalls,
+            double failureRateThreshold,
+            double slowCallRateThreshold,
+            long slowCallMs,
+            long openDurationMs,
+            int halfOpenProbes,
+            MeterRegistry meterRegistry,
+            LongSupplier nanoTime
+    ) {
+        this.nanoTime = nanoTime;
+        this.windowSize = Math.max(1, windowSize);
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.windowSize));
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMs);
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+        this.halfOpenProbes = Math.max(1, halfOpenProbes);
+        this.outcomes = new byte[this.windowSize];
+
+        this.rejections = meterRegistry.counter("tfl.circuit.rejections");
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        registry.gauge("tfl.circuit.state", this, b -> b.state().ordinal());
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    public synchronized boolean isOpen() {
+        return state == State.OPEN && nanoTime.getAsLong() - openedAtNanos < openDurationNanos;
+    }
+
+    //Throws if the call must not be made; otherwise the caller reports back via onSuccess/onError/release.
+    public synchronized void acquirePermission() {
+        if (state == State.OPEN) {
+            if (nanoTime.getAsLong() - openedAtNanos < openDurationNanos) {
+                rejections.increment();
+                throw new TflUnavailableException("TfL is currently unavailable, please try again shortly (circuit open)");
+            }
+            transition(State.HALF_OPEN);
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (probesStarted >= halfOpenProbes) {
+                rejections.increment();
+                throw new TflUnavailableException("TfL is currently unavailable, please try again shortly (circuit half-open)");
+            }
+            probesStarted++;
+        }
+    }
+
+    //The permitted call was never made (e.g. rejected by the gate), so it frees its probe slot.
+    public synchronized void release() {
+        if (state == State.HALF_OPEN && probesStarted > 0) {
+            probesStarted--;
+        }
+    }
+
+    public synchronized void onSuccess(long durationNanos) {
+        boolean slow = durationNanos >= slowCallNanos;
+
+        if (state == State.HALF_OPEN) {
+            if (slow) {
+                open();
+            } else if (++probesSucceeded >= halfOpenProbes) {
+                close();
+            }
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(false, slow);
+        }
+    }
+
+    public synchronized void onError(long durationNanos) {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(true, durationNanos >= slowCallNanos);
+        }
+    }
+
+    // HELPERS
+    private void record(boolean failed, boolean slow) {
+        if (recorded == windowSize) {
+            byte evicted = outcomes[next];
+            if ((evicted & 1) != 0) failures--;
+            if ((evicted & 2) != 0) slowCalls--;
+        } else {
+            recorded++;
+        }
+
+        outcomes[next] = (byte) ((failed ? 1 : 0) | (slow ? 2 : 0));
+        next = (next + 1) % windowSize;
+        if (failed) failures++;
+        if (slow) slowCalls++;
+
+        if (recorded >= minimumCalls
+                && ((double) failures / recorded >= failureRateThreshold
+                || (double) slowCalls / recorded >= slowCallRateThreshold)) {
+            open();
+        }
+    }
+
+    private void open() {
+        openedAtNanos = nanoTime.getAsLong();
+        transition(State.OPEN);
+    }
+
+    private void close() {
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+        transition(State.CLOSED);
+    }
+
+    private void transition(State to) {
+        if (state != to) {
+            log.warn("TfL circuit breaker {} -> {}", state, to);
+        }
+        state = to;
+        probesStarted = 0;
+        probesSucceeded = 0;
+    }
+}
@@ -1,22 +1,55 @@
 package com.multiplanner.api.client;
 
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * TfL Unified API client.
+ * - Blocking calls run over the pooled, compression-aware transport from TflClientConfig
+ * - The *Async variants run the same call on a virtual thread, so callers can fan out
+ *   without holding a platform thread per outbound request
+ * - Every call passes through {@link TflGate} (rate limit + bulkhead, by caller priority)
+ * - and through {@link TflCircuitBreaker}, which short-circuits calls while TfL is failing or slow
+ */
 @Component
 public class TflClient {
 
     private final RestClient restClient;
+    private final ExecutorService asyncExecutor;
+    private final TflGate tflGate;
+    private final TflCircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
     private final String baseUrl;
     private final String appKey;
 
     public TflClient(
             @Value("${tfl.base-url}") String baseUrl,
-            @Value("${tfl.app-key}") String appKey
+            @Value("${tfl.app-key}") String appKey,
+            @Qualifier("tflRestClient") RestClient restClient,
+            @Qualifier("routingExecutor") ExecutorService asyncExecutor,
+            TflGate tflGate,
+            TflCircuitBreaker circuitBreaker,
+            MeterRegistry meterRegistry
     ) {
 
         if (baseUrl == null || baseUrl.isBlank() || appKey == null || appKey.isBlank()) {
@@ -25,7 +58,34 @@ public class TflClient {
 
         this.baseUrl = baseUrl;
         this.appKey = appKey;
-        this.restClient = RestClient.create();
+        this.restClient = restClient;
+        this.asyncExecutor = asyncExecutor;
+        this.tflGate = tflGate;
+        this.circuitBreaker = circuitBreaker;
+        this.meterRegistry = meterRegistry;
+    }
+
+    //Non-blocking StopPoint search; completes exceptionally with the same errors as searchStopPoints.
+    public CompletableFuture<String> searchStopPointsAsync(String query) {
+        RequestPriority priority = RequestPriority.current();
+        return CompletableFuture.supplyAsync(
+                () -> RequestPriority.callAs(priority, () -> searchStopPoints(query)),
+                asyncExecutor
+        );
+    }
+
+    //Non-blocking journey planner call; completes exceptionally with the same errors as journeyResults.
+    public CompletableFuture<String> journeyResultsAsync(String fromStopId, String toStopId, String modesCsv) {
+        RequestPriority priority = RequestPriority.current();
+        return CompletableFuture.supplyAsync(
+                () -> RequestPriority.callAs(priority, () -> journeyResults(fromStopId, toStopId, modesCsv)),
+                asyncExecutor
+        );
+    }
+
+    //True while the circuit breaker is rejecting calls, so callers can skip optional TfL work.
+    public boolean isCircuitOpen() {
+        return circuitBreaker.isOpen();
     }
 
     //Search TfL StopPoints by a station name
@@ -37,19 +97,12 @@ public class TflClient {
                 .buildAndExpand(query)
                 .toUriString();
 
-        try {
-            return restClient.get()
-                    .uri(url)
-                    .retrieve()
-                    // Convert TfL 4xx into a readable IllegalArgumentException 
-                    .onStatus(HttpStatusCode::is4xxClientError, (req, res) -> {
-                        throw new IllegalArgumentException("TfL StopPoint search rejected the request");
-                    })
-                    .body(String.class);
-        } catch (RestClientResponseException e) {
-            // keep message readable for the API client
-            throw new IllegalArgumentException("TfL StopPoint search failed: HTTP " + e.getStatusCode(), e);
-        }
+        return exchange(
+                "stop_point_search",
+                url,
+                "TfL StopPoint search rejected the request",
+                "TfL StopPoint search failed"
+        );
     }
 
     // Journey planner between two stop ids
@@ -67,23 +120,110 @@ public class TflClient {
                 .buildAndExpand(fromStopId, toStopId)
                 .toUriString();
 
+        return exchange(
+                "journey_results",
+                url,
+                "TfL JourneyResults rejected the request",
+                "TfL JourneyResults failed (from=" + fromStopId + ", to=" + toStopId + ")"
+        );
+    }
+
+    // HELPERS
+    /**
+     * One outbound call: circuit breaker, then the gate, then HTTP.
+     * 4xx means TfL is healthy but rejected our input (400 to the API client);
+     * 5xx and I/O errors count against the breaker and surface as 503.
+     * An interrupted call is our own cancellation, not a TfL failure: the breaker slot is released
+     * uncounted, no status is recorded and it surfaces as a CancellationException.
+     * Latency is recorded as tfl.requests{endpoint, status} and body size as tfl.response.size{endpoint}.
+     */
+    private String exchange(String endpoint, String url, String rejectedMessage, String failedMessage) {
+        circuitBreaker.acquirePermission();
+
+        TflGate.Permit permit;
         try {
-            return restClient.get()
+            permit = tflGate.acquire(RequestPriority.current());
+        } catch (TflUnavailableException e) {
+            circuitBreaker.release();
+            if (Thread.currentThread().isInterrupted()) {
+                throw cancelled(failedMessage, e);
+            }
+            throw e;
+        }
+
+        long start = System.nanoTime();
+        try (permit) {
+            ResponseEntity<String> response = restClient.get()
                     .uri(url)
                     .retrieve()
                     // Convert TfL 4xx into a readable IllegalArgumentException 
                     .onStatus(HttpStatusCode::is4xxClientError, (req, res) -> {
-                        throw new IllegalArgumentException("TfL JourneyResults rejected the request");
+                        recordRequest(endpoint, String.valueOf(res.getStatusCode().value()), start);
+                        throw new IllegalArgumentException(rejectedMessage);
                     })
-                    .body(String.class);
+                    .toEntity(String.class);
+            long elapsed = recordRequest(endpoint, String.valueOf(response.getStatusCode().value()), start);
+            circuitBreaker.onSuccess(elapsed);
+
+            String body = response.getBody();
+            if (body != null) {
+                responseSize(endpoint).record(body.getBytes(StandardCharsets.UTF_8).length);
+            }
+            return body;
+        } catch (IllegalArgumentException e) {
+            circuitBreaker.onSuccess(System.nanoTime() - start);
+            throw e;
         } catch (RestClientResponseException e) {
+            long elapsed = recordRequest(endpoint, String.valueOf(e.getStatusCode().value()), start);
+            circuitBreaker.onError(elapsed);
             // keep message readable for the API client
-            throw new IllegalArgumentException(
-                    "TfL JourneyResults failed: HTTP " + e.getStatusCode()
-                            + " (from=" + fromStopId + ", to=" + toStopId + ")",
-                    e
-            );
+            throw new TflUnavailableException(failedMessage + ": HTTP " + e.getStatusCode(), e);
+        } catch (RestClientException e) {
+            if (interrupted(e)) {
+                circuitBreaker.release();
+                throw cancelled(failedMessage, e);
+            }
+            long elapsed = recordRequest(endpoint, "IO_ERROR", start);
+            circuitBreaker.onError(elapsed);
+            throw new TflUnavailableException(failedMessage + ": TfL did not respond", e);
+        }
+    }
+
+    //JdkClientHttpRequest turns an interrupt into an IOException; a socket timeout is a real failure.
+    private static boolean interrupted(Throwable e) {
+        if (Thread.currentThread().isInterrupted()) {
+            return true;
         }
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof InterruptedException || t instanceof ClosedByInterruptException
+                    || (t instanceof InterruptedIOException && !(t instanceof SocketTimeoutException))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static CancellationException cancelled(String failedMessage, Exception cause) {
+        CancellationException cancelled = new CancellationException(failedMessage + ": call cancelled");
+        cancelled.initCause(cause);
+        return cancelled;
+    }
+
+    private long recordRequest(String endpoint, String status, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        Timer.builder("tfl.requests")
+                .tags("endpoint", endpoint, "status", status)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        return elapsed;
     }
 
+    private DistributionSummary responseSize(String endpoint) {
+        return DistributionSummary.builder("tfl.response.size")
+                .tag("endpoint", endpoint)
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 }
@@ -0,0 +1,202 @@
+package com.multiplanner.api.client;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Admission control for outbound TfL calls.
+ * - Token bucket sized to the app key quota (requests per minute + burst)
+ * - Bulkhead: at most maxConcurrent calls in flight, others wait in a bounded queue
+ * - The queue is ordered by {@link RequestPriority}, then arrival, so interactive requests
+ *   overtake background work
+ * - Waiting longer than the per-priority limit fails fast with {@link TflUnavailableException}
+ * - Queue depth and in-flight gauges are bound once the gate is fully built (MeterBinder), not from the constructor
+ */
+@Component
+public class TflGate implements MeterBinder {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Waiter> queue = new PriorityQueue<>(
+            Comparator.comparingInt(Waiter::priority).thenComparingLong(Waiter::seq)
+    );
+
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long interactiveMaxWaitNanos;
+    private final long backgroundMaxWaitNanos;
+    private final double tokensPerNano;
+    private final double burst;
+    private final LongSupplier nanoTime;
+
+    private final Counter queueFullRejections;
+    private final Counter timeoutRejections;
+    private final Timer waitTimer;
+
+    // Guarded by lock
+    private double tokens;
+    private long lastRefillNanos;
+    private int inFlight;
+    private long seq;
+
+    @Autowired
+    public TflGate(
+            @Value("${tfl.rate-limit.requests-per-minute:450}") int requestsPerMinute,
+            @Value("${tfl.rate-limit.burst:20}") int burst,
+            @Value("${tfl.bulkhead.max-concurrent:16}") int maxConcurrent,
+            @Value("${tfl.bulkhead.max-queue:200}") int maxQueue,
+            @Value("${tfl.bulkhead.interactive-max-wait-ms:2000}") long interactiveMaxWaitMs,
+            @Value("${tfl.bulkhead.background-max-wait-ms:30000}") long backgroundMaxWaitMs,
+            MeterRegistry meterRegistry
+    ) {
+        this(requestsPerMinute, burst, maxConcurrent, maxQueue, interactiveMaxWaitMs, backgroundMaxWaitMs,
+                meterRegistry, System::nanoTime);
+    }
+
+    //With the clock used for refills and deadlines (tests).
+    TflGate(
+            int requestsPerMinute,
+            int burst,
+            int maxConcurrent,
+            int maxQueue,
+            long interactiveMaxWaitMs,
+            long backgroundMaxWaitMs,
+            MeterRegistry meterRegistry,
+            LongSupplier nanoTime
+    ) {
+        this.nanoTime = nanoTime;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.interactiveMaxWaitNanos = TimeUnit.MILLISECONDS.toNanos(interactiveMaxWaitMs);
+        this.backgroundMaxWaitNanos = TimeUnit.MILLISECONDS.toNanos(backgroundMaxWaitMs);
+        this.tokensPerNano = requestsPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.burst = Math.max(1, burst);
+        this.tokens = this.burst;
+        this.lastRefillNanos = nanoTime.getAsLong();
+
+        this.queueFullRejections = meterRegistry.counter("tfl.gate.rejections", "reason", "queue_full");
+        this.timeoutRejections = meterRegistry.counter("tfl.gate.rejections", "reason", "timeout");
+        this.waitTimer = meterRegistry.timer("tfl.gate.wait");
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        registry.gauge("tfl.gate.queue.depth", this, TflGate::queueDepth);
+        registry.gauge("tfl.gate.inflight", this, TflGate::inFlight);
+    }
+
+    //Held for the duration of one TfL call; closing it frees the concurrency slot.
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public Permit acquire(RequestPriority priority) {
+        long start = nanoTime.getAsLong();
+        long deadline = start + (priority == RequestPriority.BACKGROUND ? backgroundMaxWaitNanos : interactiveMaxWaitNanos);
+
+        lock.lock();
+        try {
+            if (queue.size() >= maxQueue) {
+                queueFullRejections.increment();
+                throw new TflUnavailableException("TfL is busy, please try again shortly (request queue full)");
+            }
+
+            Waiter me = new Waiter(priority.ordinal(), seq++, lock.newCondition());
+            queue.add(me);
+
+            try {
+                while (true) {
+                    long waitNanos = deadline - nanoTime.getAsLong();
+
+                    if (queue.peek() == me && inFlight < maxConcurrent) {
+                        refill();
+                        if (tokens >= 1) {
+                            tokens -= 1;
+                            inFlight++;
+                            queue.poll();
+                            signalHead();
+                            waitTimer.record(nanoTime.getAsLong() - start, TimeUnit.NANOSECONDS);
+                            return this::release;
+                        }
+                        // Head of the queue but out of tokens: sleep until the next one is due
+                        waitNanos = Math.min(waitNanos, (long) Math.ceil((1 - tokens) / tokensPerNano));
+                    }
+
+                    if (deadline - nanoTime.getAsLong() <= 0) {
+                        queue.remove(me);
+                        signalHead();
+                        timeoutRejections.increment();
+                        throw new TflUnavailableException("TfL is busy, please try again shortly (timed out waiting for capacity)");
+                    }
+
+                    me.condition().awaitNanos(Math.max(1, waitNanos));
+                }
+            } catch (InterruptedException e) {
+                queue.remove(me);
+                signalHead();
+                Thread.currentThread().interrupt();
+                throw new TflUnavailableException("Interrupted while waiting for TfL capacity", e);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queueDepth() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // HELPERS
+    private record Waiter(int priority, long seq, Condition condition) {}
+
+    private void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            signalHead();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Only the head of the queue can be admitted, so only it needs waking
+    private void signalHead() {
+        Waiter head = queue.peek();
+        if (head != null) {
+            head.condition().signal();
+        }
+    }
+
+    private void refill() {
+        long now = nanoTime.getAsLong();
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+    }
+}
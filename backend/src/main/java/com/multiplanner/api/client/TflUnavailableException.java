@@ -0,0 +1,19 @@
+package com.multiplanner.api.client;
+
+/**
+ * Thrown when TfL cannot serve a call: it was not attempted because we are protecting the upstream
+ * (rate limit / bulkhead capacity exhausted, circuit open), or TfL failed (5xx, timeout).
+ * Surfaced to API clients as 503.
+ */
+public class TflUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public TflUnavailableException(String message) {
+        super(message);
+    }
+
+    public TflUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
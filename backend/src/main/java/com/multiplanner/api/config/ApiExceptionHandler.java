@@ -3,10 +3,16 @@ package com.multiplanner.api.config;
 import java.time.Instant;
 import java.util.Map;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+
+import com.multiplanner.api.client.TflUnavailableException;
 
 /**
  * Centralised API exception handling.
@@ -14,6 +20,8 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 @RestControllerAdvice
 public class ApiExceptionHandler {
 
+    private static final Logger log = LoggerFactory.getLogger(ApiExceptionHandler.class);
+
     //Client errors (bad input, no journeys, invalid station, etc.)
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Map<String, Object>> handleBadRequest(
@@ -28,12 +36,46 @@ public class ApiExceptionHandler {
                 ));
     }
 
+    //TfL unavailable (capacity exhausted, circuit open, upstream failing): ask the client to retry shortly
+    @ExceptionHandler(TflUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleUpstreamUnavailable(
+            TflUnavailableException ex
+    ) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of(
+                        "timestamp", Instant.now().toString(),
+                        "error", "upstream_unavailable",
+                        "message", ex.getMessage()
+                ));
+    }
+
+    //A streamed route that did not finish within routing.stream.timeout-ms (its legs are cancelled)
+    @ExceptionHandler(AsyncRequestTimeoutException.class)
+    public ResponseEntity<Map<String, Object>> handleTimeout(
+            AsyncRequestTimeoutException ex
+    ) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of(
+                        "timestamp", Instant.now().toString(),
+                        "error", "timeout",
+                        "message", "Routing took too long, please try again."
+                ));
+    }
+
+    //The client went away mid-response: nothing to answer, and not a server error
+    @ExceptionHandler(AsyncRequestNotUsableException.class)
+    public void handleClientGone(AsyncRequestNotUsableException ex) {
+        log.debug("Client went away: {}", ex.getMessage());
+    }
+
     //Anything unexpected is a server error
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleServerError(
             Exception ex
     ) {
-        ex.printStackTrace(); // IMPORTANT during development
+        log.error("Unhandled API error", ex);
 
         return ResponseEntity
                 .status(HttpStatus.INTERNAL_SERVER_ERROR)
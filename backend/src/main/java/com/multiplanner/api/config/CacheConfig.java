@@ -0,0 +1,249 @@
+package com.multiplanner.api.config;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.multiplanner.api.model.ItineraryResponse;
+import com.multiplanner.api.model.JourneyCandidates;
+import com.multiplanner.api.model.JourneyOption;
+import com.multiplanner.api.model.JourneySnapshot;
+import com.multiplanner.api.service.TimeBuckets;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Cache configuration.
+ * - Redis (L2) is shared by all pods and keeps the existing key layout and TTL
+ * - A size-bounded Caffeine near-cache (L1) sits in front of it on each pod
+ * - L1 journey option entries expire at the end of their 5-minute bucket, when the key stops being used
+ * - Concurrent misses for one key share a single load; with a Redis lease this also holds across pods
+ * - latestJourneys keeps the last known journey per pair (no time bucket) until the hard TTL, for stale-while-revalidate
+ * - itineraries holds assembled /api/route/multi responses per time bucket, like journeys
+ * - journeyOptions holds the journey options distilled from each journeys entry (same key); routing reads only these,
+ *   so raw journeys payloads skip L1 and are only read from Redis on a journeyOptions miss
+ * - Redis values are written with CacheValueCodec (Smile + zstd) unless caching.codec.enabled is false
+ */
+@Configuration
+public class CacheConfig {
+
+    static final String JOURNEYS = "journeys";
+    static final String STOP_POINTS = "stopPoints";
+    static final String LATEST_JOURNEYS = "latestJourneys";
+    static final String ITINERARIES = "itineraries";
+    static final String JOURNEY_OPTIONS = "journeyOptions";
+
+    private static final String DEPART_AT_MARKER = ":departAt:";
+
+    private final Duration redisTtl;
+    private final Duration staleHardTtl;
+    private final boolean nearEnabled;
+    private final long nearMaxWeightBytes;
+    private final Duration nearTtl;
+    private final boolean distributedSingleFlight;
+    private final Duration leaseTtl;
+    private final Duration leasePoll;
+    private final boolean codecEnabled;
+    private final int codecCompressMinBytes;
+    private final int codecZstdLevel;
+
+    public CacheConfig(
+            @Value("${spring.cache.redis.time-to-live:300000}") long redisTtlMs,
+            @Value("${caching.near.enabled:true}") boolean nearEnabled,
+            @Value("${caching.near.max-weight-bytes:67108864}") long nearMaxWeightBytes,
+            @Value("${caching.near.ttl-ms:300000}") long nearTtlMs,
+            @Value("${caching.single-flight.distributed:true}") boolean distributedSingleFlight,
+            @Value("${caching.single-flight.lease-ttl-ms:10000}") long leaseTtlMs,
+            @Value("${caching.single-flight.poll-ms:50}") long leasePollMs,
+            @Value("${journeys.stale-while-revalidate.hard-ttl-ms:1800000}") long staleHardTtlMs,
+            @Value("${caching.codec.enabled:true}") boolean codecEnabled,
+            @Value("${caching.codec.compress-min-bytes:512}") int codecCompressMinBytes,
+            @Value("${caching.codec.zstd-level:3}") int codecZstdLevel
+    ) {
+        this.redisTtl = Duration.ofMillis(redisTtlMs);
+        this.staleHardTtl = Duration.ofMillis(staleHardTtlMs);
+        this.nearEnabled = nearEnabled;
+        this.nearMaxWeightBytes = nearMaxWeightBytes;
+        this.nearTtl = Duration.ofMillis(nearTtlMs);
+        this.distributedSingleFlight = distributedSingleFlight;
+        this.leaseTtl = Duration.ofMillis(leaseTtlMs);
+        this.leasePoll = Duration.ofMillis(leasePollMs);
+        this.codecEnabled = codecEnabled;
+        this.codecCompressMinBytes = codecCompressMinBytes;
+        this.codecZstdLevel = codecZstdLevel;
+    }
+
+    @Bean
+    public CacheManager cacheManager(
+            RedisConnectionFactory connectionFactory,
+            StringRedisTemplate redisTemplate,
+            MeterRegistry meterRegistry,
+            ObjectMapper objectMapper
+    ) {
+        RedisCacheConfiguration defaults = RedisCacheConfiguration.defaultCacheConfig().entryTtl(redisTtl);
+
+        // Our own collector (rather than enableStatistics) so batched reads can record their L2 hits and misses too
+        CacheStatisticsCollector redisStatistics = CacheStatisticsCollector.create();
+        RedisCacheWriter cacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory)
+                .withStatisticsCollector(redisStatistics);
+
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(cacheWriter)
+                .cacheDefaults(defaults)
+                .withInitialCacheConfigurations(Map.of(
+                        // Journey entries are JourneySnapshots now; the versioned prefix keeps older String entries unread
+                        JOURNEYS, withCodec(defaults.computePrefixWith(name -> name + ":v2::"), JOURNEYS, objectMapper, meterRegistry),
+                        STOP_POINTS, withCodec(defaults, STOP_POINTS, objectMapper, meterRegistry),
+                        LATEST_JOURNEYS, withCodec(defaults.entryTtl(staleHardTtl), LATEST_JOURNEYS, objectMapper, meterRegistry),
+                        // Itinerary entries hold typed responses now; older entries held serialized JSON
+                        ITINERARIES, withCodec(defaults.computePrefixWith(name -> name + ":v2::"), ITINERARIES, objectMapper, meterRegistry),
+                        JOURNEY_OPTIONS, withCodec(defaults, JOURNEY_OPTIONS, objectMapper, meterRegistry)
+                ))
+                .build();
+        redisCacheManager.afterPropertiesSet();
+
+        RedisLease lease = distributedSingleFlight ? new RedisLease(redisTemplate, leaseTtl, leasePoll) : null;
+
+        return new TieredCacheManager(redisCacheManager, this::nearCache, meterRegistry, lease, connectionFactory, redisStatistics);
+    }
+
+    //Same keys and TTL; only the value encoding changes (older JDK-serialized values are still readable).
+    private RedisCacheConfiguration withCodec(
+            RedisCacheConfiguration config,
+            String cacheName,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry
+    ) {
+        if (!codecEnabled) {
+            return config;
+        }
+        CacheValueCodec codec = new CacheValueCodec(cacheName, objectMapper, codecCompressMinBytes, codecZstdLevel, meterRegistry);
+        return config.serializeValuesWith(SerializationPair.fromSerializer(codec));
+    }
+
+    //Builds the L1 tier for one cache, bounded by approximate value size in bytes.
+    private Cache<Object, ValueWrapper> nearCache(String cacheName) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+
+        if (!nearEnabled || JOURNEYS.equals(cacheName)) {
+            return builder.maximumSize(0).build();
+        }
+
+        return builder
+                .maximumWeight(nearMaxWeightBytes)
+                .weigher((Object key, ValueWrapper value) -> estimateBytes(key) + estimateBytes(value.get()))
+                .expireAfter(JOURNEY_OPTIONS.equals(cacheName) || ITINERARIES.equals(cacheName)
+                        ? new BucketAlignedExpiry(nearTtl)
+                        : fixedExpiry(nearTtl))
+                .build();
+    }
+
+    //Rough heap footprint of a cached key/value; cached payloads are mostly large Strings.
+    private static int estimateBytes(Object value) {
+        if (value instanceof String s) {
+            return 40 + 2 * s.length();
+        }
+        if (value instanceof JourneySnapshot snapshot) {
+            return 32 + estimateBytes(snapshot.json());
+        }
+        if (value instanceof JourneyCandidates candidates) {
+            // Per option: record + times; per leg: record + five short strings
+            int bytes = 96;
+            for (JourneyOption option : candidates.results().journeys()) {
+                bytes += 160 + 320 * option.legs().size();
+            }
+            return bytes;
+        }
+        if (value instanceof ItineraryResponse response) {
+            return 64 + response.json().length + estimateBytes(response.etag());
+        }
+        return 64;
+    }
+
+    private static Expiry<Object, ValueWrapper> fixedExpiry(Duration ttl) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(Object key, ValueWrapper value, long currentTime) {
+                return ttl.toNanos();
+            }
+
+            @Override
+            public long expireAfterUpdate(Object key, ValueWrapper value, long currentTime, long currentDuration) {
+                return ttl.toNanos();
+            }
+
+            @Override
+            public long expireAfterRead(Object key, ValueWrapper value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    /**
+     * Expires journey option and itinerary entries when their departAt bucket ends (capped by the L1 TTL).
+     * Keys without a parsable bucket fall back to the current bucket.
+     */
+    private static final class BucketAlignedExpiry implements Expiry<Object, ValueWrapper> {
+
+        private final Duration maxTtl;
+
+        private BucketAlignedExpiry(Duration maxTtl) {
+            this.maxTtl = maxTtl;
+        }
+
+        @Override
+        public long expireAfterCreate(Object key, ValueWrapper value, long currentTime) {
+            Instant now = Instant.now();
+            Instant bucketEnd = TimeBuckets.nextBucketStart(bucketOf(key, now));
+            long untilBucketEnd = Duration.between(now, bucketEnd).toNanos();
+            return Math.max(0, Math.min(untilBucketEnd, maxTtl.toNanos()));
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, ValueWrapper value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Object key, ValueWrapper value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        private static Instant bucketOf(Object key, Instant fallback) {
+            String k = String.valueOf(key);
+            int start = k.indexOf(DEPART_AT_MARKER);
+            if (start < 0) {
+                return fallback;
+            }
+            start += DEPART_AT_MARKER.length();
+
+            // Bucket keys look like 2024-01-01T09:05Z, so the value runs up to the 'Z'
+            int end = k.indexOf('Z', start);
+            if (end < 0) {
+                return fallback;
+            }
+
+            try {
+                return TimeBuckets.parseKey(k.substring(start, end + 1));
+            } catch (RuntimeException e) {
+                return fallback;
+            }
+        }
+    }
+}
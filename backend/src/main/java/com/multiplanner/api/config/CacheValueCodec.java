@@ -0,0 +1,140 @@
+package com.multiplanner.api.config;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.luben.zstd.Zstd;
+import com.multiplanner.api.model.ItineraryResponse;
+import com.multiplanner.api.model.JourneyCandidates;
+import com.multiplanner.api.model.JourneySnapshot;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Redis value codec for one cache: Smile (binary JSON), zstd-compressed above a size threshold.
+ * - Layout: MAGIC, flags, type id, [uncompressed length if compressed], Smile payload
+ * - Only the cached value types below are encoded this way; anything else falls back to JDK serialization
+ * - Entries written before this codec (JDK serialization) are still read, so keys and prefixes stay as they are
+ * - Every write records cache.value.size{cache, form=raw|encoded}: Smile bytes before and after compression
+ */
+public class CacheValueCodec implements RedisSerializer<Object> {
+
+    private static final byte MAGIC = (byte) 0xC5; // JDK serialization streams start with 0xAC 0xED
+    private static final byte FLAG_ZSTD = 0x01;
+    private static final int HEADER_BYTES = 3;
+
+    // Type id is the index in this list; append only, ids are persisted in Redis
+    private static final List<Class<?>> TYPES = List.of(
+            String.class, JourneySnapshot.class, ItineraryResponse.class, JourneyCandidates.class
+    );
+
+    private final ObjectMapper smileMapper;
+    private final int compressMinBytes;
+    private final int zstdLevel;
+    private final JdkSerializationRedisSerializer legacy = new JdkSerializationRedisSerializer();
+
+    private final DistributionSummary rawSize;
+    private final DistributionSummary encodedSize;
+    private final Counter legacyReads;
+
+    public CacheValueCodec(
+            String cacheName,
+            ObjectMapper objectMapper,
+            int compressMinBytes,
+            int zstdLevel,
+            MeterRegistry meterRegistry
+    ) {
+        this.smileMapper = objectMapper.copyWith(new SmileFactory());
+        this.compressMinBytes = compressMinBytes;
+        this.zstdLevel = zstdLevel;
+
+        this.rawSize = sizeSummary(meterRegistry, cacheName, "raw");
+        this.encodedSize = sizeSummary(meterRegistry, cacheName, "encoded");
+        this.legacyReads = Counter.builder("cache.codec.legacy.reads")
+                .description("Cache values read in the old JDK-serialized form")
+                .tag("cache", cacheName)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return null;
+        }
+
+        int type = TYPES.indexOf(value.getClass());
+        if (type < 0) {
+            return legacy.serialize(value);
+        }
+
+        byte[] raw;
+        try {
+            raw = smileMapper.writeValueAsBytes(value);
+        } catch (Exception e) {
+            throw new SerializationException("Could not encode " + value.getClass().getSimpleName(), e);
+        }
+
+        boolean compress = raw.length >= compressMinBytes;
+        byte[] payload = compress ? Zstd.compress(raw, zstdLevel) : raw;
+
+        ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + (compress ? Integer.BYTES : 0) + payload.length);
+        out.put(MAGIC).put(compress ? FLAG_ZSTD : 0).put((byte) type);
+        if (compress) {
+            out.putInt(raw.length);
+        }
+        out.put(payload);
+
+        rawSize.record(raw.length);
+        encodedSize.record(out.capacity());
+        return out.array();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            legacyReads.increment();
+            return legacy.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_BYTES || bytes[2] < 0 || bytes[2] >= TYPES.size()) {
+            throw new SerializationException("Unknown cache value header");
+        }
+
+        boolean compressed = (bytes[1] & FLAG_ZSTD) != 0;
+        Class<?> type = TYPES.get(bytes[2]);
+
+        try {
+            if (!compressed) {
+                return smileMapper.readValue(bytes, HEADER_BYTES, bytes.length - HEADER_BYTES, type);
+            }
+            int offset = HEADER_BYTES + Integer.BYTES;
+            byte[] raw = new byte[ByteBuffer.wrap(bytes, HEADER_BYTES, Integer.BYTES).getInt()];
+            long written = Zstd.decompressByteArray(raw, 0, raw.length, bytes, offset, bytes.length - offset);
+            if (Zstd.isError(written) || written != raw.length) {
+                throw new SerializationException("Corrupt compressed " + type.getSimpleName());
+            }
+            return smileMapper.readValue(raw, type);
+        } catch (Exception e) {
+            throw new SerializationException("Could not decode cached " + type.getSimpleName(), e);
+        }
+    }
+
+    private static DistributionSummary sizeSummary(MeterRegistry meterRegistry, String cacheName, String form) {
+        return DistributionSummary.builder("cache.value.size")
+                .baseUnit("bytes")
+                .tag("cache", cacheName)
+                .tag("form", form)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
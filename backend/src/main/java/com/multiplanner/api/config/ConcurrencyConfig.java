@@ -0,0 +1,21 @@
+package com.multiplanner.api.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Executors shared by the routing layer.
+ * - Routing fans out blocking TfL/Redis calls, so each task gets its own virtual thread
+ * - Concurrency limits are applied by callers, not by the executor itself
+ */
+@Configuration
+public class ConcurrencyConfig {
+
+    @Bean(destroyMethod = "close")
+    public ExecutorService routingExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
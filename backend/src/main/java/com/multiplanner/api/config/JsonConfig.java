@@ -0,0 +1,100 @@
+package com.multiplanner.api.config;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.Set;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.multiplanner.api.model.BatchRouteResponse;
+import com.multiplanner.api.model.LegSummary;
+import com.multiplanner.api.model.MatrixResponse;
+import com.multiplanner.api.service.RoutingMetrics;
+
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * JSON response writing.
+ * - Route responses are typed records written by Jackson straight to the response stream (no intermediate String)
+ * - Replaces Boot's default Jackson converter (same ObjectMapper) to keep route.stage{stage=serialize}
+ *   and route.response.size for those responses
+ * - /api/route/multi writes pre-serialized bytes (ItineraryResponse), timed where they are built
+ */
+@Configuration
+public class JsonConfig {
+
+    private static final Set<Class<?>> ROUTE_RESPONSES = Set.of(
+            LegSummary.class,
+            MatrixResponse.class,
+            BatchRouteResponse.class
+    );
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(
+            ObjectMapper objectMapper,
+            RoutingMetrics metrics
+    ) {
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+                if (!ROUTE_RESPONSES.contains(object.getClass())) {
+                    super.writeInternal(object, type, outputMessage);
+                    return;
+                }
+
+                CountingOutputMessage counted = new CountingOutputMessage(outputMessage);
+                Timer.Sample sample = Timer.start();
+                try {
+                    super.writeInternal(object, type, counted);
+                } finally {
+                    sample.stop(metrics.stage(RoutingMetrics.Stage.SERIALIZE));
+                }
+                metrics.recordResponseSize(counted.bytes);
+            }
+        };
+    }
+
+    //Passes the body through, counting bytes written.
+    private static final class CountingOutputMessage implements HttpOutputMessage {
+
+        private final HttpOutputMessage delegate;
+        private long bytes;
+        private OutputStream body;
+
+        private CountingOutputMessage(HttpOutputMessage delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            if (body == null) {
+                body = new FilterOutputStream(delegate.getBody()) {
+                    @Override
+                    public void write(int b) throws IOException {
+                        out.write(b);
+                        bytes++;
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        out.write(b, off, len);
+                        bytes += len;
+                    }
+                };
+            }
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+    }
+}
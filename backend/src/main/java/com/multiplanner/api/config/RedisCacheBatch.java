@@ -0,0 +1,73 @@
+package com.multiplanner.api.config;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+/**
+ * Multi-key reads from one RedisCache, which the Spring Cache API only offers key by key.
+ * - getAll: one MGET for every key
+ * - keys and values are decoded exactly as the RedisCache does (prefix, key and value serializers)
+ * - each key counts as a get, hit or miss in the cache statistics, as a RedisCache.get would
+ */
+final class RedisCacheBatch {
+
+    private final String cacheName;
+    private final RedisCacheConfiguration config;
+    private final RedisConnectionFactory connectionFactory;
+    private final CacheStatisticsCollector statistics;
+
+    RedisCacheBatch(RedisCache cache, RedisConnectionFactory connectionFactory, CacheStatisticsCollector statistics) {
+        this.cacheName = cache.getName();
+        this.config = cache.getCacheConfiguration();
+        this.connectionFactory = connectionFactory;
+        this.statistics = statistics;
+    }
+
+    //Values in key order; null where the key is missing. A cached null comes back as NullValue.
+    List<Object> getAll(List<?> keys) {
+        byte[][] encodedKeys = new byte[keys.size()][];
+        for (int i = 0; i < keys.size(); i++) {
+            encodedKeys[i] = encodeKey(keys.get(i));
+        }
+
+        List<byte[]> raw;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            raw = connection.stringCommands().mGet(encodedKeys);
+        }
+
+        List<Object> values = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            byte[] bytes = (raw == null) ? null : raw.get(i);
+            statistics.incGets(cacheName);
+            if (bytes == null) {
+                statistics.incMisses(cacheName);
+            } else {
+                statistics.incHits(cacheName);
+            }
+            values.add(bytes == null ? null : config.getValueSerializationPair().read(ByteBuffer.wrap(bytes)));
+        }
+        return values;
+    }
+
+    private byte[] encodeKey(Object key) {
+        String cacheKey = config.usePrefix() ? config.getKeyPrefixFor(cacheName) + key : String.valueOf(key);
+        return toBytes(config.getKeySerializationPair().write(cacheKey));
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0
+                && buffer.remaining() == buffer.array().length) {
+            return buffer.array();
+        }
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
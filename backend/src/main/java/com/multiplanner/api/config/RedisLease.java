@@ -0,0 +1,51 @@
+package com.multiplanner.api.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+/**
+ * Short-lived Redis leases used to coalesce cache misses across pods.
+ * - SET NX PX so only one pod loads a key at a time; the TTL frees the lease if that pod dies
+ * - Release only deletes the lease if we still own it
+ */
+public class RedisLease {
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class
+    );
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration leaseTtl;
+    private final Duration pollInterval;
+
+    public RedisLease(StringRedisTemplate redisTemplate, Duration leaseTtl, Duration pollInterval) {
+        this.redisTemplate = redisTemplate;
+        this.leaseTtl = leaseTtl;
+        this.pollInterval = pollInterval;
+    }
+
+    //Returns an owner token if the lease was acquired, or null if another pod holds it.
+    public String tryAcquire(String leaseKey) {
+        String token = UUID.randomUUID().toString();
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(leaseKey, token, leaseTtl);
+        return Boolean.TRUE.equals(acquired) ? token : null;
+    }
+
+    public void release(String leaseKey, String token) {
+        redisTemplate.execute(RELEASE_SCRIPT, List.of(leaseKey), token);
+    }
+
+    //Waits until the lease is released or expires (bounded by the lease TTL).
+    public void awaitRelease(String leaseKey) throws InterruptedException {
+        long deadline = System.nanoTime() + leaseTtl.toNanos();
+        while (System.nanoTime() < deadline && Boolean.TRUE.equals(redisTemplate.hasKey(leaseKey))) {
+            Thread.sleep(pollInterval.toMillis());
+        }
+    }
+}
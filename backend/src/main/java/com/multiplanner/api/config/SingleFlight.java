@@ -0,0 +1,91 @@
+package com.multiplanner.api.config;
+
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.nio.channels.ClosedByInterruptException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * In-process request coalescing.
+ * - The first caller for a key runs the loader; concurrent callers for the same key wait for its result
+ * - Failures are shared too, so a failing upstream is not hit once per waiting thread
+ * - A leader that was cancelled or interrupted shares nothing: its waiters retry, and one of them loads instead
+ */
+public class SingleFlight {
+
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    public Object execute(Object key, Callable<Object> loader) throws Exception {
+        while (true) {
+            CompletableFuture<Object> mine = new CompletableFuture<>();
+            CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+            if (existing == null) {
+                return lead(key, mine, loader);
+            }
+
+            try {
+                return await(existing);
+            } catch (Abandoned e) {
+                // The leader gave up, not the loader: try again
+            }
+        }
+    }
+
+    //Number of keys currently being loaded.
+    public int size() {
+        return inFlight.size();
+    }
+
+    private Object lead(Object key, CompletableFuture<Object> mine, Callable<Object> loader) throws Exception {
+        try {
+            Object value = loader.call();
+            mine.complete(value);
+            return value;
+        } catch (Exception | Error e) {
+            // Removed first, so retrying waiters do not find this flight again
+            inFlight.remove(key, mine);
+            mine.completeExceptionally(cancelled(e) ? new Abandoned() : e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    //Our own cancellation (interrupt) rather than a failure of the load; a socket timeout is a real failure.
+    private static boolean cancelled(Throwable e) {
+        if (Thread.currentThread().isInterrupted()) {
+            return true;
+        }
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof InterruptedException || t instanceof CancellationException || t instanceof ClosedByInterruptException
+                    || (t instanceof InterruptedIOException && !(t instanceof SocketTimeoutException))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Object await(CompletableFuture<Object> flight) throws Exception {
+        try {
+            return flight.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception ex) throw ex;
+            if (cause instanceof Error err) throw err;
+            throw e;
+        }
+    }
+
+    //Completes a flight whose leader was cancelled; never leaves this class.
+    private static final class Abandoned extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Abandoned() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.multiplanner.api.config;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import com.multiplanner.api.client.CompressionInterceptor;
+
+/**
+ * HTTP transport for TfL calls.
+ * - JDK HttpClient: HTTP/2 where TfL offers it, otherwise pooled keep-alive HTTP/1.1 connections
+ * - Explicit connect and read timeouts, so a slow upstream cannot hold request threads indefinitely
+ * - gzip/deflate negotiated and decoded by {@link CompressionInterceptor}
+ */
+@Configuration
+public class TflClientConfig {
+
+    @Bean
+    public HttpClient tflHttpClient(
+            @Value("${tfl.http2:true}") boolean http2,
+            @Value("${tfl.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Qualifier("routingExecutor") ExecutorService routingExecutor
+    ) {
+        return HttpClient.newBuilder()
+                .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(routingExecutor)
+                .build();
+    }
+
+    @Bean
+    public RestClient tflRestClient(
+            HttpClient tflHttpClient,
+            @Value("${tfl.read-timeout-ms:10000}") long readTimeoutMs
+    ) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(tflHttpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+
+        return RestClient.builder()
+                .requestFactory(requestFactory)
+                .requestInterceptor(new CompressionInterceptor())
+                .build();
+    }
+}
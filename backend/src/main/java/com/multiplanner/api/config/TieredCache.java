@@ -0,0 +1,282 @@
+package com.multiplanner.api.config;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+/**
+ * Two-tier cache: a bounded in-process near-cache (L1) in front of a shared Redis cache (L2).
+ * - Reads try L1 first and only go to Redis on a local miss
+ * - getAll reads many keys with one Redis round trip (MGET) for everything L1 does not hold
+ * - Values found in Redis are copied into L1 so the next hit on this pod stays in-heap
+ * - Writes and evictions go to both tiers
+ * - Synchronized loads (@Cacheable(sync = true)) are coalesced: one load per key per pod,
+ *   and optionally one per key across pods via a Redis lease
+ */
+public class TieredCache implements Cache {
+
+    private static final Logger log = LoggerFactory.getLogger(TieredCache.class);
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, ValueWrapper> nearCache;
+    private final Cache remoteCache;
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final RedisLease lease; // null = coalesce within this pod only
+    private final RedisCacheBatch remoteBatch; // null = getAll reads Redis key by key
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public TieredCache(
+            String name,
+            com.github.benmanes.caffeine.cache.Cache<Object, ValueWrapper> nearCache,
+            Cache remoteCache,
+            RedisLease lease,
+            RedisCacheBatch remoteBatch
+    ) {
+        this.name = name;
+        this.nearCache = nearCache;
+        this.remoteCache = remoteCache;
+        this.lease = lease;
+        this.remoteBatch = remoteBatch;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remoteCache.getNativeCache();
+    }
+
+    public com.github.benmanes.caffeine.cache.Cache<Object, ValueWrapper> getNearCache() {
+        return nearCache;
+    }
+
+    public Cache getRemoteCache() {
+        return remoteCache;
+    }
+
+    public SingleFlight getSingleFlight() {
+        return singleFlight;
+    }
+
+    //Hits in either tier, as seen by callers (re-checks during a load are not counted).
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper wrapper = lookup(key);
+        (wrapper != null ? hits : misses).increment();
+        return wrapper;
+    }
+
+    //Entries found for the keys, in key order; misses are left out. Counted as one get per key.
+    public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+        Map<Object, ValueWrapper> found = new LinkedHashMap<>();
+        Set<Object> missing = new LinkedHashSet<>();
+        for (Object key : keys) {
+            ValueWrapper near = nearCache.getIfPresent(key);
+            if (near != null) {
+                found.put(key, near);
+            } else {
+                missing.add(key);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            List<Object> remoteKeys = List.copyOf(missing);
+            List<Object> values = remoteValues(remoteKeys);
+            for (int i = 0; i < remoteKeys.size(); i++) {
+                Object value = values.get(i);
+                if (value == null) {
+                    continue;
+                }
+                ValueWrapper wrapper = new SimpleValueWrapper(value instanceof NullValue ? null : value);
+                nearCache.put(remoteKeys.get(i), wrapper);
+                found.put(remoteKeys.get(i), wrapper);
+            }
+        }
+
+        hits.add(found.size());
+        misses.add(keys.size() - found.size());
+        return found;
+    }
+
+    //A failed batch read (e.g. Redis unavailable) is treated as all misses; the callers' per-key loads then decide.
+    private List<Object> remoteValues(List<Object> keys) {
+        if (remoteBatch != null) {
+            try {
+                return remoteBatch.getAll(keys);
+            } catch (RuntimeException e) {
+                log.warn("Batch read from cache {} failed: {}", name, e.getMessage());
+                return new ArrayList<>(Collections.nCopies(keys.size(), null));
+            }
+        }
+
+        List<Object> values = new ArrayList<>(keys.size());
+        for (Object key : keys) {
+            ValueWrapper wrapper = remoteCache.get(key);
+            values.add(wrapper == null ? null : (wrapper.get() == null ? NullValue.INSTANCE : wrapper.get()));
+        }
+        return values;
+    }
+
+    private ValueWrapper lookup(Object key) {
+        ValueWrapper near = nearCache.getIfPresent(key);
+        if (near != null) {
+            return near;
+        }
+
+        ValueWrapper remote = remoteCache.get(key);
+        if (remote != null) {
+            nearCache.put(key, new SimpleValueWrapper(remote.get()));
+        }
+        return remote;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper == null) {
+            return null;
+        }
+
+        Object value = wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+
+        try {
+            return (T) singleFlight.execute(key, () -> loadOnce(key, valueLoader));
+        } catch (ValueRetrievalException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    //Runs at most once per key at a time on this pod.
+    private Object loadOnce(Object key, Callable<?> valueLoader) throws Exception {
+        // Another flight may have filled the cache between our miss and this load
+        ValueWrapper wrapper = lookup(key);
+        if (wrapper != null) {
+            return wrapper.get();
+        }
+
+        String leaseKey = "lease:" + name + "::" + key;
+        String token = tryAcquireLease(leaseKey);
+
+        if (lease != null && token == null) {
+            // Another pod is loading this key: wait for it, then read what it wrote
+            lease.awaitRelease(leaseKey);
+            ValueWrapper loaded = lookup(key);
+            if (loaded != null) {
+                return loaded.get();
+            }
+        }
+
+        try {
+            Object value;
+            try {
+                value = valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            put(key, value);
+            return value;
+        } finally {
+            if (token != null) {
+                releaseLease(leaseKey, token);
+            }
+        }
+    }
+
+    //Lease problems (e.g. Redis unavailable) must not block loading, so they only disable cross-pod coalescing.
+    private String tryAcquireLease(String leaseKey) {
+        if (lease == null) {
+            return null;
+        }
+        try {
+            return lease.tryAcquire(leaseKey);
+        } catch (RuntimeException e) {
+            log.warn("Could not acquire cache lease {}: {}", leaseKey, e.getMessage());
+            return "";
+        }
+    }
+
+    private void releaseLease(String leaseKey, String token) {
+        if (token.isEmpty()) {
+            return;
+        }
+        // A cancelled loader is interrupted; release anyway, or other pods wait out the lease TTL
+        boolean interrupted = Thread.interrupted();
+        try {
+            lease.release(leaseKey, token);
+        } catch (RuntimeException e) {
+            log.warn("Could not release cache lease {}: {}", leaseKey, e.getMessage());
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remoteCache.put(key, value);
+        nearCache.put(key, new SimpleValueWrapper(value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remoteCache.putIfAbsent(key, value);
+        nearCache.put(key, new SimpleValueWrapper(existing != null ? existing.get() : value));
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remoteCache.evict(key);
+        nearCache.invalidate(key);
+    }
+
+    @Override
+    public void clear() {
+        remoteCache.clear();
+        nearCache.invalidateAll();
+    }
+}
@@ -0,0 +1,111 @@
+package com.multiplanner.api.config;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.boot.actuate.metrics.cache.RedisCacheMetrics;
+import org.springframework.cache.Cache;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache manager that puts an in-process near-cache in front of every Redis cache.
+ * - Each cache gets its own bounded Caffeine tier (built by the nearCacheFactory)
+ * - Both tiers publish hit/miss/eviction metrics tagged with tier=l1 / tier=l2,
+ *   plus a combined cache.tiered.gets / cache.hit.ratio per cache
+ * - Misses on synchronized loads are coalesced per key (see {@link TieredCache})
+ * - Redis caches also get a batch reader, so TieredCache.getAll costs one round trip; it records its reads in the
+ *   Redis cache statistics (the collector the RedisCacheWriter uses), so tier=l2 gets include batched lookups
+ */
+public final class TieredCacheManager implements CacheManager {
+
+    private final RedisCacheManager redisCacheManager;
+    private final Function<String, com.github.benmanes.caffeine.cache.Cache<Object, ValueWrapper>> nearCacheFactory;
+    private final MeterRegistry meterRegistry;
+    private final RedisLease lease;
+    private final RedisConnectionFactory connectionFactory;
+    private final CacheStatisticsCollector redisStatistics;
+    private final Map<String, TieredCache> caches = new ConcurrentHashMap<>();
+
+    public TieredCacheManager(
+            RedisCacheManager redisCacheManager,
+            Function<String, com.github.benmanes.caffeine.cache.Cache<Object, ValueWrapper>> nearCacheFactory,
+            MeterRegistry meterRegistry,
+            RedisLease lease,
+            RedisConnectionFactory connectionFactory,
+            CacheStatisticsCollector redisStatistics
+    ) {
+        this.redisCacheManager = redisCacheManager;
+        this.nearCacheFactory = nearCacheFactory;
+        this.meterRegistry = meterRegistry;
+        this.lease = lease;
+        this.connectionFactory = connectionFactory;
+        this.redisStatistics = redisStatistics;
+
+        // Create the configured caches up front so their metrics exist before the first request
+        for (String name : redisCacheManager.getCacheNames()) {
+            getCache(name);
+        }
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    private TieredCache createCache(String name) {
+        Cache remote = redisCacheManager.getCache(name);
+        if (remote == null) {
+            throw new IllegalStateException("No Redis cache configured for " + name);
+        }
+
+        com.github.benmanes.caffeine.cache.Cache<Object, ValueWrapper> near = nearCacheFactory.apply(name);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, near, name, Tags.of("tier", "l1"));
+        RedisCacheBatch remoteBatch = null;
+        if (remote instanceof RedisCache redisCache) {
+            new RedisCacheMetrics(redisCache, Tags.of("tier", "l2")).bindTo(meterRegistry);
+            remoteBatch = new RedisCacheBatch(redisCache, connectionFactory, redisStatistics);
+        }
+
+        TieredCache cache = new TieredCache(name, near, remote, lease, remoteBatch);
+        meterRegistry.gauge("cache.loads.inflight", Tags.of("cache", name), cache.getSingleFlight(), SingleFlight::size);
+
+        // Combined view across both tiers: what fraction of lookups avoided a load
+        FunctionCounter.builder("cache.tiered.gets", cache, TieredCache::hitCount)
+                .tags("cache", name, "result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.tiered.gets", cache, TieredCache::missCount)
+                .tags("cache", name, "result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("cache.hit.ratio", cache, TieredCacheManager::hitRatio)
+                .tag("cache", name)
+                .register(meterRegistry);
+
+        return cache;
+    }
+
+    private static double hitRatio(TieredCache cache) {
+        long hits = cache.hitCount();
+        long total = hits + cache.missCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -1,40 +1,165 @@
 package com.multiplanner.api.controller;
 
+import com.multiplanner.api.model.BatchRouteResponse;
+import com.multiplanner.api.model.ItineraryResponse;
+import com.multiplanner.api.model.LegSummary;
+import com.multiplanner.api.model.MatrixResponse;
 import com.multiplanner.api.model.Station;
+import com.multiplanner.api.service.RoutingMetrics;
 import com.multiplanner.api.service.RoutingService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 /**
  * REST controller displaying routing endpoints
  *  - Validates request shape using records
  *  - leaves all routing, filtering, and sorting logic to RoutingService
+ *  - returns typed responses, which Jackson writes straight to the response stream
+ *    (multi-leg routes are served as the cached, pre-serialized ItineraryResponse bytes)
  */
 @RestController
 @RequestMapping("/api")
 public class RoutingController {
 
+    private static final Logger log = LoggerFactory.getLogger(RoutingController.class);
+
     private final RoutingService routingService;
+    private final RoutingMetrics routingMetrics;
+    private final ExecutorService routingExecutor;
+    private final long streamTimeoutMs;
 
-    public RoutingController(RoutingService routingService) {
+    public RoutingController(
+            RoutingService routingService,
+            RoutingMetrics routingMetrics,
+            @Qualifier("routingExecutor") ExecutorService routingExecutor,
+            @Value("${routing.stream.timeout-ms:30000}") long streamTimeoutMs
+    ) {
         this.routingService = routingService;
+        this.routingMetrics = routingMetrics;
+        this.routingExecutor = routingExecutor;
+        this.streamTimeoutMs = streamTimeoutMs;
     }
 
     //Single-leg route (From -> To).
     @PostMapping("/route")
-    public String route(@RequestBody RouteRequest request) {
+    public LegSummary route(@RequestBody RouteRequest request) {
         return routingService.routeStationToStation(request.from(), request.to());
     }
 
-    //Multi-leg route (From -> Stop1 -> ... -> To).
+    //Multi-leg route (From -> Stop1 -> ... -> To), pre-serialized; 304 without a body when If-None-Match has the current ETag.
     @PostMapping("/route/multi")
-    public String routeMulti(@RequestBody MultiRouteRequest request) {
-        System.out.println("routeMulti request = " + request);
-        return routingService.routeMulti(
+    public ResponseEntity<byte[]> routeMulti(
+            @RequestBody MultiRouteRequest request,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        log.debug("routeMulti request = {}", request);
+        ItineraryResponse response = routingService.routeMulti(
+                request.stops(),
+                request.preferences(),
+                request.modes()
+        );
+
+        if (etagMatches(ifNoneMatch, response.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(response.etag()).build();
+        }
+        // Written as the bytes the ETag was computed from
+        routingMetrics.recordResponseSize(response.json().length);
+        return ResponseEntity.ok()
+                .eTag(response.etag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(response.json());
+    }
+
+    //Multi-leg route streamed as NDJSON: one line per leg as it completes, then a totals line.
+    @PostMapping(value = "/route/multi/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> routeMultiStream(@RequestBody MultiRouteRequest request) {
+        // Bad input fails here, before the stream starts, so it is still a plain 400
+        RoutingService.RouteStream stream = routingService.streamMulti(
                 request.stops(),
                 request.preferences(),
                 request.modes()
         );
+
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(streamTimeoutMs);
+        AtomicBoolean closed = new AtomicBoolean();
+        FutureTask<Void> writer = new FutureTask<>(() -> {
+            try {
+                stream.writeTo(json -> {
+                    if (closed.get()) {
+                        throw new IOException("Stream closed");
+                    }
+                    emitter.send(json + "\n", MediaType.APPLICATION_NDJSON);
+                });
+                emitter.complete();
+            } catch (IOException | RuntimeException e) {
+                log.debug("routeMultiStream ended early: {}", e.getMessage());
+                emitter.completeWithError(e);
+            }
+        }, null);
+
+        // Timed out, client gone or done: the writer stops at its next leg and skips the legs not started yet.
+        // Legs already loading are not interrupted, as other requests may be waiting on the same load
+        Runnable stop = () -> {
+            closed.set(true);
+            writer.cancel(false);
+        };
+        emitter.onTimeout(stop);
+        emitter.onError(e -> stop.run());
+        emitter.onCompletion(stop);
+        routingExecutor.execute(writer);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header("X-Accel-Buffering", "no") // nginx passes each line through instead of buffering
+                .body(emitter);
+    }
+
+    //Many multi-leg routes in one call; each result has its own status.
+    @PostMapping("/route/batch")
+    public BatchRouteResponse routeBatch(@RequestBody BatchRouteRequest request) {
+        return routingService.routeBatch(request.itineraries());
+    }
+
+    //Travel-time matrix (every origin -> every destination).
+    @PostMapping("/route/matrix")
+    public MatrixResponse routeMatrix(@RequestBody MatrixRequest request) {
+        return routingService.routeMatrix(
+                request.origins(),
+                request.destinations(),
+                request.preferences(),
+                request.modes()
+        );
+    }
+
+    //If-None-Match is a comma-separated list of ETags (or *); weak ones compare by their opaque value.
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     // Request body for single-leg routing.
@@ -47,11 +172,26 @@ public class RoutingController {
             Modes modes
     ) {}
 
+    //Request body for batch routing.
+    public record BatchRouteRequest(List<MultiRouteRequest> itineraries) {}
+
+    //Request body for the travel-time matrix.
+    public record MatrixRequest(
+            List<Station> origins,
+            List<Station> destinations,
+            Preferences preferences,
+            Modes modes
+    ) {}
+
     //Sorting preference for selecting the best journey option returned by TfL.
-    public record Preferences(SortBy sortBy) {}
+    //optimiseOrder: keep the first and last stops, visit the ones in between in the quickest order.
+    //engine: TFL (default) or LOCAL, the in-process timetable router (see LocalRoutingService).
+    public record Preferences(SortBy sortBy, Boolean optimiseOrder, Engine engine) {}
 
     //Transport mode toggles for filtering TfL journey options.
     public record Modes(Boolean includeBus, Boolean includeTram) {}
 
     public enum SortBy { FASTEST, FEWEST_TRANSFERS }
+
+    public enum Engine { TFL, LOCAL }
 }
@@ -6,11 +6,13 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.multiplanner.api.model.NearbyStation;
 import com.multiplanner.api.model.Station;
 import com.multiplanner.api.service.StationService;
 /**
  * REST controller for station search.
  * - Exposes an endpoint used by the frontend station search inputs
+ * - Nearest stations to a point (lat / lon in WGS84, radius in metres), nearest first
  * - This intentionally avoids external APIs and queries a locally-seeded NaPTAN dataset
  */
 @RestController
@@ -26,4 +28,14 @@ public class StationController{
         return stationService.searchStations(query);
     }
 
+    @GetMapping("/api/stations/nearby")
+    public List<NearbyStation> nearbyStations(
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Integer radius
+    ){
+        return stationService.nearbyStations(lat, lon, limit, radius);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.multiplanner.api.model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Results of a batch of multi-stop routes, in request order.
+ * - distinctLegs: legs looked up for the whole batch (shared legs count once)
+ */
+public record BatchRouteResponse(
+        String mode,
+        int itineraries,
+        int distinctLegs,
+        List<Item> results
+) {
+
+    //Either status 200 with route, or an error status with error/message (same codes as the API error responses).
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Item(int status, MultiRouteResponse route, String error, String message) {
+
+        public static Item ok(MultiRouteResponse route) {
+            return new Item(200, route, null, null);
+        }
+
+        public static Item failed(int status, String error, String message) {
+            return new Item(status, null, error, message);
+        }
+    }
+}
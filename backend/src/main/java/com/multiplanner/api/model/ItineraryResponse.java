@@ -0,0 +1,31 @@
+package com.multiplanner.api.model;
+
+import java.io.Serializable;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * A fully assembled route response as served and held in the itinerary cache.
+ * - json: the body serialized once, exactly the bytes written to clients
+ * - etag: strong validator derived from those bytes (SHA-256), computed once when the response is built
+ */
+public record ItineraryResponse(byte[] json, String etag) implements Serializable {
+
+    //Serializes the body as the API writes it (same ObjectMapper) and hashes the result.
+    public static ItineraryResponse of(MultiRouteResponse body, ObjectMapper objectMapper) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            // 128 bits is plenty to tell bodies apart
+            return new ItineraryResponse(json, "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize route response", e);
+        }
+    }
+}
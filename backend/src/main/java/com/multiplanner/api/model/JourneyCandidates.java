@@ -0,0 +1,36 @@
+package com.multiplanner.api.model;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Journey options for one pair and time bucket, distilled from a TfL JourneyResults payload.
+ * - results: what routing reads (any SortBy / bus / tram filter can be applied to it)
+ * - fetchedAtEpochMs / stale: carried over from the JourneySnapshot it was distilled from
+ * - timetable: answered by the local timetable router rather than TfL (never cached)
+ */
+public record JourneyCandidates(
+        JourneyResults results,
+        long fetchedAtEpochMs,
+        boolean stale,
+        boolean timetable,
+        boolean lastKnown
+) implements Serializable {
+
+    public static JourneyCandidates of(JourneyResults results, JourneySnapshot snapshot) {
+        return new JourneyCandidates(results, snapshot.fetchedAtEpochMs(), snapshot.stale(), false, false);
+    }
+
+    public static JourneyCandidates fromTimetable(JourneyResults results) {
+        return new JourneyCandidates(results, System.currentTimeMillis(), false, true, false);
+    }
+
+    //Same options served as the degraded-mode fallback while TfL is unavailable (always stale).
+    public JourneyCandidates asLastKnown() {
+        return new JourneyCandidates(results, fetchedAtEpochMs, true, timetable, true);
+    }
+
+    public Instant fetchedAt() {
+        return Instant.ofEpochMilli(fetchedAtEpochMs);
+    }
+}
@@ -0,0 +1,16 @@
+package com.multiplanner.api.model;
+
+import java.io.Serializable;
+
+/**
+ * One leg of a TfL journey option (mode, line, direction, endpoints and duration).
+ * Any text field may be null when TfL omits it.
+ */
+public record JourneyLeg(
+        String mode,
+        String line,
+        String direction,
+        String from,
+        String to,
+        int durationMinutes
+) implements Serializable {}
@@ -0,0 +1,22 @@
+package com.multiplanner.api.model;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * One journey option from a TfL JourneyResults response, reduced to the fields routing uses.
+ *
+ * durationMinutes is -1 when TfL did not supply a duration.
+ */
+public record JourneyOption(
+        int durationMinutes,
+        String startDateTime,
+        String arrivalDateTime,
+        List<JourneyLeg> legs
+) implements Serializable {
+
+    //Duration used for ranking; options without a duration sort last.
+    public int rankDuration() {
+        return durationMinutes < 0 ? Integer.MAX_VALUE : durationMinutes;
+    }
+}
@@ -0,0 +1,6 @@
+package com.multiplanner.api.model;
+
+/**
+ * An origin/destination StopPoint pair with the TfL mode list it was requested with.
+ */
+public record JourneyPair(String fromId, String toId, String modesCsv) {}
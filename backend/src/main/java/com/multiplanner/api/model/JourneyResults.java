@@ -0,0 +1,11 @@
+package com.multiplanner.api.model;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Compact form of a TfL JourneyResults payload.
+ * - journeys: extracted journey options (empty if TfL returned none)
+ * - message: TfL error message, if the payload was an error response
+ */
+public record JourneyResults(List<JourneyOption> journeys, String message) implements Serializable {}
@@ -0,0 +1,28 @@
+package com.multiplanner.api.model;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A TfL JourneyResults payload as held in the journey caches.
+ * - fetchedAtEpochMs: when the payload was fetched from TfL
+ * - stale: served past its freshness window while a refresh runs in the background
+ */
+public record JourneySnapshot(String json, long fetchedAtEpochMs, boolean stale) implements Serializable {
+
+    public static JourneySnapshot fetchedNow(String json) {
+        return new JourneySnapshot(json, System.currentTimeMillis(), false);
+    }
+
+    public long ageMs(long nowEpochMs) {
+        return nowEpochMs - fetchedAtEpochMs;
+    }
+
+    public Instant fetchedAt() {
+        return Instant.ofEpochMilli(fetchedAtEpochMs);
+    }
+
+    public JourneySnapshot asStale() {
+        return stale ? this : new JourneySnapshot(json, fetchedAtEpochMs, true);
+    }
+}
@@ -0,0 +1,58 @@
+package com.multiplanner.api.model;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Best journey for one leg (from -> to), as returned to API clients.
+ * - fromName / toName / summary: always present (null when unknown), clients read them unconditionally
+ * - startDateTime / arrivalDateTime: omitted when TfL did not supply them
+ * - stale / fetchedAt: only present when the journey was served from an older snapshot
+ * - source: "timetable" when the local timetable router answered instead of TfL, "lastKnown" when TfL is unavailable
+ *   and the last journey seen for the pair is served; otherwise omitted
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record LegSummary(
+        @JsonInclude(JsonInclude.Include.ALWAYS) String fromName,
+        @JsonInclude(JsonInclude.Include.ALWAYS) String toName,
+        String fromStopPointId,
+        String toStopPointId,
+        int durationMinutes,
+        String startDateTime,
+        String arrivalDateTime,
+        int interchanges,
+        @JsonInclude(JsonInclude.Include.ALWAYS) String summary,
+        List<Segment> segments,
+        Boolean stale,
+        String fetchedAt,
+        String source
+) implements Serializable {
+
+    public static final String SOURCE_TIMETABLE = "timetable";
+    public static final String SOURCE_LAST_KNOWN = "lastKnown";
+
+    //Same leg marked as served from a snapshot fetched at fetchedAt.
+    public LegSummary asStale(Instant fetchedAt) {
+        return new LegSummary(fromName, toName, fromStopPointId, toStopPointId, durationMinutes,
+                startDateTime, arrivalDateTime, interchanges, summary, segments, true, fetchedAt.toString(), source);
+    }
+
+    //Same leg marked as the last known journey, served because TfL is unavailable.
+    public LegSummary asLastKnown(Instant fetchedAt) {
+        return new LegSummary(fromName, toName, fromStopPointId, toStopPointId, durationMinutes,
+                startDateTime, arrivalDateTime, interchanges, summary, segments, true, fetchedAt.toString(), SOURCE_LAST_KNOWN);
+    }
+
+    //Same leg marked as answered by the local timetable router.
+    public LegSummary fromTimetable() {
+        return new LegSummary(fromName, toName, fromStopPointId, toStopPointId, durationMinutes,
+                startDateTime, arrivalDateTime, interchanges, summary, segments, stale, fetchedAt, SOURCE_TIMETABLE);
+    }
+
+    public boolean servedStale() {
+        return Boolean.TRUE.equals(stale);
+    }
+}
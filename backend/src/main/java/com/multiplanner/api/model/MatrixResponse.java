@@ -0,0 +1,29 @@
+package com.multiplanner.api.model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Origin x destination travel-time matrix.
+ * - durationMinutes / interchanges: [origin][destination], null where the cell failed
+ * - errors: one entry per failed cell
+ * - stale: only present when at least one cell came from an older snapshot
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record MatrixResponse(
+        String mode,
+        List<Stop> origins,
+        List<Stop> destinations,
+        List<List<Integer>> durationMinutes,
+        List<List<Integer>> interchanges,
+        List<CellError> errors,
+        Boolean stale
+) {
+
+    //stopPointId is null when the station could not be resolved.
+    @JsonInclude(JsonInclude.Include.ALWAYS)
+    public record Stop(String name, String stopPointId) {}
+
+    public record CellError(int origin, int destination, String error, String message) {}
+}
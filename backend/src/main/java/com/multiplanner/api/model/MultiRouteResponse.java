@@ -0,0 +1,44 @@
+package com.multiplanner.api.model;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Multi-stop route: per-leg summaries in visiting order plus totals.
+ * - results: omitted in the totals event of a streamed route (the legs were already sent)
+ * - stopOrder: indices into the requested stops in visiting order, only present when the order was optimised
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record MultiRouteResponse(
+        String mode,
+        int legs,
+        int totalDurationMinutes,
+        int totalInterchanges,
+        List<LegSummary> results,
+        List<Integer> stopOrder
+) implements Serializable {
+
+    public static MultiRouteResponse of(List<LegSummary> legSummaries, int[] stopOrder) {
+        int totalDuration = 0;
+        int totalInterchanges = 0;
+        for (LegSummary leg : legSummaries) {
+            totalDuration += leg.durationMinutes();
+            totalInterchanges += leg.interchanges();
+        }
+
+        List<Integer> order = null;
+        if (stopOrder != null) {
+            order = Arrays.stream(stopOrder).boxed().toList();
+        }
+
+        return new MultiRouteResponse("multi", legSummaries.size(), totalDuration, totalInterchanges,
+                List.copyOf(legSummaries), order);
+    }
+
+    public MultiRouteResponse withoutResults() {
+        return new MultiRouteResponse(mode, legs, totalDurationMinutes, totalInterchanges, null, stopOrder);
+    }
+}
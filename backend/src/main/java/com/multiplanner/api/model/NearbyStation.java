@@ -0,0 +1,12 @@
+package com.multiplanner.api.model;
+
+/**
+ * A station near a point, as returned by /api/stations/nearby.
+ * - distanceMeters: great-circle distance from the queried point, rounded to the metre
+ */
+public record NearbyStation(String code, String name, double lat, double lon, int distanceMeters) {
+
+    public Station toStation() {
+        return new Station(code, name, lat, lon);
+    }
+}
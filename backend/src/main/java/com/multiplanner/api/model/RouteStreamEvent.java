@@ -0,0 +1,34 @@
+package com.multiplanner.api.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * One NDJSON line of a streamed multi-stop route.
+ * - leg: {"type":"leg","index":i,"leg":{...}} as soon as that leg is ready
+ * - totals: {"type":"totals",...} with the MultiRouteResponse fields (no results) after the last leg
+ * - error: {"type":"error","status":...,"error":...,"message":...} if a leg fails once streaming has started
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record RouteStreamEvent(
+        String type,
+        Integer index,
+        LegSummary leg,
+        @JsonUnwrapped MultiRouteResponse totals,
+        Integer status,
+        String error,
+        String message
+) {
+
+    public static RouteStreamEvent leg(int index, LegSummary leg) {
+        return new RouteStreamEvent("leg", index, leg, null, null, null, null);
+    }
+
+    public static RouteStreamEvent totals(MultiRouteResponse totals) {
+        return new RouteStreamEvent("totals", null, null, totals.withoutResults(), null, null, null);
+    }
+
+    public static RouteStreamEvent error(int status, String error, String message) {
+        return new RouteStreamEvent("error", null, null, null, status, error, message);
+    }
+}
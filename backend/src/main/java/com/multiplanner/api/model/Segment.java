@@ -0,0 +1,36 @@
+package com.multiplanner.api.model;
+
+import java.io.Serializable;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One leg of the chosen journey, as returned to API clients.
+ *
+ * line, direction, from and to are omitted when TfL did not supply them.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record Segment(
+        @JsonInclude(JsonInclude.Include.ALWAYS) String mode,
+        String line,
+        String direction,
+        String from,
+        String to,
+        int durationMinutes
+) implements Serializable {
+
+    public static Segment of(JourneyLeg leg) {
+        return new Segment(
+                leg.mode(),
+                blankToNull(leg.line()),
+                blankToNull(leg.direction()),
+                blankToNull(leg.from()),
+                blankToNull(leg.to()),
+                leg.durationMinutes()
+        );
+    }
+
+    private static String blankToNull(String value) {
+        return (value == null || value.isBlank()) ? null : value;
+    }
+}
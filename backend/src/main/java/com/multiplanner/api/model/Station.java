@@ -1,20 +1,40 @@
 package com.multiplanner.api.model;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 /**
  * Station model used for routing and autocomplete.
  *
  * Represents a London rail station identified by a (NaPTAN) code and
- * a more readable name
+ * a more readable name, with its position when known.
+ * A stop sent with only lat / lon is snapped to the nearest station when routing.
  */
-
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class Station {
 
     private String code; // NaPTAN stop/station code
     private String name;
+    private Double lat; // WGS84, null when unknown
+    private Double lon;
 
     public Station(String code, String name) {
+        this(code, name, null, null);
+    }
+
+    @JsonCreator
+    public Station(
+            @JsonProperty("code") String code,
+            @JsonProperty("name") String name,
+            @JsonProperty("lat") Double lat,
+            @JsonProperty("lon") Double lon
+    ) {
         this.code = code;
         this.name = name;
+        this.lat = lat;
+        this.lon = lon;
     }
 
     public String getCode() {
@@ -24,5 +44,18 @@ public class Station {
     public String getName() {
         return name;
     }
-}
 
+    public Double getLat() {
+        return lat;
+    }
+
+    public Double getLon() {
+        return lon;
+    }
+
+    //Only a position was given (no code or name to resolve).
+    @JsonIgnore
+    public boolean isCoordinatesOnly() {
+        return (code == null || code.isBlank()) && (name == null || name.isBlank()) && lat != null && lon != null;
+    }
+}
@@ -0,0 +1,8 @@
+package com.multiplanner.api.model;
+
+/**
+ * Resolved TfL StopPoint id for a station.
+ * - nameKey: lower-cased station name (the TfL search term)
+ * - atcoCode: NaPTAN ATCO code of the station, if known
+ */
+public record StopPointMapping(String nameKey, String atcoCode, String stopPointId) {}
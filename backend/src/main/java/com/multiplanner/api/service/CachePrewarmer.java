@@ -0,0 +1,125 @@
+package com.multiplanner.api.service;
+
+import com.multiplanner.api.client.RequestPriority;
+import com.multiplanner.api.model.JourneyPair;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Pre-warms the journeys cache for the next 5-minute bucket.
+ * - Runs shortly before each bucket boundary (cron, UTC)
+ * - Fetches the most popular pairs (see {@link PopularityTracker}), at most budget TfL calls per bucket,
+ *   so prewarming stays inside the TfL rate limit
+ * - The budget is shared by every pod through a Redis counter per bucket (each pod only counts its own
+ *   calls if Redis is unavailable)
+ * - Each fetch is an ordinary cache load, so pods prewarming the same pair wait for one another
+ */
+@Component
+public class CachePrewarmer {
+
+    private static final Logger log = LoggerFactory.getLogger(CachePrewarmer.class);
+
+    private final PopularityTracker popularityTracker;
+    private final JourneyCacheService journeyCacheService;
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final int budget;
+    private final long minHits;
+
+    public CachePrewarmer(
+            PopularityTracker popularityTracker,
+            JourneyCacheService journeyCacheService,
+            StringRedisTemplate redisTemplate,
+            @Value("${journeys.prewarm.enabled:true}") boolean enabled,
+            @Value("${journeys.prewarm.budget:50}") int budget,
+            @Value("${journeys.prewarm.min-hits:3}") long minHits
+    ) {
+        this.popularityTracker = popularityTracker;
+        this.journeyCacheService = journeyCacheService;
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.budget = budget;
+        this.minHits = minHits;
+    }
+
+    @Scheduled(cron = "${journeys.prewarm.cron:30 4/5 * * * *}", zone = "UTC")
+    public void prewarmNextBucket() {
+        if (!enabled) {
+            return;
+        }
+
+        // Queued behind interactive /api/route* calls at the TfL gate
+        RequestPriority.runAs(RequestPriority.BACKGROUND, this::prewarm);
+    }
+
+    private void prewarm() {
+        String nextBucket = TimeBuckets.key(TimeBuckets.nextBucketStart(Instant.now()));
+        List<JourneyPair> popular = popularityTracker.top(budget, minHits);
+        popularityTracker.decay();
+
+        Budget bucketBudget = new Budget("prewarm:budget:" + nextBucket);
+
+        int fetched = 0;
+        for (JourneyPair pair : popular) {
+            try {
+                if (journeyCacheService.prefetch(pair.fromId(), pair.toId(), nextBucket, pair.modesCsv(), bucketBudget)) {
+                    fetched++;
+                }
+            } catch (Exception e) {
+                log.debug("Prewarm failed for {} -> {}: {}", pair.fromId(), pair.toId(), e.getMessage());
+            }
+            if (bucketBudget.exhausted) {
+                break;
+            }
+        }
+
+        if (!popular.isEmpty()) {
+            log.info("Prewarmed {} of {} popular journeys for bucket {}", fetched, popular.size(), nextBucket);
+        }
+    }
+
+    // HELPERS
+    //TfL calls left for one bucket, shared across pods in Redis; this pod's own count is used once Redis fails.
+    private final class Budget implements BooleanSupplier {
+        private final String key;
+        private int localCalls;
+        private boolean shared = true;
+        private boolean exhausted;
+
+        Budget(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public boolean getAsBoolean() {
+            localCalls++;
+            exhausted = !(shared ? takeShared() : localCalls <= budget);
+            return !exhausted;
+        }
+
+        private boolean takeShared() {
+            try {
+                Long used = redisTemplate.opsForValue().increment(key);
+                if (used != null && used == 1) {
+                    // Outlives the bucket it is for, then goes away on its own
+                    redisTemplate.expire(key, Duration.ofMinutes(15));
+                }
+                return used != null && used <= budget;
+            } catch (RuntimeException e) {
+                log.warn("Shared prewarm budget unavailable, counting this pod's calls only: {}", e.getMessage());
+                shared = false;
+                return localCalls <= budget;
+            }
+        }
+    }
+}
@@ -0,0 +1,633 @@
+package com.multiplanner.api.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Builds a {@link Timetable} from a GTFS feed (a .zip or an unpacked directory).
+ * - Reads agency, stops, routes, trips, stop_times, calendar / calendar_dates and (optionally) transfers
+ * - Platforms are merged into their parent station, so a station is one RAPTOR stop
+ * - Trips are grouped into patterns (same route, same stations in the same order), and a pattern is split further
+ *   wherever one trip overtakes another, so every RAPTOR route is FIFO (trip order is the same at every stop)
+ * - Footpaths come from transfers.txt between different stations, plus any stations within walkRadiusMeters
+ */
+final class GtfsTimetableLoader {
+
+    private static final DateTimeFormatter GTFS_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final double WALK_METRES_PER_SECOND = 1.2;
+    private static final double WALK_DETOUR_FACTOR = 1.3; // streets are rarely a straight line
+
+    private final int walkRadiusMeters;
+
+    GtfsTimetableLoader(int walkRadiusMeters) {
+        this.walkRadiusMeters = walkRadiusMeters;
+    }
+
+    Timetable load(Path feed) throws IOException {
+        try (Feed files = Files.isDirectory(feed) ? new DirectoryFeed(feed) : new ZipFeed(feed)) {
+            return load(files);
+        }
+    }
+
+    // HELPERS
+    private Timetable load(Feed feed) throws IOException {
+        // Stations (platforms folded into their parent)
+        Map<String, Integer> stationByStop = new HashMap<>();
+        Map<String, Integer> stationIndex = new LinkedHashMap<>();
+        List<String> stationNames = new ArrayList<>();
+        List<double[]> stationCoordinates = new ArrayList<>();
+        for (Row row : feed.rows("stops.txt")) {
+            String stopId = row.get("stop_id");
+            String parent = row.getOrDefault("parent_station", "");
+            String stationId = parent.isBlank() ? stopId : parent;
+
+            Integer station = stationIndex.get(stationId);
+            if (station == null) {
+                station = stationIndex.size();
+                stationIndex.put(stationId, station);
+                stationNames.add(row.get("stop_name"));
+                stationCoordinates.add(coordinates(row));
+            } else if (stopId.equals(stationId)) {
+                // The station row itself is a better name / position than one of its platforms
+                stationNames.set(station, row.get("stop_name"));
+                stationCoordinates.set(station, coordinates(row));
+            }
+            stationByStop.put(stopId, station);
+        }
+
+        // Routes: mode and line name
+        Map<String, String> agencyNames = new HashMap<>();
+        for (Row row : feed.rows("agency.txt")) {
+            agencyNames.put(row.getOrDefault("agency_id", ""), row.getOrDefault("agency_name", ""));
+        }
+        Map<String, String[]> lineByRoute = new HashMap<>(); // route_id -> { mode, line }
+        for (Row row : feed.rows("routes.txt")) {
+            String shortName = row.getOrDefault("route_short_name", "");
+            String longName = row.getOrDefault("route_long_name", "");
+            String line = !shortName.isBlank() ? shortName : longName;
+            String agency = agencyNames.getOrDefault(row.getOrDefault("agency_id", ""), "");
+            lineByRoute.put(row.get("route_id"), new String[] {
+                    tflMode(parseInt(row.get("route_type"), -1), agency + " " + longName + " " + shortName),
+                    line
+            });
+        }
+
+        // Services
+        Map<String, Integer> serviceIndex = new HashMap<>();
+        List<Byte> weekdays = new ArrayList<>();
+        List<int[]> ranges = new ArrayList<>();
+        Map<Long, Boolean> exceptions = new HashMap<>();
+        for (Row row : feed.rows("calendar.txt")) {
+            int service = service(row.get("service_id"), serviceIndex, weekdays, ranges);
+            String[] days = { "monday", "tuesday", "wednesday", "thursday", "friday", "saturday", "sunday" };
+            byte mask = 0;
+            for (int d = 0; d < days.length; d++) {
+                if ("1".equals(row.get(days[d]))) {
+                    mask |= (byte) (1 << d);
+                }
+            }
+            weekdays.set(service, mask);
+            ranges.set(service, new int[] { epochDay(row.get("start_date")), epochDay(row.get("end_date")) });
+        }
+        for (Row row : feed.rows("calendar_dates.txt")) {
+            int service = service(row.get("service_id"), serviceIndex, weekdays, ranges);
+            long key = ((long) service << 32) | (epochDay(row.get("date")) & 0xFFFFFFFFL);
+            exceptions.put(key, "1".equals(row.get("exception_type")));
+        }
+
+        // Trips
+        Map<String, Integer> tripIndex = new HashMap<>();
+        List<String[]> tripLines = new ArrayList<>();
+        List<Integer> tripServiceList = new ArrayList<>();
+        List<String> tripHeadsignList = new ArrayList<>();
+        for (Row row : feed.rows("trips.txt")) {
+            String[] line = lineByRoute.get(row.get("route_id"));
+            Integer service = serviceIndex.get(row.get("service_id"));
+            if (line == null || service == null) {
+                continue;
+            }
+            tripIndex.put(row.get("trip_id"), tripLines.size());
+            tripLines.add(new String[] { row.get("route_id"), line[0], line[1] });
+            tripServiceList.add(service);
+            tripHeadsignList.add(blankToNull(row.get("trip_headsign")));
+        }
+
+        // Stop times, per trip: { sequence, station, arrival, departure }
+        List<List<int[]>> callsByTrip = new ArrayList<>(tripLines.size());
+        for (int t = 0; t < tripLines.size(); t++) {
+            callsByTrip.add(new ArrayList<>());
+        }
+        for (Row row : feed.rows("stop_times.txt")) {
+            Integer trip = tripIndex.get(row.get("trip_id"));
+            Integer station = stationByStop.get(row.get("stop_id"));
+            if (trip == null || station == null) {
+                continue;
+            }
+            int arrival = parseTime(row.get("arrival_time"));
+            int departure = parseTime(row.get("departure_time"));
+            if (arrival < 0) arrival = departure;
+            if (departure < 0) departure = arrival;
+            if (arrival < 0) {
+                continue; // untimed stop: it cannot be boarded or alighted at reliably
+            }
+            callsByTrip.get(trip).add(new int[] { parseInt(row.get("stop_sequence"), 0), station, arrival, departure });
+        }
+
+        // Patterns: trips with the same route and the same stations in the same order
+        Map<String, List<Integer>> tripsByPattern = new LinkedHashMap<>();
+        Map<String, int[]> stationsByPattern = new HashMap<>();
+        int[][] tripArrivals = new int[tripLines.size()][];
+        int[][] tripDepartures = new int[tripLines.size()][];
+        for (int t = 0; t < tripLines.size(); t++) {
+            List<int[]> calls = callsByTrip.get(t);
+            calls.sort((a, b) -> Integer.compare(a[0], b[0]));
+
+            // Consecutive calls at platforms of one station are a single call
+            List<int[]> merged = new ArrayList<>(calls.size());
+            for (int[] call : calls) {
+                int[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+                if (last != null && last[1] == call[1]) {
+                    last[3] = call[3];
+                } else {
+                    merged.add(call.clone());
+                }
+            }
+            if (merged.size() < 2) {
+                continue;
+            }
+
+            int[] stations = new int[merged.size()];
+            tripArrivals[t] = new int[merged.size()];
+            tripDepartures[t] = new int[merged.size()];
+            for (int i = 0; i < merged.size(); i++) {
+                stations[i] = merged.get(i)[1];
+                tripArrivals[t][i] = merged.get(i)[2];
+                tripDepartures[t][i] = merged.get(i)[3];
+            }
+
+            String key = tripLines.get(t)[0] + "|" + Arrays.toString(stations);
+            tripsByPattern.computeIfAbsent(key, k -> new ArrayList<>()).add(t);
+            stationsByPattern.putIfAbsent(key, stations);
+        }
+        callsByTrip.clear(); // the per-call rows are the bulk of the feed; let them go before building the arrays
+
+        // RAPTOR routes: each pattern's trips by first departure, split so that no trip overtakes another
+        List<int[]> routeStations = new ArrayList<>();
+        List<List<Integer>> routeTripLists = new ArrayList<>();
+        for (Map.Entry<String, List<Integer>> pattern : tripsByPattern.entrySet()) {
+            List<Integer> trips = pattern.getValue();
+            trips.sort((a, b) -> Integer.compare(tripDepartures[a][0], tripDepartures[b][0]));
+            for (List<Integer> group : fifoGroups(trips, tripArrivals, tripDepartures)) {
+                routeStations.add(stationsByPattern.get(pattern.getKey()));
+                routeTripLists.add(group);
+            }
+        }
+
+        // Flatten into the route arrays
+        int routeCount = routeStations.size();
+        int[] routeStopsOffset = new int[routeCount + 1];
+        int[] routeTripOffset = new int[routeCount + 1];
+        int[] routeTimesOffset = new int[routeCount + 1];
+        String[] routeModes = new String[routeCount];
+        String[] routeLines = new String[routeCount];
+        int stopTotal = 0;
+        int tripTotal = 0;
+        int timeTotal = 0;
+        for (int r = 0; r < routeCount; r++) {
+            int length = routeStations.get(r).length;
+            routeStopsOffset[r] = stopTotal;
+            routeTripOffset[r] = tripTotal;
+            routeTimesOffset[r] = timeTotal;
+            stopTotal += length;
+            tripTotal += routeTripLists.get(r).size();
+            timeTotal += length * routeTripLists.get(r).size();
+        }
+        routeStopsOffset[routeCount] = stopTotal;
+        routeTripOffset[routeCount] = tripTotal;
+        routeTimesOffset[routeCount] = timeTotal;
+
+        int[] routeStops = new int[stopTotal];
+        int[] arrivals = new int[timeTotal];
+        int[] departures = new int[timeTotal];
+        int[] tripServices = new int[tripTotal];
+        String[] tripHeadsigns = new String[tripTotal];
+        for (int r = 0; r < routeCount; r++) {
+            int[] stations = routeStations.get(r);
+            List<Integer> trips = routeTripLists.get(r);
+
+            System.arraycopy(stations, 0, routeStops, routeStopsOffset[r], stations.length);
+            String[] line = tripLines.get(trips.get(0));
+            routeModes[r] = line[1];
+            routeLines[r] = line[2];
+
+            for (int i = 0; i < trips.size(); i++) {
+                int trip = trips.get(i);
+                int base = routeTimesOffset[r] + i * stations.length;
+                System.arraycopy(tripArrivals[trip], 0, arrivals, base, stations.length);
+                System.arraycopy(tripDepartures[trip], 0, departures, base, stations.length);
+                tripServices[routeTripOffset[r] + i] = tripServiceList.get(trip);
+                tripHeadsigns[routeTripOffset[r] + i] = tripHeadsignList.get(trip);
+            }
+        }
+
+        // Routes serving each station, with the position along the route
+        int stationCount = stationIndex.size();
+        int[] stationRoutesOffset = new int[stationCount + 1];
+        for (int stop : routeStops) {
+            stationRoutesOffset[stop + 1]++;
+        }
+        for (int s = 0; s < stationCount; s++) {
+            stationRoutesOffset[s + 1] += stationRoutesOffset[s];
+        }
+        int[] stationRoutes = new int[stopTotal];
+        int[] stationRoutePositions = new int[stopTotal];
+        int[] fill = Arrays.copyOf(stationRoutesOffset, stationCount);
+        for (int route = 0; route < routeCount; route++) {
+            for (int p = routeStopsOffset[route]; p < routeStopsOffset[route + 1]; p++) {
+                int slot = fill[routeStops[p]]++;
+                stationRoutes[slot] = route;
+                stationRoutePositions[slot] = p - routeStopsOffset[route];
+            }
+        }
+
+        // Footpaths
+        List<Map<Integer, Integer>> walks = new ArrayList<>(stationCount);
+        for (int s = 0; s < stationCount; s++) {
+            walks.add(new HashMap<>());
+        }
+        for (Row row : feed.rows("transfers.txt")) {
+            Integer from = stationByStop.get(row.get("from_stop_id"));
+            Integer to = stationByStop.get(row.get("to_stop_id"));
+            int seconds = parseInt(row.get("min_transfer_time"), -1);
+            if (from == null || to == null || from.equals(to) || seconds < 0 || "3".equals(row.get("transfer_type"))) {
+                continue;
+            }
+            walks.get(from).merge(to, seconds, Math::min);
+        }
+        if (walkRadiusMeters > 0) {
+            addNearbyWalks(stationCoordinates, walks);
+        }
+
+        int[] footOffset = new int[stationCount + 1];
+        for (int s = 0; s < stationCount; s++) {
+            footOffset[s + 1] = footOffset[s] + walks.get(s).size();
+        }
+        int[] footTargets = new int[footOffset[stationCount]];
+        int[] footSeconds = new int[footOffset[stationCount]];
+        for (int s = 0; s < stationCount; s++) {
+            int i = footOffset[s];
+            for (Map.Entry<Integer, Integer> walk : walks.get(s).entrySet()) {
+                footTargets[i] = walk.getKey();
+                footSeconds[i] = walk.getValue();
+                i++;
+            }
+        }
+
+        byte[] serviceWeekdays = new byte[weekdays.size()];
+        int[] serviceStartDays = new int[weekdays.size()];
+        int[] serviceEndDays = new int[weekdays.size()];
+        for (int s = 0; s < weekdays.size(); s++) {
+            serviceWeekdays[s] = weekdays.get(s);
+            serviceStartDays[s] = ranges.get(s)[0];
+            serviceEndDays[s] = ranges.get(s)[1];
+        }
+
+        return new Timetable(
+                stationIndex.keySet().toArray(new String[0]),
+                stationNames.toArray(new String[0]),
+                Map.copyOf(stationByStop),
+                stationRoutesOffset,
+                stationRoutes,
+                stationRoutePositions,
+                footOffset,
+                footTargets,
+                footSeconds,
+                routeStopsOffset,
+                routeStops,
+                routeTripOffset,
+                routeTimesOffset,
+                arrivals,
+                departures,
+                routeModes,
+                routeLines,
+                tripServices,
+                tripHeadsigns,
+                serviceWeekdays,
+                serviceStartDays,
+                serviceEndDays,
+                exceptions
+        );
+    }
+
+    /**
+     * Splits trips (sorted by first departure) into groups in which no trip overtakes another: each trip joins the
+     * first group whose latest trip it neither arrives nor departs before at any stop, otherwise starts a new group.
+     * RAPTOR's boarding scan relies on this, e.g. an express passing a stopping service becomes its own route.
+     */
+    static List<List<Integer>> fifoGroups(List<Integer> trips, int[][] arrivals, int[][] departures) {
+        List<List<Integer>> groups = new ArrayList<>();
+        for (int trip : trips) {
+            List<Integer> target = null;
+            for (List<Integer> group : groups) {
+                if (notBefore(trip, group.get(group.size() - 1), arrivals, departures)) {
+                    target = group;
+                    break;
+                }
+            }
+            if (target == null) {
+                target = new ArrayList<>();
+                groups.add(target);
+            }
+            target.add(trip);
+        }
+        return groups;
+    }
+
+    private static boolean notBefore(int trip, int previous, int[][] arrivals, int[][] departures) {
+        for (int i = 0; i < arrivals[trip].length; i++) {
+            if (arrivals[trip][i] < arrivals[previous][i] || departures[trip][i] < departures[previous][i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //Walking links between every pair of stations closer than walkRadiusMeters (a few thousand stations, so pairwise is fine).
+    private void addNearbyWalks(List<double[]> coordinates, List<Map<Integer, Integer>> walks) {
+        for (int a = 0; a < coordinates.size(); a++) {
+            double[] from = coordinates.get(a);
+            if (from == null) {
+                continue;
+            }
+            for (int b = a + 1; b < coordinates.size(); b++) {
+                double[] to = coordinates.get(b);
+                if (to == null) {
+                    continue;
+                }
+                double metres = distanceMetres(from, to);
+                if (metres > walkRadiusMeters) {
+                    continue;
+                }
+                int seconds = (int) Math.ceil(metres * WALK_DETOUR_FACTOR / WALK_METRES_PER_SECOND);
+                walks.get(a).merge(b, seconds, Math::min);
+                walks.get(b).merge(a, seconds, Math::min);
+            }
+        }
+    }
+
+    //Equirectangular approximation; accurate to well under a metre at walking distances.
+    private static double distanceMetres(double[] a, double[] b) {
+        double lat = Math.toRadians((a[0] + b[0]) / 2);
+        double dx = Math.toRadians(b[1] - a[1]) * Math.cos(lat);
+        double dy = Math.toRadians(b[0] - a[0]);
+        return 6_371_000 * Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * GTFS route_type (basic and extended) to the TfL mode id the rest of the app uses.
+     * London operators that GTFS files as generic rail / metro are told apart by their agency or route name.
+     */
+    static String tflMode(int routeType, String names) {
+        String n = names.toLowerCase(Locale.ROOT);
+        if (n.contains("overground")) return "overground";
+        if (n.contains("docklands") || n.contains("dlr")) return "dlr";
+        if (n.contains("elizabeth")) return "elizabeth-line";
+
+        if (routeType == 0 || (routeType >= 900 && routeType < 1000)) return "tram";
+        if (routeType == 1 || (routeType >= 400 && routeType < 500)) return "tube";
+        if (routeType == 2 || (routeType >= 100 && routeType < 200)) return "national-rail";
+        if (routeType == 3 || (routeType >= 700 && routeType < 800) || routeType == 11) return "bus";
+        if (routeType == 4 || (routeType >= 1000 && routeType < 1300)) return "river-bus";
+        if (routeType == 6 || (routeType >= 1300 && routeType < 1400)) return "cable-car";
+        if (routeType >= 200 && routeType < 300) return "coach";
+        return "national-rail";
+    }
+
+    private static int service(String id, Map<String, Integer> index, List<Byte> weekdays, List<int[]> ranges) {
+        Integer service = index.get(id);
+        if (service == null) {
+            service = index.size();
+            index.put(id, service);
+            weekdays.add((byte) 0);
+            ranges.add(new int[] { Integer.MAX_VALUE, Integer.MIN_VALUE }); // calendar_dates only: no regular days
+        }
+        return service;
+    }
+
+    private static double[] coordinates(Row row) {
+        try {
+            return new double[] { Double.parseDouble(row.get("stop_lat")), Double.parseDouble(row.get("stop_lon")) };
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static int epochDay(String gtfsDate) {
+        return (int) LocalDate.parse(gtfsDate.trim(), GTFS_DATE).toEpochDay();
+    }
+
+    //HH:MM:SS (hours may run past 24) to seconds; -1 when blank.
+    static int parseTime(String value) {
+        if (value == null || value.isBlank()) {
+            return -1;
+        }
+        String[] parts = value.trim().split(":");
+        return Integer.parseInt(parts[0]) * 3600 + Integer.parseInt(parts[1]) * 60 + Integer.parseInt(parts[2]);
+    }
+
+    private static int parseInt(String value, int fallback) {
+        try {
+            return (value == null || value.isBlank()) ? fallback : Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private static String blankToNull(String s) {
+        return (s == null || s.isBlank()) ? null : s;
+    }
+
+    // Feed access
+    private interface Feed extends AutoCloseable {
+
+        //Open the file, or null if the feed does not have it.
+        BufferedReader open(String file) throws IOException;
+
+        @Override
+        void close() throws IOException;
+
+        //Rows of a CSV file, read one at a time while iterating; empty if the file is missing.
+        default Iterable<Row> rows(String file) {
+            return () -> {
+                try {
+                    return new RowIterator(open(file));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            };
+        }
+    }
+
+    //One CSV row, read by column name.
+    static final class Row {
+
+        private final Map<String, Integer> columns;
+        private final List<String> values;
+
+        private Row(Map<String, Integer> columns, List<String> values) {
+            this.columns = columns;
+            this.values = values;
+        }
+
+        String get(String column) {
+            Integer i = columns.get(column);
+            return (i == null || i >= values.size()) ? null : values.get(i);
+        }
+
+        String getOrDefault(String column, String fallback) {
+            String value = get(column);
+            return (value == null) ? fallback : value;
+        }
+    }
+
+    //Streams rows so stop_times.txt (millions of lines) is never held in memory; closes the reader at the end.
+    private static final class RowIterator implements Iterator<Row> {
+
+        private final BufferedReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private String next;
+
+        private RowIterator(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            if (reader == null) {
+                return;
+            }
+            String header = reader.readLine();
+            if (header == null) {
+                reader.close();
+                return;
+            }
+            if (header.startsWith("\uFEFF")) {
+                header = header.substring(1); // byte order mark
+            }
+            List<String> names = splitCsv(header);
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).trim(), i);
+            }
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Row next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Row row = new Row(columns, splitCsv(next));
+            advance();
+            return row;
+        }
+
+        private void advance() {
+            try {
+                do {
+                    next = reader.readLine();
+                } while (next != null && next.isBlank());
+                if (next == null) {
+                    reader.close();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    //RFC 4180 fields on one line (GTFS does not put line breaks inside fields).
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static final class DirectoryFeed implements Feed {
+
+        private final Path directory;
+
+        private DirectoryFeed(Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        public BufferedReader open(String file) throws IOException {
+            Path path = directory.resolve(file);
+            return Files.exists(path) ? Files.newBufferedReader(path, StandardCharsets.UTF_8) : null;
+        }
+
+        @Override
+        public void close() {}
+    }
+
+    private static final class ZipFeed implements Feed {
+
+        private final ZipFile zip;
+
+        private ZipFeed(Path path) throws IOException {
+            this.zip = new ZipFile(path.toFile());
+        }
+
+        @Override
+        public BufferedReader open(String file) throws IOException {
+            ZipEntry entry = zip.getEntry(file);
+            return (entry == null) ? null : new BufferedReader(new InputStreamReader(zip.getInputStream(entry), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void close() throws IOException {
+            zip.close();
+        }
+    }
+}
@@ -1,41 +1,304 @@
 package com.multiplanner.api.service;
 
+import com.multiplanner.api.client.RequestPriority;
 import com.multiplanner.api.client.TflClient;
+import com.multiplanner.api.config.TieredCache;
+import com.multiplanner.api.model.JourneyCandidates;
+import com.multiplanner.api.model.JourneySnapshot;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.Cache.ValueRetrievalException;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 /**
  * Caching layer for external TfL API calls.
  *
  * This service wraps {@link TflClient} to:
  * - avoid repeated external requests
  * - keep routing logic independent of caching concerns
+ * - coalesce concurrent misses (one load per key), so a bucket rollover costs one TfL call per key
+ * - serve stale-while-revalidate: on a bucket miss the last known journey for the pair is served
+ *   immediately (marked stale once past the soft TTL, and then not cached for the bucket) and refreshed in the background
+ * - expose that last known journey as a degraded-mode fallback while TfL is unavailable
+ * - keep the distilled journey options per pair and bucket (journeyOptions) in front of the raw payloads,
+ *   so warm routing never re-parses TfL JSON
  */
 
 @Service
 public class JourneyCacheService {
 
+    public static final String JOURNEYS = "journeys";
+    public static final String LATEST_JOURNEYS = "latestJourneys";
+    public static final String JOURNEY_OPTIONS = "journeyOptions";
+
+    private static final Logger log = LoggerFactory.getLogger(JourneyCacheService.class);
+
     private final TflClient tflClient;
+    private final JourneyResultsParser journeyResultsParser;
+    private final CacheManager cacheManager;
+    private final RoutingMetrics metrics;
+    private final long softTtlMs;
+    private final ThreadPoolExecutor refreshExecutor;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
 
-    public JourneyCacheService(TflClient tflClient) {
+    public JourneyCacheService(
+            TflClient tflClient,
+            JourneyResultsParser journeyResultsParser,
+            CacheManager cacheManager,
+            RoutingMetrics metrics,
+            @Value("${journeys.stale-while-revalidate.soft-ttl-ms:120000}") long softTtlMs,
+            @Value("${journeys.stale-while-revalidate.refresh-threads:2}") int refreshThreads,
+            @Value("${journeys.stale-while-revalidate.refresh-queue:100}") int refreshQueue
+    ) {
         this.tflClient = tflClient;
+        this.journeyResultsParser = journeyResultsParser;
+        this.cacheManager = cacheManager;
+        this.metrics = metrics;
+        this.softTtlMs = softTtlMs;
+        this.refreshExecutor = new ThreadPoolExecutor(
+                refreshThreads,
+                refreshThreads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(refreshQueue),
+                new CustomizableThreadFactory("journey-refresh-")
+        );
     }
 
-    //Retrieves journey results between two StopPoint IDs 
-    @Cacheable(
-        cacheNames = "journeys",
-        key = "'journey:from:' + #fromId + ':to:' + #toId + ':departAt:' + #departAtRounded5 + ':modes:' + (#modesCsv == null ? '' : #modesCsv)"
-    )
-    public String journeyResults(String fromId, String toId, String departAtRounded5, String modesCsv) {
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    // Cache keys (every reader and writer builds them here, so they share one layout)
+    public static String journeyKey(String fromId, String toId, String departAtRounded5, String modesCsv) {
+        return "journey:from:" + fromId + ":to:" + toId + ":departAt:" + departAtRounded5 + ":modes:" + (modesCsv == null ? "" : modesCsv);
+    }
+
+    public static String latestJourneyKey(String fromId, String toId, String modesCsv) {
+        return "journey:from:" + fromId + ":to:" + toId + ":modes:" + (modesCsv == null ? "" : modesCsv);
+    }
+
+    /**
+     * Retrieves journey results between two StopPoint IDs.
+     * Only fresh snapshots are cached for the bucket: a stale one is served as is, until the background
+     * refresh stores its replacement.
+     */
+    public JourneySnapshot journeyResults(String fromId, String toId, String departAtRounded5, String modesCsv) throws Exception {
         // departAtRounded5 is used only for caching bucketing
-        return tflClient.journeyResults(fromId, toId, modesCsv);
+        String key = journeyKey(fromId, toId, departAtRounded5, modesCsv);
+        JourneySnapshot cached = journeys().get(key, JourneySnapshot.class);
+        if (cached != null) {
+            return cached;
+        }
+
+        JourneySnapshot latest = latestJourneys().get(latestJourneyKey(fromId, toId, modesCsv), JourneySnapshot.class);
+        if (latest != null && latest.ageMs(System.currentTimeMillis()) > softTtlMs) {
+            // Past the soft TTL: answer now with what we have, refresh off the request thread
+            scheduleRefresh(fromId, toId, departAtRounded5, modesCsv);
+            return latest.asStale();
+        }
+
+        // Concurrent misses for the key share one load
+        return load(journeys(), key, () -> {
+            JourneySnapshot current = latestJourneys().get(latestJourneyKey(fromId, toId, modesCsv), JourneySnapshot.class);
+            boolean fresh = current != null && current.ageMs(System.currentTimeMillis()) <= softTtlMs;
+            return fresh ? current : fetch(fromId, toId, modesCsv);
+        });
+    }
+
+    /**
+     * Journey options for a pair, distilled from the (cached) TfL payload once per bucket; staleness as for journeyResults.
+     * Options distilled from a stale snapshot are returned uncached, so the refreshed answer replaces them.
+     */
+    public JourneyCandidates journeyCandidates(String fromId, String toId, String departAtRounded5, String modesCsv) throws Exception {
+        String key = journeyKey(fromId, toId, departAtRounded5, modesCsv);
+        JourneyCandidates cached = journeyOptions().get(key, JourneyCandidates.class);
+        if (cached != null) {
+            return cached;
+        }
+
+        JourneySnapshot snapshot = journeyResults(fromId, toId, departAtRounded5, modesCsv);
+        if (snapshot.stale()) {
+            return distil(snapshot);
+        }
+        return load(journeyOptions(), key, () -> distil(snapshot));
+    }
+
+    //Journey options already cached for these journeyKeys, read in one batch (L1, then a single Redis MGET); misses are left out.
+    public Map<String, JourneyCandidates> cachedCandidates(Collection<String> keys) {
+        Map<String, JourneyCandidates> found = new HashMap<>();
+        Cache cache = journeyOptions();
+        if (cache instanceof TieredCache tiered) {
+            tiered.getAll(keys).forEach((key, value) -> {
+                if (value.get() instanceof JourneyCandidates candidates) {
+                    found.put((String) key, candidates);
+                }
+            });
+            return found;
+        }
+
+        for (String key : keys) {
+            JourneyCandidates candidates = cache.get(key, JourneyCandidates.class);
+            if (candidates != null) {
+                found.put(key, candidates);
+            }
+        }
+        return found;
     }
 
     //Cached lookup of TfL StopPoints by station name.
     @Cacheable(
         cacheNames = "stopPoints",
+        sync = true,
         key = "'stopPoint:' + #stationName.toLowerCase()"
     )
     public String cachedStopPointSearch(String stationName) {
         return tflClient.searchStopPoints(stationName);
     }
+
+    //Last journey fetched for the pair in any bucket, marked stale; null if none is kept.
+    public JourneySnapshot lastKnownJourney(String fromId, String toId, String modesCsv) {
+        JourneySnapshot latest = latestJourneys().get(latestJourneyKey(fromId, toId, modesCsv), JourneySnapshot.class);
+        return (latest == null) ? null : latest.asStale();
+    }
+
+    //lastKnownJourney, distilled and marked as the degraded-mode answer; null if none is kept.
+    public JourneyCandidates lastKnownCandidates(String fromId, String toId, String modesCsv) throws Exception {
+        JourneySnapshot latest = lastKnownJourney(fromId, toId, modesCsv);
+        return (latest == null) ? null : distil(latest).asLastKnown();
+    }
+
+    /**
+     * Fetches a journey into the cache for the given bucket ahead of time; false if nothing was fetched.
+     * - already cached: nothing to do, and no budget is taken
+     * - budget is asked for one TfL call first; no budget, no fetch
+     * - the fetch is a cache load like any other (single flight, Redis lease), so a pod or request already
+     *   loading the key is waited for instead of calling TfL again
+     */
+    public boolean prefetch(String fromId, String toId, String departAtRounded5, String modesCsv, BooleanSupplier budget) throws Exception {
+        String key = journeyKey(fromId, toId, departAtRounded5, modesCsv);
+        if (journeys().get(key) != null || !budget.getAsBoolean()) {
+            return false;
+        }
+
+        boolean[] fetched = {false};
+        load(journeys(), key, () -> {
+            JourneySnapshot fresh = fetch(fromId, toId, modesCsv);
+            fetched[0] = true;
+            // The load itself stores the raw payload; the distilled form goes alongside it
+            storeOptions(key, fresh);
+            return fresh;
+        });
+        return fetched[0];
+    }
+
+    // HELPERS
+    //Calls TfL and records the result as the latest known journey for the pair.
+    private JourneySnapshot fetch(String fromId, String toId, String modesCsv) {
+        JourneySnapshot fresh = metrics.stage(RoutingMetrics.Stage.TFL_FETCH).record(
+                () -> JourneySnapshot.fetchedNow(tflClient.journeyResults(fromId, toId, modesCsv))
+        );
+        latestJourneys().put(latestJourneyKey(fromId, toId, modesCsv), fresh);
+        return fresh;
+    }
+
+    //Caches a payload for a bucket in both forms, so journeyOptions never holds an older answer than journeys.
+    private void store(String key, JourneySnapshot snapshot) {
+        journeys().put(key, snapshot);
+        storeOptions(key, snapshot);
+    }
+
+    private void storeOptions(String key, JourneySnapshot snapshot) {
+        try {
+            journeyOptions().put(key, distil(snapshot));
+        } catch (Exception e) {
+            // The next lookup distils it again from the raw payload
+            journeyOptions().evict(key);
+            log.warn("Could not distil journey {}: {}", key, e.getMessage());
+        }
+    }
+
+    private JourneyCandidates distil(JourneySnapshot snapshot) throws Exception {
+        return JourneyCandidates.of(
+                metrics.stage(RoutingMetrics.Stage.PARSE).recordCallable(() -> journeyResultsParser.parse(snapshot.json())),
+                snapshot
+        );
+    }
+
+    //Cache.get with a loader wraps loader failures; callers expect the original exception (e.g. TflUnavailableException).
+    private static <T> T load(Cache cache, String key, Callable<T> loader) throws Exception {
+        try {
+            return cache.get(key, loader);
+        } catch (ValueRetrievalException e) {
+            Throwable cause = e;
+            while (cause instanceof ValueRetrievalException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof Exception ex) {
+                throw ex;
+            }
+            throw e;
+        }
+    }
+
+    //At most one queued refresh per pair; when the queue is full the stale entry is simply served again.
+    private void scheduleRefresh(String fromId, String toId, String departAtRounded5, String modesCsv) {
+        // No point queueing refreshes that the circuit breaker will reject
+        if (tflClient.isCircuitOpen()) {
+            return;
+        }
+
+        String latestKey = latestJourneyKey(fromId, toId, modesCsv);
+        if (!refreshing.add(latestKey)) {
+            return;
+        }
+
+        try {
+            refreshExecutor.execute(() -> RequestPriority.runAs(RequestPriority.BACKGROUND, () -> {
+                try {
+                    JourneySnapshot fresh = fetch(fromId, toId, modesCsv);
+                    // Replace the stale answer cached for this bucket
+                    store(journeyKey(fromId, toId, departAtRounded5, modesCsv), fresh);
+                } catch (RuntimeException e) {
+                    log.warn("Background refresh failed for {}: {}", latestKey, e.getMessage());
+                } finally {
+                    refreshing.remove(latestKey);
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(latestKey);
+            log.debug("Refresh queue full, serving stale journey for {}", latestKey);
+        }
+    }
+
+    private Cache journeys() {
+        return cacheManager.getCache(JOURNEYS);
+    }
+
+    private Cache journeyOptions() {
+        return cacheManager.getCache(JOURNEY_OPTIONS);
+    }
+
+    private Cache latestJourneys() {
+        return cacheManager.getCache(LATEST_JOURNEYS);
+    }
 }
@@ -0,0 +1,172 @@
+package com.multiplanner.api.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.multiplanner.api.model.JourneyLeg;
+import com.multiplanner.api.model.JourneyOption;
+import com.multiplanner.api.model.JourneyResults;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming extractor for TfL JourneyResults payloads.
+ *
+ * TfL responses carry full path geometry, stop sequences and disruptions, but routing only
+ * needs a handful of fields per journey. This walks the token stream once, keeps those fields
+ * and skips every other subtree without building a JsonNode tree.
+ */
+@Component
+public class JourneyResultsParser {
+
+    private final JsonFactory jsonFactory;
+
+    public JourneyResultsParser(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public JourneyResults parse(String journeyJson) throws IOException {
+        List<JourneyOption> journeys = new ArrayList<>();
+        String message = null;
+
+        try (JsonParser p = jsonFactory.createParser(journeyJson)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                return new JourneyResults(journeys, null);
+            }
+
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+
+                if ("journeys".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (p.nextToken() == JsonToken.START_OBJECT) {
+                        journeys.add(readJourney(p));
+                    }
+                } else if ("message".equals(field) && value.isScalarValue()) {
+                    message = p.getValueAsString();
+                } else {
+                    p.skipChildren();
+                }
+            }
+        }
+
+        return new JourneyResults(journeys, message);
+    }
+
+    //Reads one journey object; the parser is positioned on its START_OBJECT.
+    private JourneyOption readJourney(JsonParser p) throws IOException {
+        int duration = -1;
+        String start = null;
+        String arrive = null;
+        List<JourneyLeg> legs = new ArrayList<>();
+
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+
+            switch (field) {
+                case "duration" -> duration = value.isScalarValue() ? p.getValueAsInt(-1) : skip(p, -1);
+                case "startDateTime" -> start = scalarText(p, value);
+                case "arrivalDateTime" -> arrive = scalarText(p, value);
+                case "legs" -> {
+                    if (value == JsonToken.START_ARRAY) {
+                        while (p.nextToken() == JsonToken.START_OBJECT) {
+                            legs.add(readLeg(p));
+                        }
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+                default -> p.skipChildren();
+            }
+        }
+
+        return new JourneyOption(duration, start, arrive, List.copyOf(legs));
+    }
+
+    //Reads one leg object; the parser is positioned on its START_OBJECT.
+    private JourneyLeg readLeg(JsonParser p) throws IOException {
+        String mode = null;
+        String line = null;
+        String direction = null;
+        String from = null;
+        String to = null;
+        int duration = 0;
+
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+
+            switch (field) {
+                case "duration" -> duration = value.isScalarValue() ? p.getValueAsInt(0) : skip(p, 0);
+                case "mode" -> mode = readChildText(p, value, "id");
+                case "instruction" -> direction = readChildText(p, value, "detailed");
+                case "departurePoint" -> from = readChildText(p, value, "commonName");
+                case "arrivalPoint" -> to = readChildText(p, value, "commonName");
+                case "routeOptions" -> line = readFirstRouteOptionName(p, value);
+                default -> p.skipChildren();
+            }
+        }
+
+        return new JourneyLeg(mode, line, direction, from, to, duration);
+    }
+
+    //Returns a scalar child field of the current object, skipping everything else in it.
+    private String readChildText(JsonParser p, JsonToken value, String child) throws IOException {
+        if (value != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return null;
+        }
+
+        String text = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken childValue = p.nextToken();
+            if (child.equals(field)) {
+                text = scalarText(p, childValue);
+            } else {
+                p.skipChildren();
+            }
+        }
+        return text;
+    }
+
+    //routeOptions[0].name, the line shown for a leg.
+    private String readFirstRouteOptionName(JsonParser p, JsonToken value) throws IOException {
+        if (value != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return null;
+        }
+
+        String name = null;
+        boolean first = true;
+        JsonToken element;
+        while ((element = p.nextToken()) != JsonToken.END_ARRAY) {
+            if (first && element == JsonToken.START_OBJECT) {
+                name = readChildText(p, element, "name");
+            } else {
+                p.skipChildren();
+            }
+            first = false;
+        }
+        return name;
+    }
+
+    private static String scalarText(JsonParser p, JsonToken value) throws IOException {
+        if (!value.isScalarValue()) {
+            p.skipChildren();
+            return null;
+        }
+        return value == JsonToken.VALUE_NULL ? null : p.getValueAsString();
+    }
+
+    private static int skip(JsonParser p, int fallback) throws IOException {
+        p.skipChildren();
+        return fallback;
+    }
+}
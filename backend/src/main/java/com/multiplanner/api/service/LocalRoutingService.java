@@ -0,0 +1,222 @@
+package com.multiplanner.api.service;
+
+import com.multiplanner.api.model.JourneyOption;
+import com.multiplanner.api.model.JourneyResults;
+import com.multiplanner.api.model.Station;
+import com.multiplanner.api.model.StopPointMapping;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * In-process routing over a GTFS timetable (RAPTOR, see {@link RaptorRouter}), with no TfL call.
+ * - Loaded in the background once the app is up; until then (or without routing.local.gtfs-path) it is unavailable
+ * - Stations resolve offline against the GTFS stops table: by stop id (station or platform ATCO code), else by
+ *   normalised name (GTFS names plus the stations table's names for the same ATCO codes); no TfL call is made
+ * - When it answers in place of TfL, the StopPoint ids already resolved are mapped back through StopPointResolver's
+ *   persisted mappings (their ATCO code, else their station name)
+ * - Answers in the same JourneyResults shape as TfL, so SortBy and the bus / tram filters apply unchanged
+ */
+@Service
+public class LocalRoutingService {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalRoutingService.class);
+
+    // Timetables and bucket keys: service days are London days
+    private static final ZoneId LONDON = ZoneId.of("Europe/London");
+
+    // Dropped before a trailing "station" when matching names
+    private static final Set<String> SUFFIXES = Set.of("underground", "rail", "dlr", "overground", "tram", "bus");
+
+    private final StationRepository stationRepository;
+    private final StopPointResolver stopPointResolver;
+    private final RoutingMetrics metrics;
+    private final ExecutorService routingExecutor;
+    private final String gtfsPath;
+    private final int maxTransfers;
+    private final int minChangeSeconds;
+    private final int walkRadiusMeters;
+
+    private volatile Loaded loaded;
+
+    public LocalRoutingService(
+            StationRepository stationRepository,
+            StopPointResolver stopPointResolver,
+            RoutingMetrics metrics,
+            @Qualifier("routingExecutor") ExecutorService routingExecutor,
+            @Value("${routing.local.gtfs-path:}") String gtfsPath,
+            @Value("${routing.local.max-transfers:4}") int maxTransfers,
+            @Value("${routing.local.min-change-seconds:120}") int minChangeSeconds,
+            @Value("${routing.local.walk-radius-m:400}") int walkRadiusMeters
+    ) {
+        this.stationRepository = stationRepository;
+        this.stopPointResolver = stopPointResolver;
+        this.metrics = metrics;
+        this.routingExecutor = routingExecutor;
+        this.gtfsPath = gtfsPath;
+        this.maxTransfers = Math.max(0, maxTransfers);
+        this.minChangeSeconds = Math.max(0, minChangeSeconds);
+        this.walkRadiusMeters = walkRadiusMeters;
+    }
+
+    //Loads the timetable once the app is up, off the startup thread (a full London feed takes a few seconds).
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadTimetable() {
+        if (gtfsPath == null || gtfsPath.isBlank()) {
+            return;
+        }
+        routingExecutor.submit(this::reload);
+    }
+
+    public void reload() {
+        Path path = Path.of(gtfsPath);
+        if (!Files.exists(path)) {
+            log.warn("Local timetable not loaded: {} does not exist", path);
+            return;
+        }
+
+        try {
+            long started = System.nanoTime();
+            Timetable timetable = new GtfsTimetableLoader(walkRadiusMeters).load(path);
+            loaded = index(timetable);
+            log.info("Local timetable loaded from {} in {} ms: {} stations, {} routes, {} trips",
+                    path, (System.nanoTime() - started) / 1_000_000,
+                    timetable.stationCount(), timetable.routeCount(), timetable.tripCount());
+        } catch (Exception e) {
+            // TfL keeps answering every request; only the local engine is missing
+            log.warn("Could not load local timetable from {}", path, e);
+        }
+    }
+
+    public boolean isAvailable() {
+        return loaded != null;
+    }
+
+    //Timetable station id (ATCO code) for a requested station, without any network call.
+    public String resolve(Station station) {
+        Loaded current = loaded;
+        if (current == null) {
+            throw new IllegalArgumentException("Local timetable routing is not available");
+        }
+        if (station == null) {
+            throw new IllegalArgumentException("Station is required");
+        }
+
+        Integer s = (station.getCode() == null) ? null : current.stationByStopId().get(station.getCode().trim());
+        if (s == null && station.getName() != null) {
+            s = current.stationByName().get(nameKey(station.getName()));
+        }
+        if (s == null) {
+            String label = (station.getName() != null) ? station.getName() : station.getCode();
+            throw new IllegalArgumentException("Station " + label + " is not in the local timetable");
+        }
+        return current.timetable().stationIds[s];
+    }
+
+    /**
+     * Journey options between two StopPoints (or ATCO codes), leaving at the start of the time bucket.
+     * Throws IllegalArgumentException when the engine is not loaded, a stop is not in the timetable or nothing connects them.
+     */
+    public JourneyResults route(String fromId, String toId, String departAtRounded5, String modesCsv) {
+        Loaded current = loaded;
+        if (current == null) {
+            throw new IllegalArgumentException("Local timetable routing is not available");
+        }
+
+        int from = station(current, fromId);
+        int to = station(current, toId);
+        LocalDateTime departAt = LocalDateTime.ofInstant(TimeBuckets.parseKey(departAtRounded5), LONDON);
+        Set<String> modes = Set.copyOf(Arrays.asList(modesCsv.split(",")));
+
+        List<JourneyOption> journeys = metrics.stage(RoutingMetrics.Stage.LOCAL_ROUTE).record(() -> current.router().route(
+                from, to, departAt.toLocalDate(), departAt.toLocalTime().toSecondOfDay(), modes, maxTransfers + 1
+        ));
+        if (journeys.isEmpty()) {
+            throw new IllegalArgumentException("No journey found in the local timetable");
+        }
+        return new JourneyResults(journeys, null);
+    }
+
+    // HELPERS
+    //Timetable station for a GTFS stop id, or for a TfL StopPoint id through the mapping it was resolved from.
+    private int station(Loaded current, String id) {
+        Integer s = (id == null) ? null : current.stationByStopId().get(id);
+        StopPointMapping mapping = (s == null) ? stopPointResolver.mappingFor(id) : null;
+        if (mapping != null && mapping.atcoCode() != null) {
+            s = current.stationByStopId().get(mapping.atcoCode());
+        }
+        if (s == null && mapping != null && mapping.nameKey() != null) {
+            s = current.stationByName().get(nameKey(mapping.nameKey()));
+        }
+        if (s == null) {
+            throw new IllegalArgumentException("Stop " + id + " is not in the local timetable");
+        }
+        return s;
+    }
+
+    private Loaded index(Timetable timetable) {
+        Map<String, Integer> byName = new HashMap<>();
+        for (int s = 0; s < timetable.stationCount(); s++) {
+            byName.putIfAbsent(nameKey(timetable.stationNames[s]), s);
+        }
+
+        // Prefer the names the rest of the app shows for these stations, and find stations by them too
+        int joined = 0;
+        try {
+            for (Station station : stationRepository.findAll()) {
+                Integer s = (station.getCode() == null) ? null : timetable.stationByStopId.get(station.getCode());
+                if (s != null) {
+                    joined++;
+                    if (station.getName() != null && !station.getName().isBlank()) {
+                        timetable.stationNames[s] = station.getName();
+                        byName.putIfAbsent(nameKey(station.getName()), s);
+                    }
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Local timetable keeps its own station names: {}", e.getMessage());
+        }
+
+        log.info("Local timetable joined {} of {} stations to the stations table by ATCO code", joined, timetable.stationCount());
+        return new Loaded(timetable, new RaptorRouter(timetable, minChangeSeconds), timetable.stationByStopId, byName);
+    }
+
+    //Lower case, punctuation dropped and a trailing "(Underground / Rail / DLR) Station" removed, so feeds and the UI agree.
+    static String nameKey(String name) {
+        String[] words = name.toLowerCase(Locale.ROOT).replace("&", " and ").replaceAll("[^a-z0-9]+", " ").trim().split(" ");
+        int end = words.length;
+        if (end > 1 && words[end - 1].equals("station")) {
+            end--;
+            if (end > 1 && SUFFIXES.contains(words[end - 1])) {
+                end--;
+            }
+        }
+        return String.join(" ", Arrays.asList(words).subList(0, end));
+    }
+
+    //One loaded timetable, swapped in whole.
+    private record Loaded(
+            Timetable timetable,
+            RaptorRouter router,
+            Map<String, Integer> stationByStopId,
+            Map<String, Integer> stationByName
+    ) {}
+}
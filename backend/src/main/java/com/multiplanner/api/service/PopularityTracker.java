@@ -0,0 +1,142 @@
+package com.multiplanner.api.service;
+
+import com.multiplanner.api.model.JourneyPair;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Approximate popularity of journey pairs.
+ * - Count-min sketch for per-pair request counts in fixed memory
+ * - A bounded set of heavy-hitter candidates (the pairs with the highest estimates seen so far);
+ *   once it is full, pairs below the weakest candidate are turned away without taking its lock
+ * - decay() halves every count, so popularity follows the time of day
+ */
+@Component
+public class PopularityTracker {
+
+    private static final int DEPTH = 4;
+    private static final int WIDTH = 4096; // power of two
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final AtomicLongArray[] rows = new AtomicLongArray[DEPTH];
+    private final Map<JourneyPair, Long> candidates = new ConcurrentHashMap<>();
+    private final int capacity;
+
+    // Weakest candidate count at the last scan. Counts only grow between decays, so while the set is full
+    // a pair estimated at or below it cannot be admitted. Written under the candidates lock
+    private volatile long admissionFloor;
+
+    public PopularityTracker(@Value("${journeys.prewarm.tracked-pairs:256}") int capacity) {
+        this.capacity = capacity;
+        for (int i = 0; i < DEPTH; i++) {
+            rows[i] = new AtomicLongArray(WIDTH);
+        }
+    }
+
+    public void record(JourneyPair pair) {
+        long estimate = increment(pair);
+
+        if (candidates.replace(pair, estimate) != null) {
+            return;
+        }
+
+        // Cannot overtake the weakest candidate, so no need to lock or scan
+        if (estimate <= admissionFloor && candidates.size() >= capacity) {
+            return;
+        }
+
+        synchronized (candidates) {
+            if (candidates.size() < capacity) {
+                candidates.put(pair, estimate);
+                return;
+            }
+
+            // Full: replace the weakest candidate if this pair has overtaken it
+            JourneyPair weakest = null;
+            long weakestCount = Long.MAX_VALUE;
+            long runnerUpCount = Long.MAX_VALUE;
+            for (Map.Entry<JourneyPair, Long> e : candidates.entrySet()) {
+                long count = e.getValue();
+                if (count < weakestCount) {
+                    runnerUpCount = weakestCount;
+                    weakest = e.getKey();
+                    weakestCount = count;
+                } else if (count < runnerUpCount) {
+                    runnerUpCount = count;
+                }
+            }
+            if (weakest != null && estimate > weakestCount) {
+                candidates.remove(weakest);
+                candidates.put(pair, estimate);
+                admissionFloor = Math.min(runnerUpCount, estimate);
+            } else {
+                admissionFloor = weakestCount;
+            }
+        }
+    }
+
+    //Most requested pairs first, ignoring pairs seen fewer than minCount times.
+    public List<JourneyPair> top(int k, long minCount) {
+        List<Map.Entry<JourneyPair, Long>> ranked = new ArrayList<>();
+        for (JourneyPair pair : candidates.keySet()) {
+            long estimate = estimate(pair);
+            if (estimate >= minCount) {
+                ranked.add(Map.entry(pair, estimate));
+            }
+        }
+        ranked.sort(Map.Entry.<JourneyPair, Long>comparingByValue(Comparator.reverseOrder()));
+
+        List<JourneyPair> out = new ArrayList<>(Math.min(k, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < k; i++) {
+            out.add(ranked.get(i).getKey());
+        }
+        return out;
+    }
+
+    //Halves every counter; candidates that decay to zero are dropped.
+    public void decay() {
+        for (AtomicLongArray row : rows) {
+            for (int j = 0; j < WIDTH; j++) {
+                long v;
+                do {
+                    v = row.get(j);
+                } while (v != 0 && !row.compareAndSet(j, v, v >> 1));
+            }
+        }
+        synchronized (candidates) {
+            candidates.replaceAll((pair, count) -> count >> 1);
+            candidates.values().removeIf(count -> count == 0);
+            admissionFloor = 0;
+        }
+    }
+
+    private long increment(JourneyPair pair) {
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            min = Math.min(min, rows[i].incrementAndGet(slot(pair, i)));
+        }
+        return min;
+    }
+
+    private long estimate(JourneyPair pair) {
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            min = Math.min(min, rows[i].get(slot(pair, i)));
+        }
+        return min;
+    }
+
+    private static int slot(JourneyPair pair, int row) {
+        int h = pair.hashCode() * SEEDS[row];
+        h ^= h >>> 16;
+        return h & (WIDTH - 1);
+    }
+}
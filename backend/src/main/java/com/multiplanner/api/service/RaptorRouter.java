@@ -0,0 +1,339 @@
+package com.multiplanner.api.service;
+
+import com.multiplanner.api.model.JourneyLeg;
+import com.multiplanner.api.model.JourneyOption;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * RAPTOR (Delling, Pajor, Werneck) over a {@link Timetable}: round k finds the earliest arrival at every station
+ * using at most k trips, so one query yields the Pareto set of (arrival time, number of trips).
+ * - Each improvement at the target in a later round is one journey option: fastest and fewest-transfer answers
+ *   both come out of the same query, for pickBestJourney to choose between
+ * - Only routes whose mode is in the allowed set are ridden (the bus / tram toggles)
+ * - Changing trains at a station costs changeSeconds; footpaths between stations carry their own walking time
+ * - Trips come from the query date's service day and, when the feed runs past midnight, from the previous day's
+ *   (times past 24:00): the two days are searched separately and their answers merged into one Pareto set, so a
+ *   journey that changes from a late-night trip of one day to an early trip of the next is not found
+ */
+final class RaptorRouter {
+
+    private static final int UNREACHED = Integer.MAX_VALUE;
+    private static final int DAY_SECONDS = 24 * 60 * 60;
+    private static final DateTimeFormatter TFL_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    // How a station's label in a round was reached
+    private static final byte INHERITED = 0; // same label as the previous round
+    private static final byte BY_TRIP = 1;
+    private static final byte BY_FOOT = 2;
+    private static final byte SOURCE = 3;
+
+    private final Timetable timetable;
+    private final int changeSeconds;
+
+    RaptorRouter(Timetable timetable, int changeSeconds) {
+        this.timetable = timetable;
+        this.changeSeconds = changeSeconds;
+    }
+
+    //Pareto-optimal journeys from station `from` to station `to`, leaving no earlier than departSeconds on date.
+    List<JourneyOption> route(int from, int to, LocalDate date, int departSeconds, Set<String> modes, int maxTrips) {
+        List<Candidate> candidates = new ArrayList<>(search(from, to, date, departSeconds, modes, maxTrips, 0));
+        // Yesterday's trips still running after midnight
+        if (departSeconds + DAY_SECONDS <= timetable.latestDeparture) {
+            candidates.addAll(search(from, to, date.minusDays(1), departSeconds + DAY_SECONDS, modes, maxTrips, DAY_SECONDS));
+        }
+
+        // Fewest trips first; each option must arrive strictly earlier than every option with fewer trips
+        candidates.sort(Comparator.comparingInt(Candidate::trips).thenComparingInt(Candidate::arrival));
+        List<JourneyOption> options = new ArrayList<>();
+        int previous = UNREACHED;
+        for (Candidate candidate : candidates) {
+            if (candidate.arrival() < previous) {
+                previous = candidate.arrival();
+                options.add(candidate.journey());
+            }
+        }
+        return options;
+    }
+
+    // HELPERS
+    //One RAPTOR search over a single service day; arrivals are reported relative to the query date (minus dayOffset).
+    private List<Candidate> search(int from, int to, LocalDate date, int departSeconds, Set<String> modes, int maxTrips, int dayOffset) {
+        Timetable tt = timetable;
+        int n = tt.stationCount();
+        int rounds = maxTrips + 1;
+
+        boolean[] activeServices = tt.activeServices(date);
+        boolean[] routeAllowed = new boolean[tt.routeCount()];
+        for (int r = 0; r < routeAllowed.length; r++) {
+            routeAllowed[r] = modes.contains(tt.routeModes[r]);
+        }
+
+        int[][] arrival = new int[rounds][n];
+        byte[][] how = new byte[rounds][n];
+        int[][] viaRoute = new int[rounds][n]; // BY_TRIP: route; BY_FOOT: station walked from
+        int[][] viaTrip = new int[rounds][n]; // BY_TRIP: trip within the route
+        int[][] boardedAt = new int[rounds][n]; // BY_TRIP: position boarded at
+        int[][] alightedAt = new int[rounds][n]; // BY_TRIP: position alighted at
+        int[] best = new int[n];
+        for (int[] row : arrival) {
+            Arrays.fill(row, UNREACHED);
+        }
+        Arrays.fill(best, UNREACHED);
+
+        boolean[] marked = new boolean[n];
+        arrival[0][from] = departSeconds;
+        best[from] = departSeconds;
+        how[0][from] = SOURCE;
+        marked[from] = true;
+        relaxFootpaths(0, arrival, how, viaRoute, best, marked, to);
+
+        int[] queuedPosition = new int[tt.routeCount()];
+        for (int k = 1; k < rounds; k++) {
+            System.arraycopy(arrival[k - 1], 0, arrival[k], 0, n);
+
+            // Routes serving a station improved last round, from the earliest such station along each route
+            Arrays.fill(queuedPosition, -1);
+            List<Integer> queue = new ArrayList<>();
+            for (int s = 0; s < n; s++) {
+                if (!marked[s]) {
+                    continue;
+                }
+                marked[s] = false;
+                for (int i = tt.stationRoutesOffset[s]; i < tt.stationRoutesOffset[s + 1]; i++) {
+                    int route = tt.stationRoutes[i];
+                    if (!routeAllowed[route]) {
+                        continue;
+                    }
+                    int position = tt.stationRoutePositions[i];
+                    if (queuedPosition[route] < 0) {
+                        queue.add(route);
+                        queuedPosition[route] = position;
+                    } else if (position < queuedPosition[route]) {
+                        queuedPosition[route] = position;
+                    }
+                }
+            }
+
+            boolean improved = false;
+            for (int route : queue) {
+                improved |= scanRoute(route, queuedPosition[route], k, activeServices, arrival, how, viaRoute, viaTrip,
+                        boardedAt, alightedAt, best, marked, to);
+            }
+            improved |= relaxFootpaths(k, arrival, how, viaRoute, best, marked, to);
+            if (!improved) {
+                break;
+            }
+        }
+
+        // One candidate per round that improved the arrival at the target
+        List<Candidate> candidates = new ArrayList<>();
+        int previous = UNREACHED;
+        for (int k = 0; k < rounds; k++) {
+            if (arrival[k][to] < previous) {
+                previous = arrival[k][to];
+                candidates.add(new Candidate(k, arrival[k][to] - dayOffset,
+                        journey(k, from, to, date, departSeconds, arrival, how, viaRoute, viaTrip, boardedAt, alightedAt)));
+            }
+        }
+        return candidates;
+    }
+
+    //Rides one route from `start`, boarding the earliest catchable trip and re-boarding earlier ones where possible.
+    private boolean scanRoute(
+            int route,
+            int start,
+            int k,
+            boolean[] activeServices,
+            int[][] arrival,
+            byte[][] how,
+            int[][] viaRoute,
+            int[][] viaTrip,
+            int[][] boardedAt,
+            int[][] alightedAt,
+            int[] best,
+            boolean[] marked,
+            int target
+    ) {
+        Timetable tt = timetable;
+        int base = tt.routeStopsOffset[route];
+        int length = tt.routeLength(route);
+
+        boolean improved = false;
+        int trip = -1;
+        int boardPosition = -1;
+        for (int p = start; p < length; p++) {
+            int station = tt.routeStops[base + p];
+
+            if (trip >= 0) {
+                int arrive = tt.arrivals[tt.timeIndex(route, trip, p)];
+                // Target pruning: nothing arriving after the best known arrival at the target can help
+                if (arrive < best[station] && arrive < best[target]) {
+                    arrival[k][station] = arrive;
+                    best[station] = arrive;
+                    how[k][station] = BY_TRIP;
+                    viaRoute[k][station] = route;
+                    viaTrip[k][station] = trip;
+                    boardedAt[k][station] = boardPosition;
+                    alightedAt[k][station] = p;
+                    marked[station] = true;
+                    improved = true;
+                }
+            }
+
+            int ready = readyTime(k - 1, station, arrival, how);
+            if (ready == UNREACHED) {
+                continue;
+            }
+            if (trip < 0 || ready <= tt.departures[tt.timeIndex(route, trip, p)]) {
+                int earlier = earliestTrip(route, p, ready, activeServices, trip < 0 ? tt.routeTrips(route) : trip + 1);
+                if (earlier >= 0 && (trip < 0 || earlier != trip)) {
+                    trip = earlier;
+                    boardPosition = p;
+                }
+            }
+        }
+        return improved;
+    }
+
+    //Earliest running trip (below `limit`) that leaves position p at or after `ready`; -1 if none.
+    private int earliestTrip(int route, int p, int ready, boolean[] activeServices, int limit) {
+        Timetable tt = timetable;
+        int first = tt.routeTripOffset[route];
+        for (int trip = 0; trip < limit; trip++) {
+            if (tt.departures[tt.timeIndex(route, trip, p)] >= ready && activeServices[tt.tripServices[first + trip]]) {
+                return trip;
+            }
+        }
+        return -1;
+    }
+
+    //When a passenger who arrived in round k can board at the station (a change of trains needs changeSeconds).
+    private int readyTime(int k, int station, int[][] arrival, byte[][] how) {
+        int at = arrival[k][station];
+        if (at == UNREACHED) {
+            return UNREACHED;
+        }
+        int round = k;
+        while (round > 0 && how[round][station] == INHERITED) {
+            round--;
+        }
+        return how[round][station] == BY_TRIP ? at + changeSeconds : at;
+    }
+
+    //Walks from every station reached by a trip this round (or the source in round 0) to its neighbours.
+    private boolean relaxFootpaths(int k, int[][] arrival, byte[][] how, int[][] viaRoute, int[] best, boolean[] marked, int target) {
+        Timetable tt = timetable;
+        boolean improved = false;
+        List<Integer> from = new ArrayList<>();
+        for (int s = 0; s < marked.length; s++) {
+            if (marked[s] && (how[k][s] == BY_TRIP || how[k][s] == SOURCE)) {
+                from.add(s);
+            }
+        }
+        for (int s : from) {
+            for (int i = tt.footOffset[s]; i < tt.footOffset[s + 1]; i++) {
+                int next = tt.footTargets[i];
+                int arrive = arrival[k][s] + tt.footSeconds[i];
+                if (arrive < best[next] && arrive < best[target]) {
+                    arrival[k][next] = arrive;
+                    best[next] = arrive;
+                    how[k][next] = BY_FOOT;
+                    viaRoute[k][next] = s;
+                    marked[next] = true;
+                    improved = true;
+                }
+            }
+        }
+        return improved;
+    }
+
+    //Rebuilds the journey ending at `to` in round k, in the JourneyOption shape the TfL parser produces.
+    private JourneyOption journey(
+            int k,
+            int from,
+            int to,
+            LocalDate date,
+            int departSeconds,
+            int[][] arrival,
+            byte[][] how,
+            int[][] viaRoute,
+            int[][] viaTrip,
+            int[][] boardedAt,
+            int[][] alightedAt
+    ) {
+        Timetable tt = timetable;
+        List<JourneyLeg> legs = new ArrayList<>();
+        int start = departSeconds;
+
+        int station = to;
+        int round = k;
+        while (!(round == 0 && station == from)) {
+            byte step = how[round][station];
+            if (step == INHERITED && round > 0) {
+                round--;
+                continue;
+            }
+            if (step == BY_FOOT) {
+                int walkedFrom = viaRoute[round][station];
+                int walkSeconds = arrival[round][station] - arrival[round][walkedFrom];
+                // Walking to catch a later trip: leave just in time for it
+                start = legs.isEmpty() ? arrival[round][walkedFrom] : start - walkSeconds;
+                legs.add(new JourneyLeg("walking", null, "Walk to " + tt.stationNames[station],
+                        tt.stationNames[walkedFrom], tt.stationNames[station], minutes(walkSeconds)));
+                station = walkedFrom;
+                continue;
+            }
+            if (step != BY_TRIP) {
+                break;
+            }
+
+            int route = viaRoute[round][station];
+            int trip = viaTrip[round][station];
+            int board = boardedAt[round][station];
+            int alight = alightedAt[round][station];
+            int boardStation = tt.routeStops[tt.routeStopsOffset[route] + board];
+            int departs = tt.departures[tt.timeIndex(route, trip, board)];
+            int arrives = tt.arrivals[tt.timeIndex(route, trip, alight)];
+            String headsign = tt.tripHeadsigns[tt.routeTripOffset[route] + trip];
+
+            legs.add(new JourneyLeg(
+                    tt.routeModes[route],
+                    tt.routeLines[route],
+                    headsign == null ? null : "towards " + headsign,
+                    tt.stationNames[boardStation],
+                    tt.stationNames[station],
+                    minutes(arrives - departs)
+            ));
+            start = departs;
+            station = boardStation;
+            round--;
+        }
+        Collections.reverse(legs);
+
+        int end = arrival[k][to];
+        LocalDateTime midnight = date.atStartOfDay();
+        return new JourneyOption(
+                minutes(end - start),
+                midnight.plusSeconds(start).format(TFL_TIME),
+                midnight.plusSeconds(end).format(TFL_TIME),
+                legs
+        );
+    }
+
+    private static int minutes(int seconds) {
+        return (seconds + 59) / 60;
+    }
+
+    //A journey using `trips` trips, arriving `arrival` seconds after midnight of the query date.
+    private record Candidate(int trips, int arrival, JourneyOption journey) {}
+}
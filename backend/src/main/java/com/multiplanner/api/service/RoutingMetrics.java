@@ -0,0 +1,67 @@
+package com.multiplanner.api.service;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-stage latency of a route request, published as route.stage{stage=...} with percentile histograms.
+ * - resolve: StopPoint id for a station
+ * - cache_lookup: journey for a leg from the cache (includes tfl_fetch on a miss)
+ * - tfl_fetch: TfL JourneyResults call behind the cache (includes waiting at the TfL gate)
+ * - parse: extracting journeys from the TfL payload
+ * - select: picking the best journey and building the leg summary
+ * - serialize: writing the API response to the client (see JsonConfig)
+ * - local_route: a RAPTOR query against the local timetable (see LocalRoutingService)
+ * Every timer carries outcome=success|error; stages timed with stage(stage) count as success.
+ */
+@Component
+public class RoutingMetrics {
+
+    public enum Stage { RESOLVE, CACHE_LOOKUP, TFL_FETCH, PARSE, SELECT, SERIALIZE, LOCAL_ROUTE }
+
+    public static final String SUCCESS = "success";
+    public static final String ERROR = "error";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Stage, Timer> timers = new EnumMap<>(Stage.class);
+    private final DistributionSummary responseSize;
+
+    public RoutingMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (Stage stage : Stage.values()) {
+            timers.put(stage, timer(meterRegistry, stage, SUCCESS));
+        }
+
+        this.responseSize = DistributionSummary.builder("route.response.size")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public Timer stage(Stage stage) {
+        return timers.get(stage);
+    }
+
+    public Timer stage(Stage stage, String outcome) {
+        return timer(meterRegistry, stage, outcome);
+    }
+
+    public void recordResponseSize(long bytes) {
+        responseSize.record(bytes);
+    }
+
+    // HELPERS
+    private static Timer timer(MeterRegistry meterRegistry, Stage stage, String outcome) {
+        return Timer.builder("route.stage")
+                .tags("stage", stage.name().toLowerCase(Locale.ROOT), "outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
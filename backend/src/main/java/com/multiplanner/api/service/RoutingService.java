@@ -1,113 +1,848 @@
 package com.multiplanner.api.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.multiplanner.api.client.RequestPriority;
+import com.multiplanner.api.client.TflUnavailableException;
 import com.multiplanner.api.controller.RoutingController;
+import com.multiplanner.api.model.BatchRouteResponse;
+import com.multiplanner.api.model.ItineraryResponse;
+import com.multiplanner.api.model.JourneyLeg;
+import com.multiplanner.api.model.JourneyOption;
+import com.multiplanner.api.model.JourneyPair;
+import com.multiplanner.api.model.JourneyCandidates;
+import com.multiplanner.api.model.JourneyResults;
+import com.multiplanner.api.model.LegSummary;
+import com.multiplanner.api.model.MatrixResponse;
+import com.multiplanner.api.model.MultiRouteResponse;
+import com.multiplanner.api.model.NearbyStation;
+import com.multiplanner.api.model.RouteStreamEvent;
+import com.multiplanner.api.model.Segment;
 import com.multiplanner.api.model.Station;
 
-import reactor.core.publisher.Sinks.Many;
+import io.micrometer.core.instrument.Timer;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
-import java.time.ZoneOffset;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Routing domain service.
  *  - convert Station names to TfL StopPoint IDs 
- *  - fetch TfL JourneyResults 
+ *  - snap stops given only as lat / lon to the nearest station (see {@link StationGeoIndex})
+ *  - fetch TfL JourneyResults (read as the distilled journey options cached per bucket) 
  *  - select the best journey based on sorting/mode filters.
+ *  - read every already-cached leg of a request in one batched cache lookup, then fetch the rest concurrently
+ *    (bounded per request), optionally streaming each as it completes
+ *  - fall back to the last known journey (marked stale) while TfL is unavailable, then to the local timetable router
+ *  - answer from the local timetable router instead of TfL when a request asks for the LOCAL engine
+ *  - optionally reorder intermediate stops from a pairwise duration matrix (see {@link StopOrderOptimiser})
+ *  - build origin x destination travel-time matrices with per-cell errors
+ *  - route batches of itineraries, fetching legs they share once
+ *  - cache assembled multi-stop responses (with a strong ETag) for the rest of their time bucket
  */
 @Service
 public class RoutingService {
 
+    public static final String ITINERARIES = "itineraries";
+
+    private static final Logger log = LoggerFactory.getLogger(RoutingService.class);
+
     private final ObjectMapper objectMapper;
     private final JourneyCacheService journeyCacheService;
-
-    public RoutingService(ObjectMapper objectMapper, JourneyCacheService journeyCacheService) {
+    private final JourneyResultsParser journeyResultsParser;
+    private final StopPointResolver stopPointResolver;
+    private final PopularityTracker popularityTracker;
+    private final RoutingMetrics metrics;
+    private final ExecutorService routingExecutor;
+    private final boolean parallelEnabled;
+    private final int maxConcurrency;
+    private final int optimiseMaxStops;
+    private final int optimiseExactMaxIntermediate;
+    private final int matrixMaxCells;
+    private final int batchMaxItineraries;
+    private final int batchMaxLegs;
+    private final CacheManager cacheManager;
+    private final boolean itineraryCacheEnabled;
+    private final LocalRoutingService localRoutingService;
+    private final boolean localFallback;
+    private final StationService stationService;
+    private final int snapMaxDistanceMeters;
+
+    public RoutingService(
+            ObjectMapper objectMapper,
+            JourneyCacheService journeyCacheService,
+            JourneyResultsParser journeyResultsParser,
+            StopPointResolver stopPointResolver,
+            PopularityTracker popularityTracker,
+            RoutingMetrics metrics,
+            @Qualifier("routingExecutor") ExecutorService routingExecutor,
+            @Value("${routing.parallel.enabled:true}") boolean parallelEnabled,
+            @Value("${routing.parallel.max-concurrency:4}") int maxConcurrency,
+            @Value("${routing.optimise.max-stops:10}") int optimiseMaxStops,
+            @Value("${routing.optimise.exact-max-intermediate:6}") int optimiseExactMaxIntermediate,
+            @Value("${routing.matrix.max-cells:100}") int matrixMaxCells,
+            @Value("${routing.batch.max-itineraries:50}") int batchMaxItineraries,
+            @Value("${routing.batch.max-legs:200}") int batchMaxLegs,
+            CacheManager cacheManager,
+            @Value("${routing.itinerary-cache.enabled:true}") boolean itineraryCacheEnabled,
+            LocalRoutingService localRoutingService,
+            @Value("${routing.local.fallback:true}") boolean localFallback,
+            StationService stationService,
+            @Value("${routing.snap.max-distance-m:1000}") int snapMaxDistanceMeters
+    ) {
         this.objectMapper = objectMapper;
         this.journeyCacheService = journeyCacheService;
+        this.journeyResultsParser = journeyResultsParser;
+        this.stopPointResolver = stopPointResolver;
+        this.popularityTracker = popularityTracker;
+        this.metrics = metrics;
+        this.routingExecutor = routingExecutor;
+        this.parallelEnabled = parallelEnabled;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.optimiseMaxStops = optimiseMaxStops;
+        this.optimiseExactMaxIntermediate = optimiseExactMaxIntermediate;
+        this.matrixMaxCells = matrixMaxCells;
+        this.batchMaxItineraries = batchMaxItineraries;
+        this.batchMaxLegs = batchMaxLegs;
+        this.cacheManager = cacheManager;
+        this.itineraryCacheEnabled = itineraryCacheEnabled;
+        this.localRoutingService = localRoutingService;
+        this.localFallback = localFallback;
+        this.stationService = stationService;
+        this.snapMaxDistanceMeters = snapMaxDistanceMeters;
     }
     
-    //Resolve a Station into a TfL StopPoint ID.
+    //Resolve a Station into a TfL StopPoint ID (local mapping index first, TfL search on a miss).
     public String resolveStopPointId(Station station) {
-        if (station == null) {
-            throw new IllegalArgumentException("Station is required");
+        return metrics.stage(RoutingMetrics.Stage.RESOLVE).record(() -> stopPointResolver.resolve(station));
+    }
+
+    //Stop id for the engine: a TfL StopPoint id, or for LOCAL the timetable's own station id (resolved offline).
+    private String resolveStop(Station station, RoutingController.Engine engine) {
+        if (engine == RoutingController.Engine.LOCAL) {
+            return metrics.stage(RoutingMetrics.Stage.RESOLVE).record(() -> localRoutingService.resolve(station));
+        }
+        return resolveStopPointId(station);
+    }
+
+    //Single leg TfL routing (from) -> (to).
+    public LegSummary routeStationToStation(Station from, Station to) {
+        from = snapped(from);
+        to = snapped(to);
+        String fromId = resolveStopPointId(from);
+        String toId = resolveStopPointId(to);
+
+        // Use a 5-minute bucket for caching 
+        String departAtRounded5 = TimeBuckets.roundNowTo5MinKey();
+
+        //Default options for single-leg include everything + fastest
+        RouteOptions options = new RouteOptions(RoutingController.SortBy.FASTEST, true, true, RoutingController.Engine.TFL);
+        String modesCsv = buildModesCsv(options.includeBus(), options.includeTram());
+
+        try {
+            return routeLegSummary(from, to, fromId, toId, departAtRounded5, options, modesCsv, Map.of());
+        } catch (Exception e) {
+            throw routingFailure(e, "Failed to build multi-route response");
+        }
+    }
+
+    /**
+     * Chains TfL JourneyResults for each adjacent pair.
+     * The assembled response is cached per bucket (resolved stops, names, sorting, modes), so repeating a route
+     * costs one cache lookup instead of re-parsing and re-selecting every leg.
+     */
+    public ItineraryResponse routeMulti(
+            List<Station> stops,
+            RoutingController.Preferences preferences,
+            RoutingController.Modes modes
+    ) {
+        PreparedMulti route = prepareMulti(stops, preferences, modes);
+
+        String key = itineraryCacheEnabled ? itineraryKey(route) : null;
+        if (key != null) {
+            ItineraryResponse cached = itineraries().get(key, ItineraryResponse.class);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        try {
+            route = ordered(route);
+
+            // Legs are independent, so fetch them together and keep the original order
+            List<LegSummary> legSummaries = fanOut(legTasks(route));
+            MultiRouteResponse body = MultiRouteResponse.of(legSummaries, route.stopOrder());
+            ItineraryResponse response = metrics.stage(RoutingMetrics.Stage.SERIALIZE).record(() -> ItineraryResponse.of(body, objectMapper));
+
+            // Stale legs are being refreshed (and TfL is preferred once it is back), so only fresh answers are kept
+            RouteOptions options = route.options();
+            if (key != null && legSummaries.stream().noneMatch(leg -> servedInstead(leg, options))) {
+                itineraries().put(key, response);
+            }
+            return response;
+        } catch (Exception e) {
+            throw routingFailure(e, "Failed to build multi-route response");
+        }
+    }
+
+    /**
+     * Streaming variant of routeMulti: one event per leg as soon as that leg is ready, then the totals.
+     * - validation, StopPoint resolution and any reordering happen here, so bad input still fails the call itself
+     * - events: {"type":"leg","index":i,"leg":{...}}, then {"type":"totals",...} (routeMulti's response without results),
+     *   or {"type":"error",...} if a leg fails once streaming has started
+     */
+    public RouteStream streamMulti(
+            List<Station> stops,
+            RoutingController.Preferences preferences,
+            RoutingController.Modes modes
+    ) {
+        PreparedMulti route = ordered(prepareMulti(stops, preferences, modes));
+        return sink -> streamLegs(route, sink);
+    }
+
+    //Receives each streamed event as one JSON document.
+    @FunctionalInterface
+    public interface RouteEventSink {
+        void send(String json) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface RouteStream {
+        void writeTo(RouteEventSink sink) throws IOException;
+    }
+
+    /**
+     * Many multi-stop itineraries in one call (same shape and options as routeMulti per itinerary).
+     * - stations are resolved once across the whole batch
+     * - distinct legs (fromId, toId, modes, bucket) are looked up once and shared by every itinerary using them,
+     *   so overlapping itineraries cost one TfL call per leg rather than one per occurrence
+     * - legs already cached are read together in one batched lookup (a single Redis MGET)
+     * - itineraries asking for optimiseOrder are reordered concurrently, each the same way routeMulti does it
+     * - each itinerary succeeds or fails on its own; results keep the request order
+     * - bounded by the number of itineraries and by the legs they ask for in total
+     */
+    public BatchRouteResponse routeBatch(List<RoutingController.MultiRouteRequest> itineraries) {
+        if (itineraries == null || itineraries.isEmpty()) {
+            throw new IllegalArgumentException("Need at least 1 itinerary");
+        }
+        if (itineraries.size() > batchMaxItineraries) {
+            throw new IllegalArgumentException("Batch supports at most " + batchMaxItineraries + " itineraries");
+        }
+        long requestedLegs = itineraries.stream()
+                .filter(itinerary -> itinerary != null && itinerary.stops() != null)
+                .mapToLong(itinerary -> Math.max(0, itinerary.stops().size() - 1))
+                .sum();
+        if (requestedLegs > batchMaxLegs) {
+            throw new IllegalArgumentException("Batch supports at most " + batchMaxLegs + " legs in total");
+        }
+
+        int count = itineraries.size();
+        String departAtRounded5 = TimeBuckets.roundNowTo5MinKey();
+        Exception[] failures = new Exception[count];
+        RouteOptions[] options = new RouteOptions[count];
+        String[] modesCsv = new String[count];
+
+        // Validate each itinerary, and resolve every distinct station (per engine) in the batch once
+        Map<String, Integer> slotByStation = new HashMap<>();
+        List<Station> distinct = new ArrayList<>();
+        List<RoutingController.Engine> distinctEngines = new ArrayList<>();
+        List<List<Station>> requested = new ArrayList<>(count);
+        int[][] stopSlots = new int[count][];
+        for (int k = 0; k < count; k++) {
+            RoutingController.MultiRouteRequest itinerary = itineraries.get(k);
+            requested.add(null);
+            try {
+                if (itinerary == null) {
+                    throw new IllegalArgumentException("Itinerary is null");
+                }
+                validateStops(itinerary.stops(), optimiseOrder(itinerary.preferences()));
+                requested.set(k, snapped(itinerary.stops()));
+            } catch (IllegalArgumentException e) {
+                failures[k] = e;
+                continue;
+            }
+
+            options[k] = routeOptions(itinerary.preferences(), itinerary.modes());
+            modesCsv[k] = buildModesCsv(options[k].includeBus(), options[k].includeTram());
+            stopSlots[k] = new int[requested.get(k).size()];
+            for (int i = 0; i < stopSlots[k].length; i++) {
+                stopSlots[k][i] = stationSlot(requested.get(k).get(i), options[k].engine(), slotByStation, distinct, distinctEngines);
+            }
+        }
+
+        List<Callable<Attempt<String>>> resolveTasks = new ArrayList<>();
+        for (int slot = 0; slot < distinct.size(); slot++) {
+            Station station = distinct.get(slot);
+            RoutingController.Engine engine = distinctEngines.get(slot);
+            resolveTasks.add(() -> Attempt.of(() -> resolveStop(station, engine)));
+        }
+        List<Attempt<String>> resolved = fanOutUnchecked(resolveTasks);
+
+        // Each itinerary as routeMulti would prepare it, then reordered (concurrently) where optimiseOrder asks for it
+        List<Integer> prepared = new ArrayList<>();
+        List<Callable<Attempt<PreparedMulti>>> orderTasks = new ArrayList<>();
+        for (int k = 0; k < count; k++) {
+            if (failures[k] != null) {
+                continue;
+            }
+
+            List<String> itineraryIds = new ArrayList<>(stopSlots[k].length);
+            for (int slot : stopSlots[k]) {
+                Attempt<String> id = resolved.get(slot);
+                if (id.error() != null) {
+                    failures[k] = id.error();
+                    break;
+                }
+                itineraryIds.add(id.value());
+            }
+            if (failures[k] != null) {
+                continue;
+            }
+
+            PreparedMulti route = new PreparedMulti(requested.get(k), itineraryIds,
+                    optimiseOrder(itineraries.get(k).preferences()), null, options[k], modesCsv[k], departAtRounded5);
+            prepared.add(k);
+            orderTasks.add(() -> Attempt.of(() -> ordered(route)));
+        }
+        List<Attempt<PreparedMulti>> ordered = fanOutUnchecked(orderTasks);
+
+        PreparedMulti[] routes = new PreparedMulti[count];
+        for (int j = 0; j < prepared.size(); j++) {
+            int k = prepared.get(j);
+            if (ordered.get(j).error() != null) {
+                failures[k] = ordered.get(j).error();
+            } else {
+                routes[k] = ordered.get(j).value();
+            }
+        }
+
+        // Distinct legs across the batch (per engine), each fetched once
+        Map<String, Integer> slotByLeg = new HashMap<>();
+        List<JourneyPair> distinctLegs = new ArrayList<>();
+        List<RoutingController.Engine> legEngines = new ArrayList<>();
+        int[][] legSlots = new int[count][];
+        for (int k = 0; k < count; k++) {
+            if (failures[k] != null) {
+                continue;
+            }
+
+            List<String> itineraryIds = routes[k].ids();
+            String legModes = routes[k].modesCsv();
+            RoutingController.Engine engine = routes[k].options().engine();
+            legSlots[k] = new int[itineraryIds.size() - 1];
+            for (int i = 0; i < legSlots[k].length; i++) {
+                String fromId = itineraryIds.get(i);
+                String toId = itineraryIds.get(i + 1);
+
+                JourneyPair pair = new JourneyPair(fromId, toId, legModes);
+                if (engine == RoutingController.Engine.TFL) {
+                    // Feeds cache pre-warming for the next time bucket
+                    popularityTracker.record(pair);
+                }
+
+                String key = engine + ":" + JourneyCacheService.journeyKey(fromId, toId, departAtRounded5, legModes);
+                Integer slot = slotByLeg.get(key);
+                if (slot == null) {
+                    slot = distinctLegs.size();
+                    slotByLeg.put(key, slot);
+                    distinctLegs.add(pair);
+                    legEngines.add(engine);
+                }
+                legSlots[k][i] = slot;
+            }
         }
+        // Legs already cached come back in one batched read; only the rest are loaded (TfL on a miss)
+        List<JourneyPair> tflLegs = new ArrayList<>();
+        for (int slot = 0; slot < distinctLegs.size(); slot++) {
+            if (legEngines.get(slot) == RoutingController.Engine.TFL) {
+                tflLegs.add(distinctLegs.get(slot));
+            }
+        }
+        Map<String, JourneyCandidates> warm = warmJourneys(journeyKeys(tflLegs, departAtRounded5), RoutingController.Engine.TFL);
+        List<Callable<Attempt<JourneyCandidates>>> legTasks = new ArrayList<>();
+        for (int slot = 0; slot < distinctLegs.size(); slot++) {
+            JourneyPair leg = distinctLegs.get(slot);
+            RoutingController.Engine engine = legEngines.get(slot);
+            legTasks.add(() -> Attempt.of(() -> cachedJourney(leg.fromId(), leg.toId(), departAtRounded5, leg.modesCsv(), engine, warm)));
+        }
+        List<Attempt<JourneyCandidates>> journeys = fanOutUnchecked(legTasks);
 
-        //  Prefer TfL search by name first (most reliable)
-        if (station.getName() != null && !station.getName().isBlank()) {
+        // Assemble each itinerary from the shared legs
+        List<BatchRouteResponse.Item> results = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) {
             try {
-                String json = journeyCacheService.cachedStopPointSearch(station.getName());
-                JsonNode root = objectMapper.readTree(json);
-
-                JsonNode matches = root.get("matches");
-                if (matches != null && matches.isArray() && !matches.isEmpty()) {
-                    JsonNode id = matches.get(0).get("id");
-                    if (id != null && !id.asText().isBlank()) {
-                        return id.asText();
+                if (failures[k] != null) {
+                    throw failures[k];
+                }
+
+                PreparedMulti route = routes[k];
+                List<LegSummary> legSummaries = new ArrayList<>(legSlots[k].length);
+                for (int i = 0; i < legSlots[k].length; i++) {
+                    Attempt<JourneyCandidates> journey = journeys.get(legSlots[k][i]);
+                    if (journey.error() != null) {
+                        throw journey.error();
                     }
+                    legSummaries.add(legSummary(route, i, journey.value()));
                 }
+
+                results.add(BatchRouteResponse.Item.ok(MultiRouteResponse.of(legSummaries, route.stopOrder())));
             } catch (Exception e) {
-                // If search fails, fall back to code below
+                results.add(BatchRouteResponse.Item.failed(errorStatus(e), errorCode(e), errorMessage(e)));
             }
         }
 
-        // Prefer DB-backed StopPoint 
-        if (station.getCode() != null && !station.getCode().isBlank()) {
-            return station.getCode();
+        return new BatchRouteResponse("batch", count, legTasks.size(), results);
+    }
+
+    /**
+     * Origin x destination travel-time matrix.
+     * - every distinct station across both lists is resolved once
+     * - cells are fetched together through the journeys cache as BACKGROUND TfL work, so a large matrix
+     *   queues behind interactive routing instead of exhausting the key quota for it
+     * - a station that cannot be snapped or resolved, or a cell that fails, is listed in "errors" (null in its matrix slots);
+     *   the rest of the matrix is still returned
+     */
+    public MatrixResponse routeMatrix(
+            List<Station> origins,
+            List<Station> destinations,
+            RoutingController.Preferences preferences,
+            RoutingController.Modes modes
+    ) {
+        if (origins == null || origins.isEmpty() || destinations == null || destinations.isEmpty()) {
+            throw new IllegalArgumentException("Need at least 1 origin and 1 destination");
+        }
+        if ((long) origins.size() * destinations.size() > matrixMaxCells) {
+            throw new IllegalArgumentException("Matrix supports at most " + matrixMaxCells + " cells");
+        }
+        // Coordinate-only stops snap one by one, so a stop with no station nearby only fails its own cells
+        List<Attempt<Station>> originStops = snappedEach(origins);
+        List<Attempt<Station>> destinationStops = snappedEach(destinations);
+
+        RouteOptions options = routeOptions(preferences, modes);
+        String modesCsv = buildModesCsv(options.includeBus(), options.includeTram());
+        String departAtRounded5 = TimeBuckets.roundNowTo5MinKey();
+
+        // Resolve each distinct station once, whichever list(s) it appears in
+        Map<String, Integer> slotByStation = new HashMap<>();
+        List<Station> distinct = new ArrayList<>();
+        List<RoutingController.Engine> distinctEngines = new ArrayList<>();
+        int[] originSlots = new int[origins.size()];
+        int[] destinationSlots = new int[destinations.size()];
+        for (int i = 0; i < origins.size(); i++) {
+            Attempt<Station> stop = originStops.get(i);
+            originSlots[i] = (stop.error() != null) ? -1
+                    : stationSlot(stop.value(), options.engine(), slotByStation, distinct, distinctEngines);
+        }
+        for (int j = 0; j < destinations.size(); j++) {
+            Attempt<Station> stop = destinationStops.get(j);
+            destinationSlots[j] = (stop.error() != null) ? -1
+                    : stationSlot(stop.value(), options.engine(), slotByStation, distinct, distinctEngines);
+        }
+
+        List<Callable<Attempt<String>>> resolveTasks = new ArrayList<>();
+        for (Station station : distinct) {
+            resolveTasks.add(() -> Attempt.of(() -> resolveStop(station, options.engine())));
+        }
+        List<Attempt<String>> resolved = fanOutUnchecked(resolveTasks);
+
+        // Cells whose stations both resolved; the rest already have their error
+        List<int[]> pending = new ArrayList<>();
+        List<JourneyPair> cellPairs = new ArrayList<>();
+        Attempt<?>[][] cells = new Attempt<?>[origins.size()][destinations.size()];
+        for (int i = 0; i < origins.size(); i++) {
+            for (int j = 0; j < destinations.size(); j++) {
+                Attempt<String> from = stopId(originStops.get(i), originSlots[i], resolved);
+                Attempt<String> to = stopId(destinationStops.get(j), destinationSlots[j], resolved);
+                if (from.error() != null || to.error() != null) {
+                    cells[i][j] = (from.error() != null) ? from : to;
+                    continue;
+                }
+
+                String fromId = from.value();
+                String toId = to.value();
+                if (fromId.equals(toId)) {
+                    cells[i][j] = new Attempt<>(new BestJourney(new JourneyOption(0, null, null, List.of()), false), null);
+                    continue;
+                }
+                pending.add(new int[] { i, j });
+                cellPairs.add(new JourneyPair(fromId, toId, modesCsv));
+            }
+        }
+
+        Map<String, JourneyCandidates> warm = warmJourneys(journeyKeys(cellPairs, departAtRounded5), options.engine());
+        List<Callable<Attempt<BestJourney>>> cellTasks = new ArrayList<>();
+        for (JourneyPair cell : cellPairs) {
+            cellTasks.add(() -> RequestPriority.callAs(RequestPriority.BACKGROUND,
+                    () -> Attempt.of(() -> bestJourney(cell.fromId(), cell.toId(), departAtRounded5, options, modesCsv, warm))));
+        }
+        List<Attempt<BestJourney>> fetched = fanOutUnchecked(cellTasks);
+        for (int c = 0; c < pending.size(); c++) {
+            cells[pending.get(c)[0]][pending.get(c)[1]] = fetched.get(c);
+        }
+
+        List<List<Integer>> durations = new ArrayList<>(origins.size());
+        List<List<Integer>> interchanges = new ArrayList<>(origins.size());
+        List<MatrixResponse.CellError> errors = new ArrayList<>();
+        boolean stale = false;
+        for (int i = 0; i < origins.size(); i++) {
+            // Failed cells stay null
+            List<Integer> durationRow = new ArrayList<>(destinations.size());
+            List<Integer> interchangeRow = new ArrayList<>(destinations.size());
+            for (int j = 0; j < destinations.size(); j++) {
+                Attempt<?> cell = cells[i][j];
+                if (cell.error() != null) {
+                    durationRow.add(null);
+                    interchangeRow.add(null);
+                    errors.add(new MatrixResponse.CellError(i, j, errorCode(cell.error()), errorMessage(cell.error())));
+                    continue;
+                }
+
+                BestJourney best = (BestJourney) cell.value();
+                int duration = best.journey().durationMinutes();
+                durationRow.add(duration < 0 ? null : duration);
+                interchangeRow.add(estimateInterchanges(best.journey().legs()));
+                stale |= best.stale();
+            }
+            durations.add(durationRow);
+            interchanges.add(interchangeRow);
         }
 
-        throw new IllegalArgumentException("Station name is required");
+        return new MatrixResponse(
+                "matrix",
+                matrixStops(originStops, originSlots, resolved),
+                matrixStops(destinationStops, destinationSlots, resolved),
+                durations,
+                interchanges,
+                errors,
+                // At least one cell was served from an older snapshot (refreshing, or TfL unavailable)
+                stale ? Boolean.TRUE : null
+        );
     }
 
-    //Single leg TfL routing (from) -> (to).
-    public String routeStationToStation(Station from, Station to) {
-        String fromId = resolveStopPointId(from);
-        String toId = resolveStopPointId(to);
+    /**
+     * Visiting order with the first and last stops fixed, minimising total journey time.
+     * - Only the cells an ordering can use are fetched: start -> intermediates, between intermediates, intermediates -> end
+     * - Cells go through the journeys cache (same bucket and key as the legs), so the chosen legs are cache hits afterwards
+     *   and repeated or concurrent requests for a pair share one TfL call
+     * - Fetched together under the per-request concurrency limit
+     */
+    private int[] optimiseStopOrder(List<String> ids, String departAtRounded5, RouteOptions options, String modesCsv) throws Exception {
+        int n = ids.size();
+        long[][] cost = new long[n][n];
+
+        List<int[]> cells = new ArrayList<>();
+        List<JourneyPair> cellPairs = new ArrayList<>();
+        for (int i = 0; i < n - 1; i++) {
+            for (int j = 1; j < n; j++) {
+                // Never part of an ordering: self-loops and start -> end directly
+                if (i == j || (i == 0 && j == n - 1)) {
+                    cost[i][j] = StopOrderOptimiser.UNREACHABLE;
+                    continue;
+                }
+                // The same StopPoint twice costs nothing to "travel" between
+                if (ids.get(i).equals(ids.get(j))) {
+                    continue;
+                }
 
-        // Use a 5-minute bucket for caching 
-        String departAtRounded5 = roundNowTo5MinKey();
+                cells.add(new int[] { i, j });
+                cellPairs.add(new JourneyPair(ids.get(i), ids.get(j), modesCsv));
+            }
+        }
 
-        //Default options for single-leg include everything + fastest
-        RouteOptions options = new RouteOptions(RoutingController.SortBy.FASTEST, true, true);
-        String modesCsv = buildModesCsv(options.includeBus(), options.includeTram());
+        Map<String, JourneyCandidates> warm = warmJourneys(journeyKeys(cellPairs, departAtRounded5), options.engine());
+        List<Callable<Long>> cellTasks = new ArrayList<>();
+        for (JourneyPair cell : cellPairs) {
+            cellTasks.add(() -> legCost(cell.fromId(), cell.toId(), departAtRounded5, options, modesCsv, warm));
+        }
+        List<Long> costs = fanOut(cellTasks);
+        for (int c = 0; c < cells.size(); c++) {
+            cost[cells.get(c)[0]][cells.get(c)[1]] = costs.get(c);
+        }
 
+        int[] order = StopOrderOptimiser.bestOrder(cost, optimiseExactMaxIntermediate);
+        if (StopOrderOptimiser.pathCost(cost, order) >= StopOrderOptimiser.UNREACHABLE) {
+            throw new IllegalArgumentException("TfL returned no journeys connecting these stops in any order");
+        }
+        return order;
+    }
+
+    //Duration in minutes of the best journey for a matrix cell; UNREACHABLE when TfL has none that match.
+    private long legCost(
+            String fromId,
+            String toId,
+            String departAtRounded5,
+            RouteOptions options,
+            String modesCsv,
+            Map<String, JourneyCandidates> warm
+    ) throws Exception {
         try {
-            ObjectNode summary = routeLegSummary(from, to, fromId, toId, departAtRounded5, options, modesCsv);
-            return objectMapper.writeValueAsString(summary);
-        } catch (Exception e) {
-            // If the real cause is "bad input" (or TfL returned no journeys), surface it as 400
-            if (e instanceof IllegalArgumentException) throw (IllegalArgumentException) e;
-            if (e.getCause() instanceof IllegalArgumentException) throw (IllegalArgumentException) e.getCause();
+            return bestJourney(fromId, toId, departAtRounded5, options, modesCsv, warm).journey().rankDuration();
+        } catch (IllegalArgumentException e) {
+            return StopOrderOptimiser.UNREACHABLE;
+        }
+    }
+
+    // HELPERS
+    /**
+     * Runs the tasks on virtual threads (at most maxConcurrency at once) and returns results in task order.
+     * Results are collected as they complete, so the first failure is rethrown straight away (unwrapped, so callers
+     * keep their error mapping) and tasks that have not started yet are skipped.
+     */
+    private <T> List<T> fanOut(List<Callable<T>> tasks) throws Exception {
+        List<T> results = new ArrayList<>(Collections.nCopies(tasks.size(), null));
+        fanOutAsCompleted(tasks, results::set);
+        return results;
+    }
+
+    /**
+     * Runs the tasks on virtual threads (at most maxConcurrency at once) and hands each result to onResult
+     * (on the calling thread) in completion order, as soon as it is ready.
+     * Failures skip the tasks not yet started and are rethrown unwrapped, including those thrown by onResult.
+     * Tasks already running are not interrupted: they may be loading a key other requests are waiting on.
+     */
+    private <T> void fanOutAsCompleted(List<Callable<T>> tasks, CompletedTask<T> onResult) throws Exception {
+        if (!parallelEnabled || tasks.size() <= 1) {
+            for (int i = 0; i < tasks.size(); i++) {
+                onResult.accept(i, tasks.get(i).call());
+            }
+            return;
+        }
+
+        Semaphore permits = new Semaphore(maxConcurrency);
+        AtomicBoolean abandoned = new AtomicBoolean();
+        ExecutorCompletionService<Indexed<T>> completion = new ExecutorCompletionService<>(routingExecutor);
+        List<Future<Indexed<T>>> futures = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            int index = i;
+            Callable<T> task = tasks.get(i);
+            futures.add(completion.submit(() -> {
+                permits.acquire();
+                try {
+                    if (abandoned.get()) {
+                        throw new CancellationException("Sibling task failed");
+                    }
+                    return new Indexed<>(index, task.call());
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
 
-            throw new RuntimeException("Failed to build multi-route response", e);
+        try {
+            for (int done = 0; done < tasks.size(); done++) {
+                Indexed<T> result = completion.take().get();
+                onResult.accept(result.index(), result.value());
+            }
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } finally {
+            // Running tasks may be leading a shared load (SingleFlight, lease) other requests wait on, so they are
+            // left to finish rather than interrupted; queued ones are dropped
+            abandoned.set(true);
+            for (Future<Indexed<T>> future : futures) {
+                future.cancel(false);
+            }
         }
     }
 
-    //Chains TfL JourneyResults for each adjacent pair.
-    public String routeMulti(
+    @FunctionalInterface
+    private interface CompletedTask<T> {
+        void accept(int index, T value) throws Exception;
+    }
+
+    private record Indexed<T>(int index, T value) {}
+
+    //The task's own failure, so callers keep their error mapping.
+    private static Exception unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof Exception ex) return ex;
+        if (cause instanceof Error err) throw err;
+        return e;
+    }
+
+    //Same as fanOut for tasks that only throw unchecked exceptions.
+    private <T> List<T> fanOutUnchecked(List<Callable<T>> tasks) {
+        try {
+            return fanOut(tasks);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while routing", e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to route", e);
+        }
+    }
+
+    //A validated, resolved multi-stop route; stopOrder is non-null only once ordered() has reordered it.
+    private record PreparedMulti(
+            List<Station> stops,
+            List<String> ids,
+            boolean optimiseOrder,
+            int[] stopOrder,
+            RouteOptions options,
+            String modesCsv,
+            String departAtRounded5
+    ) {}
+
+    private PreparedMulti prepareMulti(
             List<Station> stops,
             RoutingController.Preferences preferences,
             RoutingController.Modes modes
     ) {
-        if (stops == null || stops.size() < 2) {
-            throw new IllegalArgumentException("Need at least 2 stops");
+        boolean optimiseOrder = optimiseOrder(preferences);
+        validateStops(stops, optimiseOrder);
+        stops = snapped(stops);
+
+        RouteOptions options = routeOptions(preferences, modes);
+        String modesCsv = buildModesCsv(options.includeBus(), options.includeTram());
+
+        // Resolve all ids at once 
+        List<Callable<String>> resolveTasks = new ArrayList<>();
+        for (Station s : stops) {
+            resolveTasks.add(() -> resolveStop(s, options.engine()));
         }
+        List<String> ids = fanOutUnchecked(resolveTasks);
 
-        // Ensures no null values
-        for (int i = 0; i < stops.size(); i++) {
-            if (stops.get(i) == null) {
-                throw new IllegalArgumentException("Stop at index " + i + " is null");
+        // keeps cache keys consistent across legs in the same button click
+        String departAtRounded5 = TimeBuckets.roundNowTo5MinKey();
+
+        return new PreparedMulti(stops, ids, optimiseOrder, null, options, modesCsv, departAtRounded5);
+    }
+
+    //The route in visiting order: reordered when optimiseOrder asks for it, otherwise as given.
+    private PreparedMulti ordered(PreparedMulti route) {
+        // Only the intermediate stops can move, so 3 stops or fewer have a single possible order
+        if (!route.optimiseOrder() || route.stopOrder() != null || route.stops().size() <= 3) {
+            return route;
+        }
+
+        try {
+            int[] stopOrder = optimiseStopOrder(route.ids(), route.departAtRounded5(), route.options(), route.modesCsv());
+
+            List<Station> orderedStops = new ArrayList<>(stopOrder.length);
+            List<String> orderedIds = new ArrayList<>(stopOrder.length);
+            for (int index : stopOrder) {
+                orderedStops.add(route.stops().get(index));
+                orderedIds.add(route.ids().get(index));
             }
+            return new PreparedMulti(orderedStops, orderedIds, true, stopOrder,
+                    route.options(), route.modesCsv(), route.departAtRounded5());
+        } catch (Exception e) {
+            throw routingFailure(e, "Failed to optimise stop order");
+        }
+    }
+
+    //Everything the assembled response depends on; departAt comes first so the L1 tier can expire it with its bucket.
+    private static String itineraryKey(PreparedMulti route) {
+        StringBuilder key = new StringBuilder("itinerary:departAt:").append(route.departAtRounded5())
+                .append(":sort:").append(route.options().sortBy())
+                .append(":modes:").append(route.modesCsv())
+                .append(":optimise:").append(route.optimiseOrder())
+                .append(":engine:").append(route.options().engine())
+                .append(":stops:");
+        for (int i = 0; i < route.ids().size(); i++) {
+            // Names are echoed in the response, so they are part of the key too; both are free text, hence length-prefixed
+            appendLengthPrefixed(key, route.ids().get(i));
+            appendLengthPrefixed(key, route.stops().get(i).getName());
+        }
+        return key.toString();
+    }
+
+    //"<length>:<value>" ("-1:" for null), so no id or name can run into the next one.
+    private static void appendLengthPrefixed(StringBuilder key, String value) {
+        if (value == null) {
+            key.append("-1:");
+        } else {
+            key.append(value.length()).append(':').append(value);
+        }
+    }
+
+    private Cache itineraries() {
+        return cacheManager.getCache(ITINERARIES);
+    }
+
+    //One task per leg; legs already cached are read up front in a single batch, the rest load on their own.
+    private List<Callable<LegSummary>> legTasks(PreparedMulti route) {
+        List<JourneyPair> legs = new ArrayList<>();
+        for (int i = 0; i < route.ids().size() - 1; i++) {
+            legs.add(new JourneyPair(route.ids().get(i), route.ids().get(i + 1), route.modesCsv()));
+        }
+        Map<String, JourneyCandidates> warm = warmJourneys(journeyKeys(legs, route.departAtRounded5()), route.options().engine());
+
+        List<Callable<LegSummary>> legTasks = new ArrayList<>();
+        for (int i = 0; i < route.stops().size() - 1; i++) {
+            Station from = route.stops().get(i);
+            Station to = route.stops().get(i + 1);
+
+            String fromId = route.ids().get(i);
+            String toId = route.ids().get(i + 1);
+
+            legTasks.add(() -> routeLegSummary(from, to, fromId, toId, route.departAtRounded5(), route.options(), route.modesCsv(), warm));
         }
+        return legTasks;
+    }
+
+    //Leg i of a route (stops i -> i + 1) summarised from journey options fetched for it (batch shares them between itineraries).
+    private LegSummary legSummary(PreparedMulti route, int i, JourneyCandidates journey) {
+        return legSummary(route.stops().get(i), route.stops().get(i + 1), route.ids().get(i), route.ids().get(i + 1),
+                route.options(), journey);
+    }
+
+    private void streamLegs(PreparedMulti route, RouteEventSink sink) throws IOException {
+        LegSummary[] legs = new LegSummary[route.stops().size() - 1];
+        try {
+            fanOutAsCompleted(legTasks(route), (index, leg) -> {
+                legs[index] = leg;
+                sink.send(objectMapper.writeValueAsString(RouteStreamEvent.leg(index, leg)));
+            });
+        } catch (IOException e) {
+            // The client went away
+            throw e;
+        } catch (InterruptedException e) {
+            // Cancelled (timed out or the client went away); the legs still in flight were cancelled with it
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            RuntimeException failure = routingFailure(e, "Failed to build multi-route response");
+            RouteStreamEvent event = RouteStreamEvent.error(errorStatus(failure), errorCode(failure), errorMessage(failure));
+            sink.send(objectMapper.writeValueAsString(event));
+            return;
+        }
+
+        MultiRouteResponse totals = MultiRouteResponse.of(Arrays.asList(legs), route.stopOrder());
+        sink.send(objectMapper.writeValueAsString(RouteStreamEvent.totals(totals)));
+    }
+
+    // Options used to choose the best journey from the TfL API response (and which engine answers).
+    private record RouteOptions(
+            RoutingController.SortBy sortBy,
+            boolean includeBus,
+            boolean includeTram,
+            RoutingController.Engine engine
+    ) {}
 
+    private static RouteOptions routeOptions(RoutingController.Preferences preferences, RoutingController.Modes modes) {
         // Sorting default = fastest
         RoutingController.SortBy sortBy = (preferences != null && preferences.sortBy() != null)
                 ? preferences.sortBy()
@@ -117,91 +852,299 @@ public class RoutingService {
         boolean includeBus = (modes == null || modes.includeBus() == null) ? true : modes.includeBus();
         boolean includeTram = (modes == null || modes.includeTram() == null) ? true : modes.includeTram();
 
-        RouteOptions options = new RouteOptions(sortBy, includeBus, includeTram);
-        String modesCsv = buildModesCsv(includeBus, includeTram);
+        // TfL unless the request asks for the local timetable router
+        RoutingController.Engine engine = (preferences != null && preferences.engine() != null)
+                ? preferences.engine()
+                : RoutingController.Engine.TFL;
 
-        // Resolve all ids at once 
-        List<String> ids = new ArrayList<>();
-        for (Station s : stops) {
-            ids.add(resolveStopPointId(s));
+        return new RouteOptions(sortBy, includeBus, includeTram, engine);
+    }
+
+    //Best journey for a pair, and whether it came from an older snapshot.
+    private record BestJourney(JourneyOption journey, boolean stale) {}
+
+    //Result or failure of one independent piece of work, so a failure does not cancel the rest of a fanOut.
+    private record Attempt<T>(T value, Exception error) {
+        static <T> Attempt<T> of(Callable<T> task) {
+            try {
+                return new Attempt<>(task.call(), null);
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                return new Attempt<>(null, e);
+            }
         }
+    }
 
-        // keeps cache keys consistent across legs in the same button click
-        String departAtRounded5 = roundNowTo5MinKey();
+    /**
+     * Journey options for a pair: from warm (a batched read done up front) if there, otherwise from the cache (TfL on a miss).
+     * The LOCAL engine answers from the local timetable instead, without touching the caches.
+     */
+    private JourneyCandidates cachedJourney(
+            String fromId,
+            String toId,
+            String departAtRounded5,
+            String modesCsv,
+            RoutingController.Engine engine,
+            Map<String, JourneyCandidates> warm
+    ) throws Exception {
+        if (engine == RoutingController.Engine.LOCAL) {
+            return localJourney(fromId, toId, departAtRounded5, modesCsv);
+        }
+
+        JourneyCandidates hit = warm.get(JourneyCacheService.journeyKey(fromId, toId, departAtRounded5, modesCsv));
+        if (hit != null) {
+            return hit;
+        }
 
         try {
-            ArrayNode legSummaries = objectMapper.createArrayNode();
+            return metrics.stage(RoutingMetrics.Stage.CACHE_LOOKUP).recordCallable(
+                    () -> journeyCacheService.journeyCandidates(fromId, toId, departAtRounded5, modesCsv)
+            );
+        } catch (TflUnavailableException e) {
+            // Degraded mode: TfL is down or shedding load, so answer with the last journey we saw for the pair
+            JourneyCandidates journey = journeyCacheService.lastKnownCandidates(fromId, toId, modesCsv);
+            if (journey != null) {
+                return journey;
+            }
+            // Never seen the pair: the local timetable can still answer without TfL
+            if (localFallback && localRoutingService.isAvailable()) {
+                try {
+                    return localJourney(fromId, toId, departAtRounded5, modesCsv);
+                } catch (IllegalArgumentException local) {
+                    e.addSuppressed(local);
+                }
+            }
+            throw e;
+        }
+    }
 
-            int totalDuration = 0;
-            int totalInterchanges = 0;
+    private JourneyCandidates localJourney(String fromId, String toId, String departAtRounded5, String modesCsv) {
+        return JourneyCandidates.fromTimetable(localRoutingService.route(fromId, toId, departAtRounded5, modesCsv));
+    }
 
-            for (int i = 0; i < stops.size() - 1; i++) {
-                Station from = stops.get(i);
-                Station to = stops.get(i + 1);
+    //Journey options already cached for these legs, read with one batched cache lookup; misses are left to each leg's own load.
+    private Map<String, JourneyCandidates> warmJourneys(List<String> keys, RoutingController.Engine engine) {
+        // Local answers are never cached
+        if (engine == RoutingController.Engine.LOCAL) {
+            return Map.of();
+        }
+        if (keys.size() <= 1) {
+            // A single leg gains nothing from a batch read, so it keeps the normal path
+            return Map.of();
+        }
+        return metrics.stage(RoutingMetrics.Stage.CACHE_LOOKUP).record(() -> journeyCacheService.cachedCandidates(keys));
+    }
 
-                String fromId = ids.get(i);
-                String toId = ids.get(i + 1);
+    private static List<String> journeyKeys(List<JourneyPair> pairs, String departAtRounded5) {
+        List<String> keys = new ArrayList<>(pairs.size());
+        for (JourneyPair pair : pairs) {
+            keys.add(JourneyCacheService.journeyKey(pair.fromId(), pair.toId(), departAtRounded5, pair.modesCsv()));
+        }
+        return keys;
+    }
 
-                ObjectNode legSummary = routeLegSummary(from, to, fromId, toId, departAtRounded5, options, modesCsv);
+    private BestJourney bestJourney(
+            String fromId,
+            String toId,
+            String departAtRounded5,
+            RouteOptions options,
+            String modesCsv,
+            Map<String, JourneyCandidates> warm
+    ) throws Exception {
+        JourneyCandidates journey = cachedJourney(fromId, toId, departAtRounded5, modesCsv, options.engine(), warm);
+        List<JourneyOption> journeys = journey.results().journeys();
+        JourneyOption best = pickBestJourney(journeys, options.sortBy(), options.includeBus(), options.includeTram());
+        return new BestJourney(best, journey.stale());
+    }
 
-                totalDuration += legSummary.path("durationMinutes").asInt(0);
-                totalInterchanges += legSummary.path("interchanges").asInt(0);
+    //Stops given only as lat / lon become the nearest station within snapMaxDistanceMeters; the rest are kept as given.
+    private Station snapped(Station station) {
+        if (station == null || !station.isCoordinatesOnly()) {
+            return station;
+        }
+        List<NearbyStation> nearest = stationService.nearest(station.getLat(), station.getLon(), 1, snapMaxDistanceMeters);
+        if (nearest.isEmpty()) {
+            throw new IllegalArgumentException("No station within " + snapMaxDistanceMeters + " m of "
+                    + station.getLat() + "," + station.getLon());
+        }
+        return nearest.get(0).toStation();
+    }
 
-                legSummaries.add(legSummary);
-            }
+    private List<Station> snapped(List<Station> stops) {
+        if (stops == null) {
+            return null;
+        }
+        List<Station> out = new ArrayList<>(stops.size());
+        for (Station stop : stops) {
+            out.add(snapped(stop));
+        }
+        return out;
+    }
 
-            ObjectNode response = objectMapper.createObjectNode();
-            response.put("mode", "multi");
-            response.put("legs", stops.size() - 1);
-            response.put("totalDurationMinutes", totalDuration);
-            response.put("totalInterchanges", totalInterchanges);
-            response.set("results", legSummaries);
+    //Index of the station in distinct, adding it (and its engine) on first sight (same engine, code and name = same stop).
+    private static int stationSlot(
+            Station station,
+            RoutingController.Engine engine,
+            Map<String, Integer> slotByStation,
+            List<Station> distinct,
+            List<RoutingController.Engine> engines
+    ) {
+        String key = engine + "|";
+        if (station != null) {
+            String code = (station.getCode() == null) ? "" : station.getCode().trim();
+            String name = (station.getName() == null) ? "" : station.getName().trim().toLowerCase();
+            key += code + "|" + name;
+        }
 
-            return objectMapper.writeValueAsString(response);
-        } catch (Exception e) {
-            // If the real cause is "bad input" (or TfL returned no journeys), surface it as 400
-            if (e instanceof IllegalArgumentException) throw (IllegalArgumentException) e;
-            if (e.getCause() instanceof IllegalArgumentException) throw (IllegalArgumentException) e.getCause();
+        Integer slot = slotByStation.get(key);
+        if (slot == null) {
+            slot = distinct.size();
+            distinct.add(station);
+            engines.add(engine);
+            slotByStation.put(key, slot);
+        }
+        return slot;
+    }
 
-            throw new RuntimeException("Failed to build multi-route response", e);
+    //Each stop snapped on its own, keeping the failure of any stop that cannot be.
+    private List<Attempt<Station>> snappedEach(List<Station> stops) {
+        List<Attempt<Station>> out = new ArrayList<>(stops.size());
+        for (Station stop : stops) {
+            out.add(Attempt.of(() -> snapped(stop)));
         }
+        return out;
+    }
 
+    //Resolved id of a matrix stop, or why it has none (snapping failed: slot -1, or resolution failed).
+    private static Attempt<String> stopId(Attempt<Station> stop, int slot, List<Attempt<String>> resolved) {
+        return (slot < 0) ? new Attempt<>(null, stop.error()) : resolved.get(slot);
     }
 
-    // HELPERS
-    // Options used to choose the best journey from the TfL API response.
-    private record RouteOptions(
-            RoutingController.SortBy sortBy,
-            boolean includeBus,
-            boolean includeTram
-    ) {}
+    private static List<MatrixResponse.Stop> matrixStops(List<Attempt<Station>> stops, int[] slots, List<Attempt<String>> resolved) {
+        List<MatrixResponse.Stop> out = new ArrayList<>(stops.size());
+        for (int i = 0; i < stops.size(); i++) {
+            Station station = stops.get(i).value();
+            out.add(new MatrixResponse.Stop((station == null) ? null : station.getName(), stopId(stops.get(i), slots[i], resolved).value()));
+        }
+        return out;
+    }
+
+    private static boolean optimiseOrder(RoutingController.Preferences preferences) {
+        return preferences != null && Boolean.TRUE.equals(preferences.optimiseOrder());
+    }
+
+    private void validateStops(List<Station> stops, boolean optimiseOrder) {
+        if (stops == null || stops.size() < 2) {
+            throw new IllegalArgumentException("Need at least 2 stops");
+        }
+
+        // Ensures no null values
+        for (int i = 0; i < stops.size(); i++) {
+            if (stops.get(i) == null) {
+                throw new IllegalArgumentException("Stop at index " + i + " is null");
+            }
+        }
+
+        if (optimiseOrder && stops.size() > optimiseMaxStops) {
+            throw new IllegalArgumentException("Order optimisation supports at most " + optimiseMaxStops + " stops");
+        }
+    }
+
+    //Maps a routing failure onto the exceptions ApiExceptionHandler understands.
+    private static RuntimeException routingFailure(Exception e, String message) {
+        // If the real cause is "bad input" (or TfL returned no journeys), surface it as 400
+        if (e instanceof IllegalArgumentException) return (IllegalArgumentException) e;
+        if (e.getCause() instanceof IllegalArgumentException) return (IllegalArgumentException) e.getCause();
+        // TfL capacity exhausted, surfaced as 503 rather than a generic failure
+        if (e instanceof TflUnavailableException) return (TflUnavailableException) e;
+
+        return new RuntimeException(message, e);
+    }
+
+    //Per-item errors (matrix cells, batch itineraries, streamed legs) use the same statuses and codes as ApiExceptionHandler
+    private static int errorStatus(Exception e) {
+        if (e instanceof IllegalArgumentException) return 400;
+        if (e instanceof TflUnavailableException) return 503;
+        return 500;
+    }
+
+    private static String errorCode(Exception e) {
+        if (e instanceof IllegalArgumentException) return "bad_request";
+        if (e instanceof TflUnavailableException) return "upstream_unavailable";
+        return "internal_error";
+    }
+
+    private static String errorMessage(Exception e) {
+        if (e instanceof IllegalArgumentException || e instanceof TflUnavailableException) {
+            return e.getMessage();
+        }
+        log.warn("Routing item failed", e);
+        return "Something went wrong on the server.";
+    }
 
     //Core helper used to build a singular leg
-    private ObjectNode routeLegSummary(
+    private LegSummary routeLegSummary(
             Station from,
             Station to,
             String fromId,
             String toId,
             String departAtRounded5,
             RouteOptions options,
-            String modesCsv
+            String modesCsv,
+            Map<String, JourneyCandidates> warm
     ) throws Exception {
-        String journeyJson = journeyCacheService.journeyResults(fromId, toId, departAtRounded5, modesCsv);
+        if (options.engine() == RoutingController.Engine.TFL) {
+            // Feeds cache pre-warming for the next time bucket
+            popularityTracker.record(new JourneyPair(fromId, toId, modesCsv));
+        }
+
+        JourneyCandidates journey = cachedJourney(fromId, toId, departAtRounded5, modesCsv, options.engine(), warm);
+        return legSummary(from, to, fromId, toId, options, journey);
+    }
 
-        return buildLegSummary(
+    private LegSummary legSummary(
+            Station from,
+            Station to,
+            String fromId,
+            String toId,
+            RouteOptions options,
+            JourneyCandidates journey
+    ) {
+        LegSummary summary = buildLegSummary(
                 from.getName(),
                 to.getName(),
                 fromId,
                 toId,
-                journeyJson,
+                journey.results(),
                 options.sortBy(),
                 options.includeBus(),
                 options.includeTram()
         );
+
+        return withFreshness(summary, journey);
+    }
+
+    //Served past its freshness window while a refresh runs, or as a fallback while TfL is unavailable
+    private static LegSummary withFreshness(LegSummary summary, JourneyCandidates journey) {
+        if (journey.timetable()) {
+            return summary.fromTimetable();
+        }
+        if (journey.lastKnown()) {
+            return summary.asLastKnown(journey.fetchedAt());
+        }
+        return journey.stale() ? summary.asStale(journey.fetchedAt()) : summary;
+    }
+
+    //Served in place of a fresh answer from the requested engine (stale, or the local fallback while TfL is down).
+    private static boolean servedInstead(LegSummary leg, RouteOptions options) {
+        return leg.servedStale() || (options.engine() == RoutingController.Engine.TFL && leg.source() != null);
     }
 
     //Builds a smaller leg summary from the raw TfL JourneyResults JSON
-    private ObjectNode buildLegSummary(
+    //(this and the selection helpers below are package-private for the src/jmh benchmarks)
+    LegSummary buildLegSummary(
             String fromName,
             String toName,
             String fromId,
@@ -211,83 +1154,96 @@ public class RoutingService {
             boolean includeBus,
             boolean includeTram
     ) throws Exception {
-        JsonNode root = objectMapper.readTree(journeyJson);
+        JourneyResults results = metrics.stage(RoutingMetrics.Stage.PARSE).recordCallable(
+                () -> journeyResultsParser.parse(journeyJson)
+        );
+        return buildLegSummary(fromName, toName, fromId, toId, results, sortBy, includeBus, includeTram);
+    }
+
+    //Same as above for already distilled journey options (what the journeyOptions cache holds).
+    LegSummary buildLegSummary(
+            String fromName,
+            String toName,
+            String fromId,
+            String toId,
+            JourneyResults results,
+            RoutingController.SortBy sortBy,
+            boolean includeBus,
+            boolean includeTram
+    ) {
+        Timer.Sample select = Timer.start();
+        String outcome = RoutingMetrics.ERROR;
+        try {
+            LegSummary out = selectLegSummary(fromName, toName, fromId, toId, results, sortBy, includeBus, includeTram);
+            outcome = RoutingMetrics.SUCCESS;
+            return out;
+        } finally {
+            select.stop(metrics.stage(RoutingMetrics.Stage.SELECT, outcome));
+        }
+    }
 
-        JsonNode journeys = root.get("journeys");
-        if (journeys == null || !journeys.isArray() || journeys.size() == 0) {
+    private LegSummary selectLegSummary(
+            String fromName,
+            String toName,
+            String fromId,
+            String toId,
+            JourneyResults results,
+            RoutingController.SortBy sortBy,
+            boolean includeBus,
+            boolean includeTram
+    ) {
+        List<JourneyOption> journeys = results.journeys();
+        if (journeys.isEmpty()) {
             // If TfL returned an error payload, surface that message
-            JsonNode message = root.get("message");
-            if (message != null && !message.asText().isBlank()) {
-                throw new IllegalArgumentException("TfL: " + message.asText());
+            String message = results.message();
+            if (message != null && !message.isBlank()) {
+                throw new IllegalArgumentException("TfL: " + message);
             }
             throw new IllegalArgumentException("TfL returned no journeys");
         }
 
 
-        JsonNode best = pickBestJourney((ArrayNode) journeys, sortBy, includeBus, includeTram);
+        JourneyOption best = pickBestJourney(journeys, sortBy, includeBus, includeTram);
 
-        int duration = best.path("duration").asInt(0);
-        String start = best.path("startDateTime").asText(null);
-        String arrive = best.path("arrivalDateTime").asText(null);
+        int duration = Math.max(0, best.durationMinutes());
+        String start = best.startDateTime();
+        String arrive = best.arrivalDateTime();
 
-        JsonNode legs = best.get("legs");
+        List<JourneyLeg> legs = best.legs();
         int interchanges = estimateInterchanges(legs);
 
         String summary = buildSummaryFromLegs(legs);
 
-        ArrayNode segments = objectMapper.createArrayNode();
-        if (legs != null && legs.isArray()) {
-            for (JsonNode leg : legs) {
-                ObjectNode seg = objectMapper.createObjectNode();
-
-                String mode = leg.path("mode").path("id").asText(null);
-
-                String line = leg.path("routeOptions").isArray() && leg.path("routeOptions").size() > 0
-                        ? leg.path("routeOptions").get(0).path("name").asText(null)
-                        : null;
-
-                String direction = leg.path("instruction").path("detailed").asText(null);
-
-                String dep = leg.path("departurePoint").path("commonName").asText(null);
-                String arr = leg.path("arrivalPoint").path("commonName").asText(null);
-
-                int segDuration = leg.path("duration").asInt(0);
-
-                seg.put("mode", mode);
-                if (line != null && !line.isBlank()) seg.put("line", line);
-                if (direction != null && !direction.isBlank()) seg.put("direction", direction);
-                if (dep != null && !dep.isBlank()) seg.put("from", dep);
-                if (arr != null && !arr.isBlank()) seg.put("to", arr);
-                seg.put("durationMinutes", segDuration);
-
-                segments.add(seg);
-            }
+        List<Segment> segments = new ArrayList<>(legs.size());
+        for (JourneyLeg leg : legs) {
+            segments.add(Segment.of(leg));
         }
 
-        ObjectNode out = objectMapper.createObjectNode();
-        out.put("fromName", fromName);
-        out.put("toName", toName);
-        out.put("fromStopPointId", fromId);
-        out.put("toStopPointId", toId);
-        out.put("durationMinutes", duration);
-        if (start != null) out.put("startDateTime", start);
-        if (arrive != null) out.put("arrivalDateTime", arrive);
-        out.put("interchanges", interchanges);
-        out.put("summary", summary);
-        out.set("segments", segments);
-
-        return out;
+        return new LegSummary(
+                fromName,
+                toName,
+                fromId,
+                toId,
+                duration,
+                start,
+                arrive,
+                interchanges,
+                summary,
+                segments,
+                null,
+                null,
+                null
+        );
     }
 
 
      //Estimate interchanges by counting non-walking legs and subtracting 1.
-    private int estimateInterchanges(JsonNode legs) {
-        if (legs == null || !legs.isArray() || legs.size() == 0) return 0;
+    int estimateInterchanges(List<JourneyLeg> legs) {
+        if (legs.isEmpty()) return 0;
 
         int nonWalk = 0;
-        for (JsonNode leg : legs) {
-            String mode = leg.path("mode").path("id").asText("");
-            if (!"walking".equalsIgnoreCase(mode)) {
+        for (JourneyLeg leg : legs) {
+            if (!"walking".equalsIgnoreCase(leg.mode())) {
                 nonWalk++;
             }
         }
@@ -297,24 +1253,19 @@ public class RoutingService {
     }
 
      //Build a simple readable summary from the legs.
-    private String buildSummaryFromLegs(JsonNode legs) {
-        if (legs == null || !legs.isArray() || legs.size() == 0) return "Journey";
+    String buildSummaryFromLegs(List<JourneyLeg> legs) {
+        if (legs.isEmpty()) return "Journey";
 
-        for (JsonNode leg : legs) {
-            String mode = leg.path("mode").path("id").asText("");
-            if ("walking".equalsIgnoreCase(mode)) continue;
+        for (JourneyLeg leg : legs) {
+            if ("walking".equalsIgnoreCase(leg.mode())) continue;
 
-            JsonNode routeOptions = leg.path("routeOptions");
-            if (routeOptions.isArray() && routeOptions.size() > 0) {
-                String name = routeOptions.get(0).path("name").asText("");
-                if (!name.isBlank()) return name;
-            }
+            if (leg.line() != null && !leg.line().isBlank()) return leg.line();
         }
 
         List<String> modes = new ArrayList<>();
-        for (JsonNode leg : legs) {
-            String mode = leg.path("mode").path("id").asText("");
-            if (mode.isBlank()) continue;
+        for (JourneyLeg leg : legs) {
+            String mode = leg.mode();
+            if (mode == null || mode.isBlank()) continue;
             if (!modes.contains(mode)) modes.add(mode);
         }
 
@@ -323,59 +1274,49 @@ public class RoutingService {
         return String.join(" + ", modes);
     }
 
-    // Round "now" to a 5-minute bucket for cache keys.
-    private String roundNowTo5MinKey() {
-        ZonedDateTime now = ZonedDateTime.ofInstant(Instant.now(), ZoneOffset.UTC);
-        int minute = now.getMinute();
-        int rounded = (minute / 5) * 5;
-
-        ZonedDateTime roundedTime = now
-                .withMinute(rounded)
-                .withSecond(0)
-                .withNano(0);
-
-        return roundedTime.format(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm'Z'"));
-    }
-
     /**
      * Select the "best" journey from TfL options according to:
      *  - allowed modes 
      *  - sorting preference 
      */
-    private JsonNode pickBestJourney(
-            ArrayNode journeys,
+    JourneyOption pickBestJourney(
+            List<JourneyOption> journeys,
             RoutingController.SortBy sortBy,
             boolean includeBus,
             boolean includeTram
     ) {
-        JsonNode best = null;
+        JourneyOption best = null;
+        int durBest = 0;
+        int transfersBest = 0;
 
-        for (JsonNode candidate : journeys) {
+        for (JourneyOption candidate : journeys) {
             if (!journeyAllowedByModes(candidate, includeBus, includeTram)) {
                 continue;
             }
 
+            int durCandidate = candidate.rankDuration();
+            int transfersCandidate = estimateInterchanges(candidate.legs());
+
             if (best == null) {
                 best = candidate;
+                durBest = durCandidate;
+                transfersBest = transfersCandidate;
                 continue;
             }
 
-            int durCandidate = candidate.path("duration").asInt(Integer.MAX_VALUE);
-            int durBest = best.path("duration").asInt(Integer.MAX_VALUE);
-
-            int transfersCandidate = estimateInterchanges(candidate.get("legs"));
-            int transfersBest = estimateInterchanges(best.get("legs"));
-
+            boolean better;
             if (sortBy == RoutingController.SortBy.FEWEST_TRANSFERS) {
-                if (transfersCandidate < transfersBest
-                        || (transfersCandidate == transfersBest && durCandidate < durBest)) {
-                    best = candidate;
-                }
+                better = transfersCandidate < transfersBest
+                        || (transfersCandidate == transfersBest && durCandidate < durBest);
             } else {
-                if (durCandidate < durBest
-                        || (durCandidate == durBest && transfersCandidate < transfersBest)) {
-                    best = candidate;
-                }
+                better = durCandidate < durBest
+                        || (durCandidate == durBest && transfersCandidate < transfersBest);
+            }
+
+            if (better) {
+                best = candidate;
+                durBest = durCandidate;
+                transfersBest = transfersCandidate;
             }
         }
 
@@ -388,14 +1329,11 @@ public class RoutingService {
 
 
      //Returns false if a journey contains a leg with a mode that is currently excluded.
-    private boolean journeyAllowedByModes(JsonNode journey, boolean includeBus, boolean includeTram) {
-        JsonNode legs = journey.get("legs");
-        if (legs == null || !legs.isArray()) return true;
-
-        for (JsonNode leg : legs) {
-            String mode = leg.path("mode").path("id").asText("").toLowerCase();
-            if (!includeBus && "bus".equals(mode)) return false;
-            if (!includeTram && "tram".equals(mode)) return false;
+    private boolean journeyAllowedByModes(JourneyOption journey, boolean includeBus, boolean includeTram) {
+        for (JourneyLeg leg : journey.legs()) {
+            String mode = leg.mode();
+            if (!includeBus && "bus".equalsIgnoreCase(mode)) return false;
+            if (!includeTram && "tram".equalsIgnoreCase(mode)) return false;
         }
         return true;
     }
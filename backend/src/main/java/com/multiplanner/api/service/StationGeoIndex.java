@@ -0,0 +1,249 @@
+package com.multiplanner.api.service;
+
+import com.multiplanner.api.model.NearbyStation;
+import com.multiplanner.api.model.Station;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory nearest-station index over the stations table's lat / lon.
+ * - 3-d KD-tree over points on the unit sphere: straight-line (chord) distance orders stations exactly as
+ *   great-circle distance does, so there is no flat-earth error and no special case at the poles or date line
+ * - k-nearest queries with an optional radius, distances reported as haversine metres
+ * - Rebuilt on the same schedule as StationSearchIndex and swapped in atomically, so lookups never touch Postgres
+ */
+@Component
+public class StationGeoIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(StationGeoIndex.class);
+
+    private static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    private final StationRepository stationRepository;
+
+    private volatile KdTree tree;
+
+    public StationGeoIndex(StationRepository stationRepository) {
+        this.stationRepository = stationRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        refresh();
+    }
+
+    @Scheduled(
+            initialDelayString = "${stations.index.refresh-ms:3600000}",
+            fixedDelayString = "${stations.index.refresh-ms:3600000}"
+    )
+    public void refresh() {
+        try {
+            KdTree built = KdTree.build(stationRepository.findAll());
+            tree = built;
+            log.info("Station geo index loaded with {} stations", built.size());
+        } catch (DataAccessException e) {
+            // Keep serving the previous tree (or SQL lookups if there is none yet)
+            log.warn("Could not refresh station geo index: {}", e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return tree != null;
+    }
+
+    //Up to limit stations within radiusMeters of the point, nearest first.
+    public List<NearbyStation> nearest(double lat, double lon, int limit, double radiusMeters) {
+        KdTree current = tree;
+        if (current == null || limit <= 0) {
+            return List.of();
+        }
+        return current.nearest(lat, lon, limit, radiusMeters);
+    }
+
+    //Great-circle distance in metres (haversine).
+    static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    //Immutable KD-tree over one load of the stations table, stored implicitly: the median of [lo, hi) is the node.
+    private static final class KdTree {
+
+        private final Station[] stations; // tree order
+        private final double[][] points; // [axis][node]: unit-sphere x, y, z
+
+        private KdTree(Station[] stations, double[][] points) {
+            this.stations = stations;
+            this.points = points;
+        }
+
+        static KdTree build(List<Station> source) {
+            List<Station> located = new ArrayList<>();
+            for (Station station : source) {
+                if (station.getLat() != null && station.getLon() != null) {
+                    located.add(station);
+                }
+            }
+
+            int n = located.size();
+            Station[] stations = located.toArray(new Station[0]);
+            double[][] points = new double[3][n];
+            for (int i = 0; i < n; i++) {
+                double[] p = toUnitSphere(stations[i].getLat(), stations[i].getLon());
+                points[0][i] = p[0];
+                points[1][i] = p[1];
+                points[2][i] = p[2];
+            }
+
+            KdTree tree = new KdTree(stations, points);
+            tree.arrange(0, n, 0);
+            return tree;
+        }
+
+        int size() {
+            return stations.length;
+        }
+
+        List<NearbyStation> nearest(double lat, double lon, int limit, double radiusMeters) {
+            double[] query = toUnitSphere(lat, lon);
+            Best best = new Best(Math.min(limit, stations.length), chordSquared(radiusMeters));
+            search(query, 0, stations.length, 0, best);
+
+            List<NearbyStation> out = new ArrayList<>(best.size);
+            for (int i = 0; i < best.size; i++) {
+                Station station = stations[best.nodes[i]];
+                int meters = (int) Math.round(distanceMeters(lat, lon, station.getLat(), station.getLon()));
+                out.add(new NearbyStation(station.getCode(), station.getName(), station.getLat(), station.getLon(), meters));
+            }
+            return out;
+        }
+
+        // HELPERS
+        private void search(double[] query, int lo, int hi, int axis, Best best) {
+            if (lo >= hi) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            double dx = query[0] - points[0][mid];
+            double dy = query[1] - points[1][mid];
+            double dz = query[2] - points[2][mid];
+            best.offer(mid, dx * dx + dy * dy + dz * dz);
+
+            int next = (axis + 1) % 3;
+            double diff = query[axis] - points[axis][mid];
+            boolean leftFirst = diff < 0;
+            search(query, leftFirst ? lo : mid + 1, leftFirst ? mid : hi, next, best);
+            // The other side can only help if the splitting plane is closer than the current k-th best
+            if (diff * diff < best.worst()) {
+                search(query, leftFirst ? mid + 1 : lo, leftFirst ? hi : mid, next, best);
+            }
+        }
+
+        //Puts the median of [lo, hi) along axis in the middle, smaller before and larger after, then recurses.
+        private void arrange(int lo, int hi, int axis) {
+            if (hi - lo <= 1) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            select(lo, hi - 1, mid, axis);
+            int next = (axis + 1) % 3;
+            arrange(lo, mid, next);
+            arrange(mid + 1, hi, next);
+        }
+
+        //Quickselect (Hoare partition) of the k-th smallest along axis within [left, right].
+        private void select(int left, int right, int k, int axis) {
+            double[] keys = points[axis];
+            while (left < right) {
+                double pivot = keys[(left + right) >>> 1];
+                int i = left;
+                int j = right;
+                while (i <= j) {
+                    while (keys[i] < pivot) i++;
+                    while (keys[j] > pivot) j--;
+                    if (i <= j) {
+                        swap(i++, j--);
+                    }
+                }
+                if (k <= j) {
+                    right = j;
+                } else if (k >= i) {
+                    left = i;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private void swap(int a, int b) {
+            Station station = stations[a];
+            stations[a] = stations[b];
+            stations[b] = station;
+            for (double[] axis : points) {
+                double value = axis[a];
+                axis[a] = axis[b];
+                axis[b] = value;
+            }
+        }
+
+        private static double[] toUnitSphere(double lat, double lon) {
+            double phi = Math.toRadians(lat);
+            double lambda = Math.toRadians(lon);
+            return new double[] { Math.cos(phi) * Math.cos(lambda), Math.cos(phi) * Math.sin(lambda), Math.sin(phi) };
+        }
+
+        //Squared chord length of a great-circle distance (infinite radius = no limit).
+        private static double chordSquared(double meters) {
+            if (Double.isInfinite(meters) || meters >= Math.PI * EARTH_RADIUS_METERS) {
+                return Double.POSITIVE_INFINITY;
+            }
+            double chord = 2 * Math.sin(meters / (2 * EARTH_RADIUS_METERS));
+            return chord * chord;
+        }
+    }
+
+    //The k best nodes so far, kept sorted by squared chord distance (k is small, so insertion beats a heap).
+    private static final class Best {
+
+        private final int[] nodes;
+        private final double[] distances;
+        private final double limit;
+        private int size;
+
+        Best(int k, double limit) {
+            this.nodes = new int[k];
+            this.distances = new double[k];
+            this.limit = limit;
+        }
+
+        double worst() {
+            return (size < nodes.length) ? limit : distances[size - 1];
+        }
+
+        void offer(int node, double distance) {
+            if (nodes.length == 0 || distance > limit || (size == nodes.length && distance >= distances[size - 1])) {
+                return;
+            }
+            int i = (size < nodes.length) ? size++ : size - 1;
+            while (i > 0 && distances[i - 1] > distance) {
+                nodes[i] = nodes[i - 1];
+                distances[i] = distances[i - 1];
+                i--;
+            }
+            nodes[i] = node;
+            distances[i] = distance;
+        }
+    }
+}
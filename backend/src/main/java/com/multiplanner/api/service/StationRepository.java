@@ -9,6 +9,9 @@ import java.util.List;
 /**
  * Repository for station autocomplete lookups (PostgreSQL).
  * - Uses pg_trgm for ranked fuzzy search, with a LIKE fallback so very short queries still return something useful.
+ * - Predicates are on name itself so stations_name_trgm_idx can serve them (trigram matching is case-insensitive).
+ * - findAll() feeds the in-memory StationSearchIndex and StationGeoIndex, which normally answer autocomplete and
+ *   nearby lookups instead.
  */
 @Repository
 public class StationRepository {
@@ -16,10 +19,21 @@ public class StationRepository {
     private static final int DEFAULT_LIMIT = 5;
 
     private static final String SEARCH_SQL =
-            "SELECT atco_code AS code, name " +
+            "SELECT atco_code AS code, name, lat, lon " +
             "FROM stations " +
-            "WHERE lower(name) % ? OR lower(name) LIKE '%' || ? || '%' " +
-            "ORDER BY similarity(lower(name), ?) DESC " +
+            "WHERE name % ? OR name ILIKE '%' || ? || '%' " +
+            "ORDER BY similarity(name, ?) DESC " +
+            "LIMIT ?";
+
+    private static final String FIND_ALL_SQL =
+            "SELECT atco_code AS code, name, lat, lon FROM stations";
+
+    // Flat-earth ordering is exact enough to pick candidates at London scale; callers compute real distances
+    private static final String NEAREST_SQL =
+            "SELECT atco_code AS code, name, lat, lon " +
+            "FROM stations " +
+            "WHERE lat IS NOT NULL AND lon IS NOT NULL " +
+            "ORDER BY (lat - ?) * (lat - ?) + ((lon - ?) * cos(radians(?))) * ((lon - ?) * cos(radians(?))) " +
             "LIMIT ?";
 
     private final JdbcTemplate jdbcTemplate;
@@ -28,6 +42,36 @@ public class StationRepository {
         this.jdbcTemplate = jdbcTemplate;
     }
 
+    //All stations (a few thousand rail rows) with their coordinates, used to build the in-memory indexes.
+    public List<Station> findAll() {
+        return jdbcTemplate.query(
+                FIND_ALL_SQL,
+                (rs, rowNum) -> new Station(
+                        rs.getString("code"),
+                        rs.getString("name"),
+                        rs.getObject("lat", Double.class),
+                        rs.getObject("lon", Double.class)
+                )
+        );
+    }
+
+    //Stations closest to a point (full scan; only used until StationGeoIndex has loaded).
+    public List<Station> findNearest(double lat, double lon, int limit) {
+        return jdbcTemplate.query(
+                NEAREST_SQL,
+                (rs, rowNum) -> new Station(
+                        rs.getString("code"),
+                        rs.getString("name"),
+                        rs.getObject("lat", Double.class),
+                        rs.getObject("lon", Double.class)
+                ),
+                lat, lat,
+                lon, lat,
+                lon, lat,
+                limit
+        );
+    }
+
     //Search stations by name (case-insensitive).
     //Returns an empty list for blank queries to avoid scanning the full table.
     public List<Station> search(String query) {
@@ -40,7 +84,9 @@ public class StationRepository {
                 SEARCH_SQL,
                 (rs, rowNum) -> new Station(
                         rs.getString("code"),
-                        rs.getString("name")
+                        rs.getString("name"),
+                        rs.getObject("lat", Double.class),
+                        rs.getObject("lon", Double.class)
                 ),
                 q, // trigram % match
                 q, // LIKE fallback
@@ -0,0 +1,311 @@
+package com.multiplanner.api.service;
+
+import com.multiplanner.api.model.Station;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * In-memory station autocomplete index, loaded from the stations table.
+ * - Prefix trie over every word start of each name ("cross" finds "King's Cross")
+ * - Trigram postings for fuzzy matches, scored like pg_trgm similarity()
+ * - Rebuilt on a schedule and swapped in atomically, so searches never touch Postgres
+ */
+@Component
+public class StationSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(StationSearchIndex.class);
+
+    // pg_trgm's default similarity threshold for the % operator
+    private static final double SIMILARITY_THRESHOLD = 0.3;
+
+    // Trie depth limit; longer queries are still verified against the full name
+    private static final int MAX_PREFIX_DEPTH = 16;
+
+    private final StationRepository stationRepository;
+
+    private volatile Snapshot snapshot;
+
+    public StationSearchIndex(StationRepository stationRepository) {
+        this.stationRepository = stationRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        refresh();
+    }
+
+    @Scheduled(
+            initialDelayString = "${stations.index.refresh-ms:3600000}",
+            fixedDelayString = "${stations.index.refresh-ms:3600000}"
+    )
+    public void refresh() {
+        try {
+            List<Station> stations = stationRepository.findAll();
+            snapshot = Snapshot.build(stations);
+            log.info("Station search index loaded with {} stations", stations.size());
+        } catch (DataAccessException e) {
+            // Keep serving the previous snapshot (or SQL search if there is none yet)
+            log.warn("Could not refresh station search index: {}", e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    //Ranked search: whole-name prefix, then word prefix, then substring, then fuzzy (trigram) matches.
+    public List<Station> search(String query, int limit) {
+        Snapshot snap = snapshot;
+        String q = (query == null) ? "" : query.trim().toLowerCase();
+        if (snap == null || q.isEmpty()) {
+            return List.of();
+        }
+        return snap.search(q, limit);
+    }
+
+    //Immutable index over one load of the stations table.
+    private static final class Snapshot {
+
+        private final Station[] stations;
+        private final String[] lowerNames;
+        private final int[][] trigramIds; // sorted trigram ids per station
+        private final Map<String, Integer> trigramDictionary;
+        private final int[][] postings; // trigram id -> station ids
+        private final TrieNode trie;
+
+        private Snapshot(
+                Station[] stations,
+                String[] lowerNames,
+                int[][] trigramIds,
+                Map<String, Integer> trigramDictionary,
+                int[][] postings,
+                TrieNode trie
+        ) {
+            this.stations = stations;
+            this.lowerNames = lowerNames;
+            this.trigramIds = trigramIds;
+            this.trigramDictionary = trigramDictionary;
+            this.postings = postings;
+            this.trie = trie;
+        }
+
+        static Snapshot build(List<Station> source) {
+            List<Station> named = source.stream()
+                    .filter(s -> s.getName() != null && !s.getName().isBlank())
+                    .toList();
+
+            int n = named.size();
+            Station[] stations = named.toArray(new Station[0]);
+            String[] lowerNames = new String[n];
+            int[][] trigramIds = new int[n][];
+            Map<String, Integer> dictionary = new HashMap<>();
+            List<List<Integer>> postingLists = new ArrayList<>();
+            TrieNode trie = new TrieNode();
+
+            for (int id = 0; id < n; id++) {
+                String lower = stations[id].getName().toLowerCase();
+                lowerNames[id] = lower;
+
+                TreeSet<String> trigrams = trigrams(lower);
+                int[] ids = new int[trigrams.size()];
+                int i = 0;
+                for (String t : trigrams) {
+                    Integer tid = dictionary.get(t);
+                    if (tid == null) {
+                        tid = dictionary.size();
+                        dictionary.put(t, tid);
+                        postingLists.add(new ArrayList<>());
+                    }
+                    postingLists.get(tid).add(id);
+                    ids[i++] = tid;
+                }
+                Arrays.sort(ids);
+                trigramIds[id] = ids;
+
+                for (int start : wordStarts(lower)) {
+                    trie.insert(lower, start, id);
+                }
+            }
+
+            int[][] postings = new int[postingLists.size()][];
+            for (int t = 0; t < postings.length; t++) {
+                postings[t] = postingLists.get(t).stream().mapToInt(Integer::intValue).toArray();
+            }
+
+            return new Snapshot(stations, lowerNames, trigramIds, dictionary, postings, trie);
+        }
+
+        List<Station> search(String q, int limit) {
+            BitSet wordPrefixHits = new BitSet(stations.length);
+            trie.collect(q, wordPrefixHits);
+
+            // Trigrams unknown to the index can't match anything, but still count towards similarity
+            TreeSet<String> queryTrigrams = trigrams(q);
+            int[] queryIds = queryTrigrams.stream()
+                    .map(trigramDictionary::get)
+                    .filter(id -> id != null)
+                    .mapToInt(Integer::intValue)
+                    .sorted()
+                    .toArray();
+            int queryTrigramCount = queryTrigrams.size();
+
+            BitSet candidates = (BitSet) wordPrefixHits.clone();
+            for (int tid : queryIds) {
+                for (int id : postings[tid]) {
+                    candidates.set(id);
+                }
+            }
+
+            // Queries with no 3+ letter word share no inner trigrams with substring matches, so scan for those
+            if (!hasLongWord(q)) {
+                for (int id = 0; id < lowerNames.length; id++) {
+                    if (lowerNames[id].contains(q)) {
+                        candidates.set(id);
+                    }
+                }
+            }
+
+            List<Match> matches = new ArrayList<>();
+            for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+                String name = lowerNames[id];
+                double similarity = similarity(queryIds, queryTrigramCount, trigramIds[id]);
+                boolean contains = name.contains(q);
+                if (!contains && similarity < SIMILARITY_THRESHOLD) {
+                    continue;
+                }
+
+                int tier;
+                if (name.startsWith(q)) tier = 3;
+                else if (wordPrefixHits.get(id) && contains) tier = 2;
+                else if (contains) tier = 1;
+                else tier = 0;
+
+                matches.add(new Match(id, tier, similarity));
+            }
+
+            matches.sort(Comparator
+                    .comparingInt(Match::tier).reversed()
+                    .thenComparing(Comparator.comparingDouble(Match::similarity).reversed())
+                    .thenComparingInt(m -> lowerNames[m.id()].length())
+                    .thenComparing(m -> lowerNames[m.id()]));
+
+            List<Station> out = new ArrayList<>(Math.min(limit, matches.size()));
+            for (int i = 0; i < matches.size() && i < limit; i++) {
+                out.add(stations[matches.get(i).id()]);
+            }
+            return out;
+        }
+
+        // |A ∩ B| / |A ∪ B| over trigram sets, as pg_trgm similarity()
+        private static double similarity(int[] query, int queryCount, int[] name) {
+            if (queryCount == 0 || name.length == 0) return 0;
+
+            int shared = 0;
+            int i = 0;
+            int j = 0;
+            while (i < query.length && j < name.length) {
+                if (query[i] == name[j]) {
+                    shared++;
+                    i++;
+                    j++;
+                } else if (query[i] < name[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return (double) shared / (queryCount + name.length - shared);
+        }
+
+        private static boolean hasLongWord(String q) {
+            int run = 0;
+            for (int i = 0; i < q.length(); i++) {
+                run = Character.isLetterOrDigit(q.charAt(i)) ? run + 1 : 0;
+                if (run >= 3) return true;
+            }
+            return false;
+        }
+    }
+
+    private record Match(int id, int tier, double similarity) {}
+
+    //Character trie over name suffixes that start at a word boundary.
+    private static final class TrieNode {
+
+        private final Map<Character, TrieNode> children = new HashMap<>(4);
+        private int[] ids = new int[2]; // stations whose indexed suffix passes through this node
+        private int size;
+
+        void insert(String name, int start, int id) {
+            TrieNode node = this;
+            int end = Math.min(name.length(), start + MAX_PREFIX_DEPTH);
+            for (int i = start; i < end; i++) {
+                node = node.children.computeIfAbsent(name.charAt(i), c -> new TrieNode());
+                node.add(id);
+            }
+        }
+
+        void collect(String prefix, BitSet out) {
+            TrieNode node = this;
+            int depth = Math.min(prefix.length(), MAX_PREFIX_DEPTH);
+            for (int i = 0; i < depth && node != null; i++) {
+                node = node.children.get(prefix.charAt(i));
+            }
+            if (node == null) return;
+            for (int i = 0; i < node.size; i++) {
+                out.set(node.ids[i]);
+            }
+        }
+
+        // Ids arrive in increasing order, so a repeat can only be the last one added
+        private void add(int id) {
+            if (size > 0 && ids[size - 1] == id) return;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+    }
+
+    //Start offsets of each alphanumeric word in a name.
+    private static List<Integer> wordStarts(String name) {
+        List<Integer> starts = new ArrayList<>();
+        for (int i = 0; i < name.length(); i++) {
+            boolean word = Character.isLetterOrDigit(name.charAt(i));
+            boolean prevWord = i > 0 && Character.isLetterOrDigit(name.charAt(i - 1));
+            if (word && !prevWord) starts.add(i);
+        }
+        return starts;
+    }
+
+    //pg_trgm style trigrams: each word padded with two leading spaces and one trailing space.
+    private static TreeSet<String> trigrams(String text) {
+        TreeSet<String> out = new TreeSet<>();
+        int i = 0;
+        while (i < text.length()) {
+            while (i < text.length() && !Character.isLetterOrDigit(text.charAt(i))) i++;
+            int start = i;
+            while (i < text.length() && Character.isLetterOrDigit(text.charAt(i))) i++;
+            if (i > start) {
+                String padded = "  " + text.substring(start, i) + " ";
+                for (int k = 0; k + 3 <= padded.length(); k++) {
+                    out.add(padded.substring(k, k + 3));
+                }
+            }
+        }
+        return out;
+    }
+}
@@ -1,20 +1,78 @@
 package com.multiplanner.api.service;
 
+import com.multiplanner.api.model.NearbyStation;
 import com.multiplanner.api.model.Station;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
-//Application service for station lookup.
+//Application service for station lookup (in-memory indexes, SQL until they have loaded).
 @Service
 public class StationService {
 
+    private static final int DEFAULT_LIMIT = 5;
+
     private final StationRepository stationRepository;
+    private final StationSearchIndex stationSearchIndex;
+    private final StationGeoIndex stationGeoIndex;
+    private final int nearbyMaxLimit;
+    private final int nearbyDefaultRadiusMeters;
 
-    public StationService(StationRepository stationRepository) {
+    public StationService(
+            StationRepository stationRepository,
+            StationSearchIndex stationSearchIndex,
+            StationGeoIndex stationGeoIndex,
+            @Value("${stations.nearby.max-limit:50}") int nearbyMaxLimit,
+            @Value("${stations.nearby.default-radius-m:2000}") int nearbyDefaultRadiusMeters
+    ) {
         this.stationRepository = stationRepository;
+        this.stationSearchIndex = stationSearchIndex;
+        this.stationGeoIndex = stationGeoIndex;
+        this.nearbyMaxLimit = nearbyMaxLimit;
+        this.nearbyDefaultRadiusMeters = nearbyDefaultRadiusMeters;
     }
 
     public List<Station> searchStations(String query) {
+        if (stationSearchIndex.isReady()) {
+            return stationSearchIndex.search(query, DEFAULT_LIMIT);
+        }
         return stationRepository.search(query);
     }
+
+    //Stations nearest to a point, nearest first; limit and radius fall back to the configured defaults.
+    public List<NearbyStation> nearbyStations(Double lat, Double lon, Integer limit, Integer radiusMeters) {
+        if (lat == null || lon == null) {
+            throw new IllegalArgumentException("lat and lon are required");
+        }
+        if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+            throw new IllegalArgumentException("lat must be within [-90, 90] and lon within [-180, 180]");
+        }
+        int k = (limit == null) ? DEFAULT_LIMIT : limit;
+        if (k < 1 || k > nearbyMaxLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + nearbyMaxLimit);
+        }
+        int radius = (radiusMeters == null) ? nearbyDefaultRadiusMeters : radiusMeters;
+        if (radius <= 0) {
+            throw new IllegalArgumentException("radius must be positive");
+        }
+        return nearest(lat, lon, k, radius);
+    }
+
+    //Up to limit stations within radiusMeters of the point, nearest first.
+    public List<NearbyStation> nearest(double lat, double lon, int limit, double radiusMeters) {
+        if (stationGeoIndex.isReady()) {
+            return stationGeoIndex.nearest(lat, lon, limit, radiusMeters);
+        }
+
+        List<NearbyStation> out = new ArrayList<>();
+        for (Station station : stationRepository.findNearest(lat, lon, limit)) {
+            double meters = StationGeoIndex.distanceMeters(lat, lon, station.getLat(), station.getLon());
+            if (meters <= radiusMeters) {
+                out.add(new NearbyStation(station.getCode(), station.getName(), station.getLat(), station.getLon(),
+                        (int) Math.round(meters)));
+            }
+        }
+        return out;
+    }
 }
@@ -0,0 +1,189 @@
+package com.multiplanner.api.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Visiting order for a trip whose first and last stops are fixed (open path TSP with fixed endpoints).
+ * - cost[i][j] is the travel time from stop i to stop j; UNREACHABLE marks a pair with no journey
+ * - Exact Held-Karp DP (O(2^k * k^2) over the k intermediate stops) up to exactMaxIntermediate
+ * - Above that: nearest-neighbour construction improved with 2-opt and single-stop moves (or-opt) until neither helps
+ */
+public final class StopOrderOptimiser {
+
+    public static final long UNREACHABLE = Long.MAX_VALUE / 4;
+
+    private StopOrderOptimiser() {}
+
+    //Returns stop indices in visiting order, starting at 0 and ending at n - 1.
+    public static int[] bestOrder(long[][] cost, int exactMaxIntermediate) {
+        int n = cost.length;
+        if (n <= 3) {
+            int[] identity = new int[n];
+            Arrays.setAll(identity, i -> i);
+            return identity;
+        }
+
+        return (n - 2 <= exactMaxIntermediate) ? heldKarp(cost) : nearestNeighbourTwoOpt(cost);
+    }
+
+    public static long pathCost(long[][] cost, int[] order) {
+        long total = 0;
+        for (int i = 0; i + 1 < order.length; i++) {
+            total = Math.min(UNREACHABLE, total + cost[order[i]][order[i + 1]]);
+        }
+        return total;
+    }
+
+    // HELPERS
+    //dp[mask][j]: cheapest path from the start through exactly the intermediates in mask, ending at intermediate j.
+    private static int[] heldKarp(long[][] cost) {
+        int n = cost.length;
+        int k = n - 2; // intermediates are stops 1..n-2, bit i <-> stop i + 1
+        int full = (1 << k) - 1;
+
+        long[][] dp = new long[1 << k][k];
+        int[][] parent = new int[1 << k][k];
+        for (long[] row : dp) {
+            Arrays.fill(row, UNREACHABLE);
+        }
+        for (int j = 0; j < k; j++) {
+            dp[1 << j][j] = cost[0][j + 1];
+            parent[1 << j][j] = -1;
+        }
+
+        for (int mask = 1; mask <= full; mask++) {
+            for (int j = 0; j < k; j++) {
+                long base = dp[mask][j];
+                if ((mask & (1 << j)) == 0 || base >= UNREACHABLE) {
+                    continue;
+                }
+                for (int next = 0; next < k; next++) {
+                    if ((mask & (1 << next)) != 0) {
+                        continue;
+                    }
+                    int nextMask = mask | (1 << next);
+                    long candidate = base + cost[j + 1][next + 1];
+                    if (candidate < dp[nextMask][next]) {
+                        dp[nextMask][next] = candidate;
+                        parent[nextMask][next] = j;
+                    }
+                }
+            }
+        }
+
+        int last = 0;
+        long best = UNREACHABLE;
+        for (int j = 0; j < k; j++) {
+            long candidate = dp[full][j] + cost[j + 1][n - 1];
+            if (candidate < best) {
+                best = candidate;
+                last = j;
+            }
+        }
+
+        int[] order = new int[n];
+        Arrays.setAll(order, i -> i);
+        if (best >= UNREACHABLE) {
+            // No ordering connects every stop; the caller reports it
+            return order;
+        }
+
+        int mask = full;
+        for (int pos = n - 2; pos >= 1; pos--) {
+            order[pos] = last + 1;
+            int previous = parent[mask][last];
+            mask &= ~(1 << last);
+            last = previous;
+        }
+        return order;
+    }
+
+    private static int[] nearestNeighbourTwoOpt(long[][] cost) {
+        int n = cost.length;
+        List<Integer> remaining = new ArrayList<>();
+        for (int i = 1; i < n - 1; i++) {
+            remaining.add(i);
+        }
+
+        int[] order = new int[n];
+        order[0] = 0;
+        order[n - 1] = n - 1;
+        int current = 0;
+        for (int pos = 1; pos < n - 1; pos++) {
+            int bestIndex = 0;
+            for (int i = 1; i < remaining.size(); i++) {
+                if (cost[current][remaining.get(i)] < cost[current][remaining.get(bestIndex)]) {
+                    bestIndex = i;
+                }
+            }
+            current = remaining.remove(bestIndex);
+            order[pos] = current;
+        }
+
+        boolean improved = true;
+        while (improved) {
+            improved = twoOpt(cost, order) | orOpt(cost, order);
+        }
+        return order;
+    }
+
+    //Reverses order[i..j] wherever that shortens the path (costs may be asymmetric, so the segment is re-costed).
+    private static boolean twoOpt(long[][] cost, int[] order) {
+        int n = order.length;
+        boolean improved = false;
+        for (int i = 1; i < n - 2; i++) {
+            for (int j = i + 1; j < n - 1; j++) {
+                long before = pathCost(cost, Arrays.copyOfRange(order, i - 1, j + 2));
+                reverse(order, i, j);
+                long after = pathCost(cost, Arrays.copyOfRange(order, i - 1, j + 2));
+                if (after < before) {
+                    improved = true;
+                } else {
+                    reverse(order, i, j);
+                }
+            }
+        }
+        return improved;
+    }
+
+    //Moves a single stop to another position wherever that shortens the path.
+    private static boolean orOpt(long[][] cost, int[] order) {
+        int n = order.length;
+        boolean improved = false;
+        for (int from = 1; from < n - 1; from++) {
+            long before = pathCost(cost, order);
+            for (int to = 1; to < n - 1; to++) {
+                if (to == from) {
+                    continue;
+                }
+                move(order, from, to);
+                if (pathCost(cost, order) < before) {
+                    improved = true;
+                    break;
+                }
+                move(order, to, from);
+            }
+        }
+        return improved;
+    }
+
+    private static void move(int[] order, int from, int to) {
+        int stop = order[from];
+        if (from < to) {
+            System.arraycopy(order, from + 1, order, from, to - from);
+        } else {
+            System.arraycopy(order, to, order, to + 1, from - to);
+        }
+        order[to] = stop;
+    }
+
+    private static void reverse(int[] order, int from, int to) {
+        while (from < to) {
+            int tmp = order[from];
+            order[from++] = order[to];
+            order[to--] = tmp;
+        }
+    }
+}
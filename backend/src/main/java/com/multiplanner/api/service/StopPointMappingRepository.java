@@ -0,0 +1,65 @@
+package com.multiplanner.api.service;
+
+import com.multiplanner.api.model.Station;
+import com.multiplanner.api.model.StopPointMapping;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for persisted station -> TfL StopPoint mappings (PostgreSQL).
+ */
+@Repository
+public class StopPointMappingRepository {
+
+    private static final String FIND_ALL_SQL =
+            "SELECT name_key, atco_code, stop_point_id FROM stop_point_mappings";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO stop_point_mappings (name_key, atco_code, stop_point_id, resolved_at) " +
+            "VALUES (?, ?, ?, now()) " +
+            "ON CONFLICT (name_key) DO UPDATE SET " +
+            "atco_code = COALESCE(EXCLUDED.atco_code, stop_point_mappings.atco_code), " +
+            "stop_point_id = EXCLUDED.stop_point_id, " +
+            "resolved_at = EXCLUDED.resolved_at";
+
+    // Stations whose name has never been resolved (used by the bulk precompute job)
+    private static final String FIND_UNMAPPED_SQL =
+            "SELECT s.atco_code AS code, s.name " +
+            "FROM stations s " +
+            "LEFT JOIN stop_point_mappings m ON m.name_key = lower(s.name) " +
+            "WHERE m.name_key IS NULL " +
+            "ORDER BY s.name";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StopPointMappingRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<StopPointMapping> findAll() {
+        return jdbcTemplate.query(
+                FIND_ALL_SQL,
+                (rs, rowNum) -> new StopPointMapping(
+                        rs.getString("name_key"),
+                        rs.getString("atco_code"),
+                        rs.getString("stop_point_id")
+                )
+        );
+    }
+
+    public void upsert(StopPointMapping mapping) {
+        jdbcTemplate.update(UPSERT_SQL, mapping.nameKey(), mapping.atcoCode(), mapping.stopPointId());
+    }
+
+    public List<Station> findUnmappedStations() {
+        return jdbcTemplate.query(
+                FIND_UNMAPPED_SQL,
+                (rs, rowNum) -> new Station(
+                        rs.getString("code"),
+                        rs.getString("name")
+                )
+        );
+    }
+}
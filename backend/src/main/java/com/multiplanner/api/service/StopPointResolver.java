@@ -0,0 +1,210 @@
+package com.multiplanner.api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.multiplanner.api.client.RequestPriority;
+import com.multiplanner.api.model.Station;
+import com.multiplanner.api.model.StopPointMapping;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Resolves Stations to TfL StopPoint IDs.
+ *  - answers from an in-memory index of persisted mappings (by name, then by ATCO code)
+ *  - only calls TfL StopPoint/Search on a true miss, and writes a real match back; code fallbacks are never stored
+ *  - can precompute mappings for every station in the background
+ */
+@Service
+public class StopPointResolver {
+
+    private static final Logger log = LoggerFactory.getLogger(StopPointResolver.class);
+
+    private final JourneyCacheService journeyCacheService;
+    private final StopPointMappingRepository mappingRepository;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService routingExecutor;
+    private final boolean precomputeEnabled;
+    private final long precomputeDelayMs;
+
+    private final Map<String, String> byAtcoCode = new ConcurrentHashMap<>();
+    private final Map<String, String> byNameKey = new ConcurrentHashMap<>();
+    private final Map<String, StopPointMapping> mappingByStopPoint = new ConcurrentHashMap<>();
+
+    public StopPointResolver(
+            JourneyCacheService journeyCacheService,
+            StopPointMappingRepository mappingRepository,
+            ObjectMapper objectMapper,
+            @Qualifier("routingExecutor") ExecutorService routingExecutor,
+            @Value("${stop-points.precompute.enabled:false}") boolean precomputeEnabled,
+            @Value("${stop-points.precompute.delay-ms:200}") long precomputeDelayMs
+    ) {
+        this.journeyCacheService = journeyCacheService;
+        this.mappingRepository = mappingRepository;
+        this.objectMapper = objectMapper;
+        this.routingExecutor = routingExecutor;
+        this.precomputeEnabled = precomputeEnabled;
+        this.precomputeDelayMs = precomputeDelayMs;
+    }
+
+    //Loads persisted mappings once the app is up (and optionally starts the precompute job).
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadMappings() {
+        try {
+            List<StopPointMapping> mappings = mappingRepository.findAll();
+            mappings.forEach(this::index);
+            log.info("Loaded {} StopPoint mappings", mappings.size());
+        } catch (DataAccessException e) {
+            // Resolution still works without the table, it just always goes to TfL on first use
+            log.warn("Could not load StopPoint mappings: {}", e.getMessage());
+        }
+
+        if (precomputeEnabled) {
+            routingExecutor.submit(() -> RequestPriority.callAs(RequestPriority.BACKGROUND, this::precompute));
+        }
+    }
+
+    //Resolve a Station into a TfL StopPoint ID.
+    public String resolve(Station station) {
+        if (station == null) {
+            throw new IllegalArgumentException("Station is required");
+        }
+
+        String code = blankToNull(station.getCode());
+        String name = blankToNull(station.getName());
+
+        //  Name first (most reliable), from the local index or TfL search
+        if (name != null) {
+            String id = resolveByName(name, code);
+            if (id != null) {
+                return id;
+            }
+        }
+
+        // No name, or TfL had no match: a StopPoint already known for the code, else the code itself (never persisted)
+        if (code != null) {
+            return byAtcoCode.getOrDefault(code, code);
+        }
+
+        throw new IllegalArgumentException("Station name is required");
+    }
+
+    //The mapping a StopPoint id was resolved from (station name and / or ATCO code), or null if none is known.
+    public StopPointMapping mappingFor(String stopPointId) {
+        return (stopPointId == null) ? null : mappingByStopPoint.get(stopPointId);
+    }
+
+    //Forgets every in-memory mapping (the table is untouched), so the next resolve of each station is a true miss.
+    public void clear() {
+        byAtcoCode.clear();
+        byNameKey.clear();
+        mappingByStopPoint.clear();
+    }
+
+    /**
+     * Resolves every station that has no mapping yet.
+     * Runs sequentially with a pause between TfL searches to stay well inside the app key quota.
+     */
+    public int precompute() {
+        List<Station> stations;
+        try {
+            stations = mappingRepository.findUnmappedStations();
+        } catch (DataAccessException e) {
+            log.warn("StopPoint precompute skipped: {}", e.getMessage());
+            return 0;
+        }
+
+        log.info("Precomputing StopPoint mappings for {} stations", stations.size());
+
+        int resolved = 0;
+        for (Station station : stations) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            try {
+                // Only real TfL matches count; stations falling back to their code are retried next run
+                if (resolveByName(station.getName(), blankToNull(station.getCode())) != null) {
+                    resolved++;
+                }
+                Thread.sleep(precomputeDelayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.debug("Could not resolve {}: {}", station.getName(), e.getMessage());
+            }
+        }
+
+        log.info("Precomputed {} StopPoint mappings", resolved);
+        return resolved;
+    }
+
+    // HELPERS
+    //StopPoint id for a station name: the index, else TfL search (remembered); null if TfL has no match or did not answer.
+    private String resolveByName(String name, String code) {
+        String nameKey = name.toLowerCase();
+        String known = byNameKey.get(nameKey);
+        if (known != null) {
+            return known;
+        }
+
+        String found = searchTfl(name);
+        if (found != null) {
+            remember(new StopPointMapping(nameKey, code, found));
+        }
+        return found;
+    }
+
+    //First StopPoint id TfL matches the name to; null if there were no matches or the search failed.
+    String searchTfl(String name) {
+        try {
+            String json = journeyCacheService.cachedStopPointSearch(name);
+            JsonNode root = objectMapper.readTree(json);
+
+            JsonNode matches = root.get("matches");
+            if (matches != null && matches.isArray() && !matches.isEmpty()) {
+                JsonNode id = matches.get(0).get("id");
+                if (id != null && !id.asText().isBlank()) {
+                    return id.asText();
+                }
+            }
+            return null;
+        } catch (Exception e) {
+            // If search fails, the caller falls back to the station code
+            return null;
+        }
+    }
+
+    private void remember(StopPointMapping mapping) {
+        index(mapping);
+        try {
+            mappingRepository.upsert(mapping);
+        } catch (DataAccessException e) {
+            log.warn("Could not persist StopPoint mapping for {}: {}", mapping.nameKey(), e.getMessage());
+        }
+    }
+
+    private void index(StopPointMapping mapping) {
+        if (mapping.nameKey() != null) {
+            byNameKey.put(mapping.nameKey(), mapping.stopPointId());
+        }
+        if (mapping.atcoCode() != null) {
+            byAtcoCode.put(mapping.atcoCode(), mapping.stopPointId());
+        }
+        mappingByStopPoint.put(mapping.stopPointId(), mapping);
+    }
+
+    private static String blankToNull(String s) {
+        return (s == null || s.isBlank()) ? null : s;
+    }
+}
@@ -0,0 +1,48 @@
+package com.multiplanner.api.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 5-minute time buckets used in journey cache keys.
+ * - Every leg of one request shares the same bucket so cache keys stay consistent
+ * - Cache tiers use the bucket boundaries to line up their expiry
+ */
+public final class TimeBuckets {
+
+    public static final Duration BUCKET = Duration.ofMinutes(5);
+
+    private static final long BUCKET_SECONDS = BUCKET.getSeconds();
+
+    private static final DateTimeFormatter KEY_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm'Z'").withZone(ZoneOffset.UTC);
+
+    private TimeBuckets() {
+    }
+
+    // Round "now" to a 5-minute bucket for cache keys.
+    public static String roundNowTo5MinKey() {
+        return key(Instant.now());
+    }
+
+    //Cache key of the bucket containing the given instant (e.g. 2024-01-01T09:05Z).
+    public static String key(Instant instant) {
+        return KEY_FORMAT.format(bucketStart(instant));
+    }
+
+    public static Instant bucketStart(Instant instant) {
+        long seconds = instant.getEpochSecond();
+        return Instant.ofEpochSecond(seconds - Math.floorMod(seconds, BUCKET_SECONDS));
+    }
+
+    public static Instant nextBucketStart(Instant instant) {
+        return bucketStart(instant).plus(BUCKET);
+    }
+
+    //Parses a bucket key back into the bucket start instant.
+    public static Instant parseKey(String key) {
+        return KEY_FORMAT.parse(key, Instant::from);
+    }
+}
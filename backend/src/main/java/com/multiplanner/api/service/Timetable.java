@@ -0,0 +1,149 @@
+package com.multiplanner.api.service;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Immutable in-memory timetable in the flat primitive-array layout RAPTOR scans (built by {@link GtfsTimetableLoader}).
+ * - Stations: GTFS platforms are merged into their parent station; ids are the station's ATCO code, and every
+ *   GTFS stop id (station or platform) maps to its station
+ * - Routes: RAPTOR routes (trip patterns), i.e. trips of one line that call at exactly the same stations in order,
+ *   none of which overtakes another
+ * - Times: seconds after midnight of the service day (may exceed 24h for trips running past midnight),
+ *   stored per route as [trip][position], trips sorted by departure from the first station
+ * - Footpaths: walking links between nearby stations (seconds), from transfers.txt and station coordinates
+ * - Services: GTFS calendar (weekday mask + date range) plus calendar_dates exceptions
+ */
+final class Timetable {
+
+    // Stations
+    final String[] stationIds;
+    final String[] stationNames;
+    final Map<String, Integer> stationByStopId;
+    final int[] stationRoutesOffset; // station s -> [offset[s], offset[s + 1]) in stationRoutes / stationRoutePositions
+    final int[] stationRoutes;
+    final int[] stationRoutePositions;
+    final int[] footOffset; // station s -> [offset[s], offset[s + 1]) in footTargets / footSeconds
+    final int[] footTargets;
+    final int[] footSeconds;
+
+    // Routes
+    final int[] routeStopsOffset; // route r -> [offset[r], offset[r + 1]) in routeStops
+    final int[] routeStops;
+    final int[] routeTripOffset; // route r -> trips [offset[r], offset[r + 1]) (global trip index)
+    final int[] routeTimesOffset; // route r -> first index of its [trip][position] block in arrivals / departures
+    final int[] arrivals;
+    final int[] departures;
+    final String[] routeModes; // TfL mode ids (tube, dlr, overground, national-rail, elizabeth-line, bus, tram, ...)
+    final String[] routeLines;
+
+    // Trips
+    final int[] tripServices;
+    final String[] tripHeadsigns;
+
+    // Services
+    final byte[] serviceWeekdays; // bit 0 = Monday ... bit 6 = Sunday
+    final int[] serviceStartDays; // epoch day, inclusive
+    final int[] serviceEndDays; // epoch day, inclusive
+    final Map<Long, Boolean> serviceExceptions; // (service << 32 | epochDay) -> added (true) / removed (false)
+
+    final int latestDeparture; // seconds, over every trip; past 24h when some service runs beyond midnight
+
+    Timetable(
+            String[] stationIds,
+            String[] stationNames,
+            Map<String, Integer> stationByStopId,
+            int[] stationRoutesOffset,
+            int[] stationRoutes,
+            int[] stationRoutePositions,
+            int[] footOffset,
+            int[] footTargets,
+            int[] footSeconds,
+            int[] routeStopsOffset,
+            int[] routeStops,
+            int[] routeTripOffset,
+            int[] routeTimesOffset,
+            int[] arrivals,
+            int[] departures,
+            String[] routeModes,
+            String[] routeLines,
+            int[] tripServices,
+            String[] tripHeadsigns,
+            byte[] serviceWeekdays,
+            int[] serviceStartDays,
+            int[] serviceEndDays,
+            Map<Long, Boolean> serviceExceptions
+    ) {
+        this.stationIds = stationIds;
+        this.stationNames = stationNames;
+        this.stationByStopId = stationByStopId;
+        this.stationRoutesOffset = stationRoutesOffset;
+        this.stationRoutes = stationRoutes;
+        this.stationRoutePositions = stationRoutePositions;
+        this.footOffset = footOffset;
+        this.footTargets = footTargets;
+        this.footSeconds = footSeconds;
+        this.routeStopsOffset = routeStopsOffset;
+        this.routeStops = routeStops;
+        this.routeTripOffset = routeTripOffset;
+        this.routeTimesOffset = routeTimesOffset;
+        this.arrivals = arrivals;
+        this.departures = departures;
+        this.routeModes = routeModes;
+        this.routeLines = routeLines;
+        this.tripServices = tripServices;
+        this.tripHeadsigns = tripHeadsigns;
+        this.serviceWeekdays = serviceWeekdays;
+        this.serviceStartDays = serviceStartDays;
+        this.serviceEndDays = serviceEndDays;
+        this.serviceExceptions = serviceExceptions;
+
+        int latest = 0;
+        for (int departure : departures) {
+            latest = Math.max(latest, departure);
+        }
+        this.latestDeparture = latest;
+    }
+
+    int stationCount() {
+        return stationIds.length;
+    }
+
+    int routeCount() {
+        return routeStopsOffset.length - 1;
+    }
+
+    int tripCount() {
+        return tripServices.length;
+    }
+
+    int routeLength(int route) {
+        return routeStopsOffset[route + 1] - routeStopsOffset[route];
+    }
+
+    int routeTrips(int route) {
+        return routeTripOffset[route + 1] - routeTripOffset[route];
+    }
+
+    //Index into arrivals / departures for a trip (0-based within its route) at a position along the route.
+    int timeIndex(int route, int trip, int position) {
+        return routeTimesOffset[route] + trip * routeLength(route) + position;
+    }
+
+    //Which services run on the date, indexed by service.
+    boolean[] activeServices(LocalDate date) {
+        int day = (int) date.toEpochDay();
+        int weekdayBit = 1 << (date.getDayOfWeek().getValue() - 1);
+
+        boolean[] active = new boolean[serviceWeekdays.length];
+        for (int s = 0; s < active.length; s++) {
+            Boolean exception = serviceExceptions.get(((long) s << 32) | (day & 0xFFFFFFFFL));
+            if (exception != null) {
+                active[s] = exception;
+            } else {
+                active[s] = (serviceWeekdays[s] & weekdayBit) != 0 && day >= serviceStartDays[s] && day <= serviceEndDays[s];
+            }
+        }
+        return active;
+    }
+}
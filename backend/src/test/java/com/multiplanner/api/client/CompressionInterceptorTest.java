@@ -0,0 +1,95 @@
+package com.multiplanner.api.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * CompressionInterceptor against canned responses.
+ * - asks for gzip/deflate and decodes either, dropping the encoding and length headers
+ * - an empty body that still claims an encoding (204, HEAD) reads as empty instead of failing
+ * - unencoded responses are passed through untouched
+ */
+class CompressionInterceptorTest {
+
+    private static final String JSON = "{\"journeys\":[{\"duration\":18}]}";
+
+    private final CompressionInterceptor interceptor = new CompressionInterceptor();
+
+    @Test
+    void decodesGzipAndDeflate() throws IOException {
+        assertThat(read(exchange(response(gzip(JSON), "gzip", HttpStatus.OK)))).isEqualTo(JSON);
+        assertThat(read(exchange(response(deflate(JSON), "deflate", HttpStatus.OK)))).isEqualTo(JSON);
+
+        ClientHttpResponse decoded = exchange(response(gzip(JSON), "x-gzip", HttpStatus.OK));
+        assertThat(read(decoded)).isEqualTo(JSON);
+        assertThat(decoded.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(decoded.getHeaders().containsKey(HttpHeaders.CONTENT_LENGTH)).isFalse();
+    }
+
+    @Test
+    void emptyEncodedBodyReadsAsEmpty() throws IOException {
+        assertThat(read(exchange(response(new byte[0], "gzip", HttpStatus.NO_CONTENT)))).isEmpty();
+        assertThat(read(exchange(response(new byte[0], "deflate", HttpStatus.OK)))).isEmpty();
+    }
+
+    @Test
+    void asksForCompressionAndPassesPlainResponsesThrough() throws IOException {
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("https://api.tfl.gov.uk/StopPoint/Search"));
+        MockClientHttpResponse plain = response(JSON.getBytes(StandardCharsets.UTF_8), null, HttpStatus.OK);
+
+        ClientHttpResponse result = interceptor.intercept(request, new byte[0], (req, body) -> plain);
+
+        assertThat(request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING)).isEqualTo("gzip, deflate");
+        assertThat(result).isSameAs(plain);
+    }
+
+    // HELPERS
+    private ClientHttpResponse exchange(MockClientHttpResponse response) throws IOException {
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("https://api.tfl.gov.uk/Journey"));
+        return interceptor.intercept(request, new byte[0], (req, body) -> response);
+    }
+
+    private static MockClientHttpResponse response(byte[] body, String encoding, HttpStatus status) {
+        MockClientHttpResponse response = new MockClientHttpResponse(body, status);
+        if (encoding != null) {
+            response.getHeaders().set(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+        response.getHeaders().setContentLength(body.length);
+        return response;
+    }
+
+    private static String read(ClientHttpResponse response) throws IOException {
+        return new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream zip = new GZIPOutputStream(out)) {
+            zip.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] deflate(String text) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream zip = new DeflaterOutputStream(out)) {
+            zip.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+}
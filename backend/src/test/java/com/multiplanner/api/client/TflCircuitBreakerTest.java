@@ -0,0 +1,152 @@
+package com.multiplanner.api.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static com.multiplanner.api.client.TflCircuitBreaker.State.CLOSED;
+import static com.multiplanner.api.client.TflCircuitBreaker.State.HALF_OPEN;
+import static com.multiplanner.api.client.TflCircuitBreaker.State.OPEN;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * TflCircuitBreaker with a hand-driven clock.
+ * Window of 10 calls, at least 4 before it can trip, 50% failures or 80% slow calls (1 s and over) trip it,
+ * open for 30 s, then 2 probes.
+ * - CLOSED -> OPEN on the failure rate and on the slow-call rate, never below the minimum number of calls
+ * - OPEN rejects until the open duration has passed, then HALF_OPEN lets only the probes through
+ * - healthy probes close it, a failed or slow probe re-opens it
+ * - release() gives the slot back without counting a call
+ */
+class TflCircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(1500);
+
+    private final AtomicLong now = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final TflCircuitBreaker breaker = new TflCircuitBreaker(10, 4, 0.5, 0.8, 1000, 30_000, 2, registry, now::get);
+
+    @Test
+    void failureRateOpensOnlyOnceTheMinimumCallsAreRecorded() {
+        failures(3);
+        assertThat(breaker.state()).isEqualTo(CLOSED);
+
+        //3 of 4 failed
+        successes(1, FAST);
+        assertThat(breaker.state()).isEqualTo(OPEN);
+    }
+
+    @Test
+    void healthyTrafficKeepsItClosed() {
+        successes(6, FAST);
+        failures(4);
+
+        //4 of 10 failed
+        assertThat(breaker.state()).isEqualTo(CLOSED);
+    }
+
+    @Test
+    void slowCallRateOpensEvenWhenCallsSucceed() {
+        successes(3, SLOW);
+        assertThat(breaker.state()).isEqualTo(CLOSED);
+
+        successes(1, SLOW);
+        assertThat(breaker.state()).isEqualTo(OPEN);
+    }
+
+    @Test
+    void openRejectsUntilTheOpenDurationHasPassed() {
+        failures(4);
+
+        assertThatThrownBy(breaker::acquirePermission)
+                .isInstanceOf(TflUnavailableException.class)
+                .hasMessageContaining("circuit open");
+        assertThat(breaker.isOpen()).isTrue();
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(29));
+        assertThatThrownBy(breaker::acquirePermission).isInstanceOf(TflUnavailableException.class);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        breaker.acquirePermission();
+        assertThat(breaker.state()).isEqualTo(HALF_OPEN);
+        assertThat(registry.counter("tfl.circuit.rejections").count()).isEqualTo(2);
+    }
+
+    @Test
+    void halfOpenLetsOnlyTheProbesThroughAndClosesWhenTheyAreHealthy() {
+        toHalfOpen();
+
+        assertThatThrownBy(breaker::acquirePermission)
+                .isInstanceOf(TflUnavailableException.class)
+                .hasMessageContaining("circuit half-open");
+
+        breaker.onSuccess(FAST);
+        breaker.onSuccess(FAST);
+        assertThat(breaker.state()).isEqualTo(CLOSED);
+    }
+
+    @Test
+    void failedOrSlowProbeReopens() {
+        toHalfOpen();
+        breaker.onError(FAST);
+        assertThat(breaker.state()).isEqualTo(OPEN);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        toHalfOpen();
+        breaker.onSuccess(SLOW);
+        assertThat(breaker.state()).isEqualTo(OPEN);
+    }
+
+    @Test
+    void releaseFreesTheSlotWithoutCountingACall() {
+        toHalfOpen();
+
+        //A released probe does not use up the probe limit
+        breaker.release();
+        breaker.acquirePermission();
+        assertThat(breaker.state()).isEqualTo(HALF_OPEN);
+
+        breaker.onSuccess(FAST);
+        breaker.onSuccess(FAST);
+        assertThat(breaker.state()).isEqualTo(CLOSED);
+
+        //Released calls are not recorded: had they counted as successes, 4 failures in 10 would not trip it
+        for (int i = 0; i < 6; i++) {
+            breaker.acquirePermission();
+            breaker.release();
+        }
+        failures(4);
+        assertThat(breaker.state()).isEqualTo(OPEN);
+    }
+
+    // HELPERS
+    //Opens the breaker, waits out the open duration and takes both probe slots.
+    private void toHalfOpen() {
+        if (breaker.state() != OPEN) {
+            failures(4);
+        }
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        breaker.acquirePermission();
+        breaker.acquirePermission();
+        assertThat(breaker.state()).isEqualTo(HALF_OPEN);
+    }
+
+    private void failures(int count) {
+        for (int i = 0; i < count; i++) {
+            breaker.acquirePermission();
+            breaker.onError(FAST);
+        }
+    }
+
+    private void successes(int count, long durationNanos) {
+        for (int i = 0; i < count; i++) {
+            breaker.acquirePermission();
+            breaker.onSuccess(durationNanos);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.multiplanner.api.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.anything;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withBadRequest;
+
+/**
+ * TflClient against a mocked TfL, checking what each outcome does to the circuit breaker and metrics.
+ * - an interrupted call is our own cancellation: breaker slot released uncounted, no IO_ERROR recorded
+ * - I/O errors count against the breaker and surface as 503
+ * - a TfL 4xx rejects our input (400) but leaves the breaker closed
+ */
+class TflClientTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final RestClient.Builder builder = RestClient.builder();
+    private final MockRestServiceServer server = MockRestServiceServer.bindTo(builder).build();
+    //One counted failure would open it
+    private final TflCircuitBreaker breaker = new TflCircuitBreaker(4, 1, 0.5, 1.0, 4000, 30000, 1, registry);
+    private final TflClient client = new TflClient(
+            "http://tfl.test", "key", builder.build(), executor,
+            new TflGate(6000, 20, 4, 10, 2000, 30000, registry), breaker, registry
+    );
+
+    @AfterEach
+    void tearDown() {
+        Thread.interrupted();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void interruptedCallIsACancellationNotAnOutage() {
+        //What JdkClientHttpRequest does when the calling thread is interrupted
+        server.expect(anything()).andRespond(request -> {
+            Thread.currentThread().interrupt();
+            throw new IOException("Request was interrupted", new InterruptedException());
+        });
+
+        assertThatThrownBy(() -> client.searchStopPoints("kings cross"))
+                .isInstanceOf(CancellationException.class);
+
+        assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        assertThat(breaker.state()).isEqualTo(TflCircuitBreaker.State.CLOSED);
+        assertThat(registry.find("tfl.requests").tag("status", "IO_ERROR").timer()).isNull();
+    }
+
+    @Test
+    void rejectedInputLeavesTheBreakerClosed() {
+        server.expect(anything()).andRespond(withBadRequest());
+
+        assertThatThrownBy(() -> client.searchStopPoints("kings cross"))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(breaker.state()).isEqualTo(TflCircuitBreaker.State.CLOSED);
+        assertThat(registry.find("tfl.requests").tag("status", "400").timer()).isNotNull();
+    }
+
+    @Test
+    void ioErrorCountsAgainstTheBreaker() {
+        server.expect(anything()).andRespond(request -> {
+            throw new IOException("Connection reset");
+        });
+
+        assertThatThrownBy(() -> client.searchStopPoints("kings cross"))
+                .isInstanceOf(TflUnavailableException.class);
+
+        assertThat(breaker.state()).isEqualTo(TflCircuitBreaker.State.OPEN);
+        assertThat(registry.find("tfl.requests").tag("status", "IO_ERROR").timer()).isNotNull();
+    }
+}
@@ -0,0 +1,158 @@
+package com.multiplanner.api.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * TflGate with a hand-driven clock, so refills and deadlines only move when the test says so.
+ * - the token bucket allows a burst, then one call per refill interval
+ * - the bulkhead admits at most maxConcurrent calls; a freed slot goes to the head of the queue
+ * - queued INTERACTIVE callers are admitted before BACKGROUND ones that arrived first
+ * - each priority gives up after its own max wait
+ * - a full queue rejects at once
+ */
+class TflGateTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void tokenBucketRefillsAtTheConfiguredRate() {
+        //One request per second, burst of 2, no waiting
+        TflGate gate = gate(60, 2, 10, 10, 0, 0);
+
+        gate.acquire(RequestPriority.INTERACTIVE).close();
+        gate.acquire(RequestPriority.INTERACTIVE).close();
+        assertThatThrownBy(() -> gate.acquire(RequestPriority.INTERACTIVE))
+                .isInstanceOf(TflUnavailableException.class)
+                .hasMessageContaining("timed out waiting for capacity");
+
+        now.addAndGet(SECOND / 2);
+        assertThatThrownBy(() -> gate.acquire(RequestPriority.INTERACTIVE)).isInstanceOf(TflUnavailableException.class);
+
+        now.addAndGet(SECOND / 2);
+        gate.acquire(RequestPriority.INTERACTIVE).close();
+
+        //Idle time refills up to the burst, not beyond
+        now.addAndGet(10 * SECOND);
+        gate.acquire(RequestPriority.INTERACTIVE).close();
+        gate.acquire(RequestPriority.INTERACTIVE).close();
+        assertThatThrownBy(() -> gate.acquire(RequestPriority.INTERACTIVE)).isInstanceOf(TflUnavailableException.class);
+    }
+
+    @Test
+    void bulkheadCapsCallsInFlight() {
+        TflGate gate = gate(6000, 100, 2, 10, 0, 0);
+
+        TflGate.Permit first = gate.acquire(RequestPriority.INTERACTIVE);
+        TflGate.Permit second = gate.acquire(RequestPriority.INTERACTIVE);
+        assertThat(gate.inFlight()).isEqualTo(2);
+        assertThatThrownBy(() -> gate.acquire(RequestPriority.INTERACTIVE)).isInstanceOf(TflUnavailableException.class);
+
+        first.close();
+        gate.acquire(RequestPriority.INTERACTIVE).close();
+        second.close();
+        assertThat(gate.inFlight()).isZero();
+        assertThat(registry.counter("tfl.gate.rejections", "reason", "timeout").count()).isEqualTo(1);
+    }
+
+    @Test
+    void interactiveWaitersAreAdmittedBeforeBackground() throws Exception {
+        TflGate gate = gate(6000, 100, 1, 10, 5000, 5000);
+        List<RequestPriority> admitted = new CopyOnWriteArrayList<>();
+
+        TflGate.Permit held = gate.acquire(RequestPriority.INTERACTIVE);
+        FutureTask<Void> background = start(() -> {
+            gate.acquire(RequestPriority.BACKGROUND).close();
+            admitted.add(RequestPriority.BACKGROUND);
+        });
+        awaitQueueDepth(gate::queueDepth, 1);
+        FutureTask<Void> interactive = start(() -> {
+            try (TflGate.Permit permit = gate.acquire(RequestPriority.INTERACTIVE)) {
+                //Still holding the only slot, so background cannot overtake
+                admitted.add(RequestPriority.INTERACTIVE);
+            }
+        });
+        awaitQueueDepth(gate::queueDepth, 2);
+
+        held.close();
+        interactive.get(5, TimeUnit.SECONDS);
+        background.get(5, TimeUnit.SECONDS);
+
+        assertThat(admitted).containsExactly(RequestPriority.INTERACTIVE, RequestPriority.BACKGROUND);
+    }
+
+    @Test
+    void eachPriorityGivesUpAfterItsOwnMaxWait() throws Exception {
+        TflGate gate = gate(6000, 100, 1, 10, 200, 10_000);
+
+        TflGate.Permit held = gate.acquire(RequestPriority.INTERACTIVE);
+        FutureTask<Void> background = start(() -> gate.acquire(RequestPriority.BACKGROUND).close());
+        awaitQueueDepth(gate::queueDepth, 1);
+        FutureTask<Void> interactive = start(() -> gate.acquire(RequestPriority.INTERACTIVE).close());
+        awaitQueueDepth(gate::queueDepth, 2);
+
+        //Past the interactive limit, well within the background one
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(300));
+
+        assertThatThrownBy(() -> interactive.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(TflUnavailableException.class)
+                .hasMessageContaining("timed out waiting for capacity");
+        assertThat(gate.queueDepth()).isEqualTo(1);
+
+        held.close();
+        background.get(5, TimeUnit.SECONDS);
+        assertThat(gate.queueDepth()).isZero();
+    }
+
+    @Test
+    void fullQueueRejectsAtOnce() throws Exception {
+        TflGate gate = gate(6000, 100, 1, 1, 5000, 5000);
+
+        TflGate.Permit held = gate.acquire(RequestPriority.INTERACTIVE);
+        FutureTask<Void> queued = start(() -> gate.acquire(RequestPriority.INTERACTIVE).close());
+        awaitQueueDepth(gate::queueDepth, 1);
+
+        assertThatThrownBy(() -> gate.acquire(RequestPriority.INTERACTIVE))
+                .isInstanceOf(TflUnavailableException.class)
+                .hasMessageContaining("request queue full");
+        assertThat(registry.counter("tfl.gate.rejections", "reason", "queue_full").count()).isEqualTo(1);
+
+        held.close();
+        queued.get(5, TimeUnit.SECONDS);
+    }
+
+    // HELPERS
+    private TflGate gate(int requestsPerMinute, int burst, int maxConcurrent, int maxQueue,
+                         long interactiveMaxWaitMs, long backgroundMaxWaitMs) {
+        return new TflGate(requestsPerMinute, burst, maxConcurrent, maxQueue, interactiveMaxWaitMs, backgroundMaxWaitMs,
+                registry, now::get);
+    }
+
+    private static FutureTask<Void> start(Runnable call) {
+        FutureTask<Void> task = new FutureTask<>(call, null);
+        new Thread(task).start();
+        return task;
+    }
+
+    private static void awaitQueueDepth(IntSupplier queueDepth, int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + 5 * SECOND;
+        while (queueDepth.getAsInt() < depth && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(queueDepth.getAsInt()).isEqualTo(depth);
+    }
+}
@@ -0,0 +1,146 @@
+package com.multiplanner.api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.multiplanner.api.model.ItineraryResponse;
+import com.multiplanner.api.model.JourneyCandidates;
+import com.multiplanner.api.model.JourneyLeg;
+import com.multiplanner.api.model.JourneyOption;
+import com.multiplanner.api.model.JourneyResults;
+import com.multiplanner.api.model.JourneySnapshot;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * CacheValueCodec round trips and wire format (compress-min-bytes 512, as in application.yml).
+ * - every cached value type comes back equal; anything else (e.g. NullValue) goes through JDK serialization
+ * - entries written before the codec (JDK-serialized) are still read
+ * - Smile payloads below 512 bytes are stored as is, from 512 bytes on they are zstd-compressed
+ * - type ids are persisted in Redis, so they are pinned here: changing one breaks every stored entry
+ */
+class CacheValueCodecTest {
+
+    private static final byte MAGIC = (byte) 0xC5;
+    private static final int COMPRESS_MIN_BYTES = 512;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper smileMapper = objectMapper.copyWith(new SmileFactory());
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CacheValueCodec codec = new CacheValueCodec("journeys", objectMapper, COMPRESS_MIN_BYTES, 3, registry);
+
+    @Test
+    void cachedTypesRoundTrip() {
+        assertThat(roundTrip("940GZZLUKSX")).isEqualTo("940GZZLUKSX");
+        assertThat(roundTrip(snapshot())).isEqualTo(snapshot());
+        assertThat(roundTrip(candidates())).isEqualTo(candidates());
+        assertThat(roundTrip(itinerary())).usingRecursiveComparison().isEqualTo(itinerary());
+    }
+
+    @Test
+    void otherTypesUseJdkSerialization() {
+        byte[] bytes = codec.serialize(NullValue.INSTANCE);
+
+        assertThat(bytes[0]).isNotEqualTo(MAGIC);
+        assertThat(codec.deserialize(bytes)).isSameAs(NullValue.INSTANCE);
+        assertThat(codec.serialize(null)).isNull();
+        assertThat(codec.deserialize(null)).isNull();
+    }
+
+    @Test
+    void readsEntriesWrittenBeforeTheCodec() {
+        byte[] legacy = new JdkSerializationRedisSerializer().serialize(snapshot());
+
+        assertThat(codec.deserialize(legacy)).isEqualTo(snapshot());
+        assertThat(registry.counter("cache.codec.legacy.reads", "cache", "journeys").count()).isEqualTo(1);
+    }
+
+    @Test
+    void compressesFromTheThresholdOn() throws Exception {
+        String below = stringWithSmileSize(COMPRESS_MIN_BYTES - 1);
+        String at = stringWithSmileSize(COMPRESS_MIN_BYTES);
+        String above = stringWithSmileSize(COMPRESS_MIN_BYTES + 1);
+
+        byte[] plain = codec.serialize(below);
+        assertThat(plain[1]).isZero();
+        assertThat(plain).hasSize(3 + COMPRESS_MIN_BYTES - 1);
+        assertThat(codec.deserialize(plain)).isEqualTo(below);
+
+        for (String value : List.of(at, above)) {
+            byte[] compressed = codec.serialize(value);
+            assertThat(compressed[1]).isEqualTo((byte) 0x01);
+            assertThat(compressed.length).isLessThan(COMPRESS_MIN_BYTES);
+            assertThat(codec.deserialize(compressed)).isEqualTo(value);
+        }
+
+        assertThat(registry.find("cache.value.size").tag("form", "raw").summary().totalAmount())
+                .isEqualTo(3.0 * COMPRESS_MIN_BYTES);
+    }
+
+    @Test
+    void typeIdsArePinned() throws Exception {
+        assertThat(codec.serialize("940GZZLUKSX")[2]).isEqualTo((byte) 0);
+        assertThat(codec.serialize(snapshot())[2]).isEqualTo((byte) 1);
+        assertThat(codec.serialize(itinerary())[2]).isEqualTo((byte) 2);
+        assertThat(codec.serialize(candidates())[2]).isEqualTo((byte) 3);
+
+        //An entry as written today decodes as the same type later
+        assertThat(codec.deserialize(frame(1, smileMapper.writeValueAsBytes(snapshot())))).isEqualTo(snapshot());
+        assertThat(codec.deserialize(frame(3, smileMapper.writeValueAsBytes(candidates())))).isEqualTo(candidates());
+    }
+
+    @Test
+    void unknownTypeIdIsRejected() {
+        assertThatThrownBy(() -> codec.deserialize(new byte[] {MAGIC, 0, 42}))
+                .isInstanceOf(SerializationException.class)
+                .hasMessage("Unknown cache value header");
+    }
+
+    // HELPERS
+    private Object roundTrip(Object value) {
+        byte[] bytes = codec.serialize(value);
+        assertThat(bytes[0]).isEqualTo(MAGIC);
+        return codec.deserialize(bytes);
+    }
+
+    private static JourneySnapshot snapshot() {
+        return new JourneySnapshot("{\"journeys\":[]}", 1_792_224_000_000L, true);
+    }
+
+    private static JourneyCandidates candidates() {
+        JourneyOption option = new JourneyOption(46, "2026-10-17T08:00:00", "2026-10-17T08:46:00", List.of(
+                new JourneyLeg("walking", null, "Walk to Oxford Circus", "Oxford Circus", null, 4),
+                new JourneyLeg("tube", "Victoria", "Victoria line towards Brixton", "Oxford Circus", "Victoria", 42)
+        ));
+        return new JourneyCandidates(new JourneyResults(List.of(option), null), 1_792_224_000_000L, false, false, true);
+    }
+
+    private static ItineraryResponse itinerary() {
+        return new ItineraryResponse("{\"legs\":[]}".getBytes(StandardCharsets.UTF_8), "\"0123456789abcdef0123456789abcdef\"");
+    }
+
+    private String stringWithSmileSize(int size) throws Exception {
+        int overhead = smileMapper.writeValueAsBytes("x".repeat(size)).length - size;
+        String value = "x".repeat(size - overhead);
+        assertThat(smileMapper.writeValueAsBytes(value)).hasSize(size);
+        return value;
+    }
+
+    private static byte[] frame(int typeId, byte[] smile) {
+        byte[] bytes = new byte[3 + smile.length];
+        bytes[0] = MAGIC;
+        bytes[2] = (byte) typeId;
+        System.arraycopy(smile, 0, bytes, 3, smile.length);
+        return bytes;
+    }
+}
@@ -0,0 +1,118 @@
+package com.multiplanner.api.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * SingleFlight with real threads; each test parks the leader until its waiters have joined.
+ * - concurrent callers for a key share one load and its result
+ * - a genuine loader failure is shared as is
+ * - the entry is removed once the load completes, so the next call loads again
+ * - a cancelled (interrupted) leader shares nothing: a waiter retries and loads itself
+ */
+class SingleFlightTest {
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<Object> loader = () -> {
+            loads.incrementAndGet();
+            release.await();
+            return "940GZZLUKSX";
+        };
+
+        List<FutureTask<Object>> callers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            callers.add(startAndPark(() -> singleFlight.execute("KSX", loader)));
+        }
+        release.countDown();
+
+        for (FutureTask<Object> caller : callers) {
+            assertThat(caller.get(5, TimeUnit.SECONDS)).isEqualTo("940GZZLUKSX");
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void genuineFailureIsShared() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("TfL returned 500");
+        Callable<Object> loader = () -> {
+            loads.incrementAndGet();
+            release.await();
+            throw failure;
+        };
+
+        FutureTask<Object> leader = startAndPark(() -> singleFlight.execute("KSX", loader));
+        FutureTask<Object> waiter = startAndPark(() -> singleFlight.execute("KSX", loader));
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class).hasCause(failure);
+        assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class).hasCause(failure);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void entryIsRemovedOnceTheLoadCompletes() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(singleFlight.execute("KSX", () -> "first-" + loads.incrementAndGet())).isEqualTo("first-1");
+        assertThat(singleFlight.size()).isZero();
+
+        assertThatThrownBy(() -> singleFlight.execute("KSX", () -> {
+            loads.incrementAndGet();
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(singleFlight.size()).isZero();
+
+        assertThat(singleFlight.execute("KSX", () -> "third-" + loads.incrementAndGet())).isEqualTo("third-3");
+    }
+
+    @Test
+    void waiterRetriesWhenTheLeaderIsCancelled() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        FutureTask<Object> leader = new FutureTask<>(() -> singleFlight.execute("KSX", () -> {
+            leaderStarted.countDown();
+            new CountDownLatch(1).await();
+            return "never";
+        }));
+        Thread leaderThread = new Thread(leader);
+        leaderThread.start();
+        leaderStarted.await();
+
+        FutureTask<Object> waiter = startAndPark(() -> singleFlight.execute("KSX", () -> "940GZZLUKSX"));
+        leaderThread.interrupt();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(InterruptedException.class);
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isEqualTo("940GZZLUKSX");
+        assertThat(singleFlight.size()).isZero();
+    }
+
+    // HELPERS
+    //Starts the call on its own thread and returns once that thread is blocked (loading or waiting for the leader).
+    private static FutureTask<Object> startAndPark(Callable<Object> call) throws InterruptedException {
+        FutureTask<Object> task = new FutureTask<>(call);
+        Thread thread = new Thread(task);
+        thread.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        return task;
+    }
+}
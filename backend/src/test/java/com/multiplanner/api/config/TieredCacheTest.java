@@ -0,0 +1,86 @@
+package com.multiplanner.api.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * TieredCache loads with an in-memory L2 and a mocked cross-pod lease.
+ * - a loaded value lands in both tiers and the lease is released
+ * - a failed load puts nothing, surfaces as ValueRetrievalException and still releases the lease
+ * - an interrupted load releases the lease too (other pods would otherwise wait out its TTL)
+ * - a value another pod wrote while we waited for its lease is read, not loaded again
+ */
+class TieredCacheTest {
+
+    private static final String LEASE_KEY = "lease:journeys::KSX";
+
+    private final ConcurrentMapCache remote = new ConcurrentMapCache("journeys");
+    private final RedisLease lease = mock(RedisLease.class);
+    private final TieredCache cache = new TieredCache("journeys", Caffeine.newBuilder().<Object, Cache.ValueWrapper>build(), remote, lease, null);
+
+    @Test
+    void loadedValueIsStoredInBothTiersAndTheLeaseReleased() {
+        when(lease.tryAcquire(LEASE_KEY)).thenReturn("token");
+
+        assertThat(cache.get("KSX", () -> "940GZZLUKSX")).isEqualTo("940GZZLUKSX");
+
+        assertThat(remote.get("KSX", String.class)).isEqualTo("940GZZLUKSX");
+        assertThat(cache.getNearCache().getIfPresent("KSX")).isNotNull();
+        verify(lease).release(LEASE_KEY, "token");
+        assertThat(cache.getSingleFlight().size()).isZero();
+    }
+
+    @Test
+    void failedLoadReleasesTheLease() {
+        when(lease.tryAcquire(LEASE_KEY)).thenReturn("token");
+
+        assertThatThrownBy(() -> cache.get("KSX", () -> {
+            throw new IllegalStateException("TfL returned 500");
+        })).isInstanceOf(Cache.ValueRetrievalException.class).hasRootCauseMessage("TfL returned 500");
+
+        assertThat(remote.get("KSX")).isNull();
+        verify(lease).release(LEASE_KEY, "token");
+        assertThat(cache.getSingleFlight().size()).isZero();
+    }
+
+    @Test
+    void interruptedLoadReleasesTheLease() {
+        when(lease.tryAcquire(LEASE_KEY)).thenReturn("token");
+
+        try {
+            assertThatThrownBy(() -> cache.get("KSX", () -> {
+                Thread.currentThread().interrupt();
+                throw new InterruptedException();
+            })).isInstanceOf(Cache.ValueRetrievalException.class);
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        } finally {
+            Thread.interrupted();
+        }
+        verify(lease).release(LEASE_KEY, "token");
+    }
+
+    @Test
+    void valueWrittenByTheLeaseHolderIsReadNotLoaded() throws Exception {
+        //Another pod holds the lease and writes the value before releasing it
+        when(lease.tryAcquire(anyString())).thenReturn(null);
+        doAnswer(invocation -> {
+            remote.put("KSX", "940GZZLUKSX");
+            return null;
+        }).when(lease).awaitRelease(LEASE_KEY);
+
+        assertThat(cache.get("KSX", () -> "loaded here")).isEqualTo("940GZZLUKSX");
+        verify(lease, never()).release(anyString(), anyString());
+    }
+}
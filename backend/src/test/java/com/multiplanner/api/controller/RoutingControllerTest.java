@@ -0,0 +1,139 @@
+package com.multiplanner.api.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.multiplanner.api.model.JourneyCandidates;
+import com.multiplanner.api.model.JourneyLeg;
+import com.multiplanner.api.model.JourneyOption;
+import com.multiplanner.api.model.JourneyResults;
+import com.multiplanner.api.model.Station;
+import com.multiplanner.api.service.JourneyCacheService;
+import com.multiplanner.api.service.RoutingMetrics;
+import com.multiplanner.api.service.RoutingService;
+import com.multiplanner.api.service.StopPointResolver;
+import com.multiplanner.api.service.TestRoutingServices;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * POST /api/route/multi through MockMvc, over a real RoutingService with the itinerary cache on and mocked TfL journeys.
+ * - the ETag is a strong, quoted hash of exactly the bytes served, and a repeat fetch serves the same bytes
+ * - If-None-Match with the current ETag (strong, weak or in a list) gets a 304 without a body; any other gets the 200
+ * - routes built from stale journeys are served but not cached, so the next fetch builds them again
+ */
+class RoutingControllerTest {
+
+    private static final String ROUTE = """
+            {"stops":[{"code":"940GZZLUKSX","name":"King's Cross St. Pancras Underground Station"},
+                      {"code":"940GZZLUVIC","name":"Victoria Underground Station"}]}
+            """;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JourneyCacheService journeyCache = mock(JourneyCacheService.class);
+    private final StopPointResolver resolver = mock(StopPointResolver.class);
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        when(resolver.resolve(any())).thenAnswer(invocation -> ((Station) invocation.getArgument(0)).getCode());
+        RoutingService routing = TestRoutingServices.create(objectMapper, journeyCache, resolver, null, false, true);
+        RoutingController controller = new RoutingController(routing, new RoutingMetrics(new SimpleMeterRegistry()), null, 30_000);
+        mvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void etagIsAStrongHashOfTheServedBytes() throws Exception {
+        journeysAre(false);
+
+        MvcResult first = fetch(null).andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        byte[] body = first.getResponse().getContentAsByteArray();
+
+        assertThat(etag).matches("\"[0-9a-f]{32}\"").isEqualTo(hashOf(body));
+        assertThat(objectMapper.readTree(body).path("results").isArray()).isTrue();
+
+        MvcResult second = fetch(null).andExpect(status().isOk()).andReturn();
+        assertThat(second.getResponse().getHeader(HttpHeaders.ETAG)).isEqualTo(etag);
+        assertThat(second.getResponse().getContentAsByteArray()).isEqualTo(body);
+
+        //The second fetch came from the itinerary cache
+        verify(journeyCache, times(1)).journeyCandidates(anyString(), anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void matchingIfNoneMatchGetsA304() throws Exception {
+        journeysAre(false);
+        String etag = fetch(null).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        for (String ifNoneMatch : List.of(etag, "W/" + etag, "\"other\", " + etag, "*")) {
+            fetch(ifNoneMatch)
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag))
+                    .andExpect(content().bytes(new byte[0]));
+        }
+
+        fetch("\"0123456789abcdef0123456789abcdef\"")
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+    }
+
+    @Test
+    void staleRoutesAreNotCached() throws Exception {
+        journeysAre(true);
+
+        byte[] body = fetch(null).andExpect(status().isOk()).andReturn().getResponse().getContentAsByteArray();
+        assertThat(objectMapper.readTree(body).path("results").get(0).path("stale").asBoolean()).isTrue();
+
+        fetch(null).andExpect(status().isOk());
+        verify(journeyCache, times(2)).journeyCandidates(anyString(), anyString(), anyString(), anyString());
+    }
+
+    // HELPERS
+    private ResultActions fetch(String ifNoneMatch) throws Exception {
+        MockHttpServletRequestBuilder request = post("/api/route/multi").contentType(MediaType.APPLICATION_JSON).content(ROUTE);
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return mvc.perform(request);
+    }
+
+    private void journeysAre(boolean stale) throws Exception {
+        JourneyOption option = new JourneyOption(18, "2026-10-17T08:00:00", "2026-10-17T08:18:00", List.of(
+                new JourneyLeg("tube", "Victoria", "Victoria line towards Brixton", "King's Cross St. Pancras", "Victoria", 18)
+        ));
+        JourneyCandidates candidates = new JourneyCandidates(new JourneyResults(List.of(option), null), 1_792_224_000_000L, stale, false, false);
+        when(journeyCache.journeyCandidates(anyString(), anyString(), anyString(), anyString())).thenReturn(candidates);
+    }
+
+    private static String hashOf(byte[] body) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+        return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+    }
+}
@@ -0,0 +1,297 @@
+package com.multiplanner.api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.multiplanner.api.controller.RoutingController;
+import com.multiplanner.api.model.JourneyLeg;
+import com.multiplanner.api.model.JourneyOption;
+import com.multiplanner.api.model.JourneyResults;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * The streaming JourneyResultsParser against the readTree code it replaced (kept below as legacyLegSummary).
+ * - leg summaries built from the parser match the readTree ones field for field, on the TfL fixtures
+ *   and on hand-written edge cases, for every sort order and mode filter
+ * - error payloads fail with the same messages
+ * - missing or oddly shaped fields come out as the readTree code read them, and unknown subtrees are skipped
+ */
+class JourneyResultsParserTest {
+
+    private static final Path FIXTURES = Path.of("src/fixtures/tfl");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JourneyResultsParser parser = new JourneyResultsParser(objectMapper);
+    private final RoutingService routing = TestRoutingServices.create(objectMapper, mock(StopPointResolver.class), null, false);
+
+    @Test
+    void fixturesSummariseAsBefore() throws Exception {
+        for (String fixture : List.of("journey-results-small.json", "journey-results-large.json")) {
+            assertSameLegSummaries(Files.readString(FIXTURES.resolve(fixture)));
+        }
+    }
+
+    @Test
+    void edgeCasesSummariseAsBefore() throws Exception {
+        assertSameLegSummaries("""
+                {"journeys":[
+                  {"duration":30,"legs":[
+                    {"duration":5,"mode":{"id":"walking"},"instruction":{"summary":"Walk"},"routeOptions":[]},
+                    {"duration":25,"mode":{"id":"tube"},"routeOptions":[{"name":""},{"name":"Victoria"}],
+                     "departurePoint":{"commonName":"Oxford Circus"},"arrivalPoint":{}}
+                  ]},
+                  {"startDateTime":"2026-10-17T08:00:00","legs":[
+                    {"mode":{"id":"bus"},"instruction":{"detailed":"Bus 73 towards Stoke Newington"}}
+                  ]},
+                  {"duration":"28","arrivalDateTime":"2026-10-17T08:28:00","legs":[
+                    {"duration":28,"mode":{"id":"tram"},"routeOptions":[null,{"name":"Tram"}]}
+                  ]},
+                  {"duration":28,"legs":[]},
+                  {"duration":29}
+                ]}
+                """);
+    }
+
+    @Test
+    void errorPayloadsFailWithTheSameMessages() {
+        for (String json : List.of(
+                "{\"message\":\"No journey found for your inputs.\"}",
+                "{\"journeys\":[],\"message\":\"Stop not served\"}",
+                "{\"journeys\":[]}",
+                "{\"journeys\":{},\"message\":\"  \"}",
+                "{\"httpStatusCode\":500}",
+                "{\"journeys\":[{\"legs\":[{\"mode\":{\"id\":\"bus\"}}]}]}"
+        )) {
+            Throwable expected = catchFailure(() -> legacyLegSummary(json, RoutingController.SortBy.FASTEST, false, true));
+            Throwable actual = catchFailure(() -> buildLegSummary(json, RoutingController.SortBy.FASTEST, false, true));
+
+            assertThat(actual).as(json).isInstanceOf(IllegalArgumentException.class).hasMessage(expected.getMessage());
+        }
+    }
+
+    @Test
+    void missingFieldsAreNullOrDefault() throws Exception {
+        JourneyResults results = parser.parse("""
+                {"journeys":[{"legs":[
+                  {"mode":{"id":"tube"},"instruction":{"summary":"Victoria line"}},
+                  {"routeOptions":[],"instruction":"not an object","departurePoint":null}
+                ]}]}
+                """);
+
+        JourneyOption journey = results.journeys().get(0);
+        assertThat(journey.durationMinutes()).isEqualTo(-1);
+        assertThat(journey.rankDuration()).isEqualTo(Integer.MAX_VALUE);
+        assertThat(journey.startDateTime()).isNull();
+        assertThat(journey.legs()).containsExactly(
+                new JourneyLeg("tube", null, null, null, null, 0),
+                new JourneyLeg(null, null, null, null, null, 0)
+        );
+        assertThat(results.message()).isNull();
+    }
+
+    @Test
+    void unknownSubtreesAreSkipped() throws Exception {
+        //Fields routing reads, nested inside subtrees it does not, must not leak out
+        JourneyResults results = parser.parse("""
+                {"lines":[{"duration":99,"legs":[{"mode":{"id":"bus"}}]}],
+                 "searchCriteria":{"message":"not an error","journeys":[]},
+                 "journeys":[{"fare":{"duration":1,"legs":[[{"mode":{"id":"bus"}}]]},"duration":12,"legs":[
+                   {"path":{"stopPoints":[{"commonName":"Warren Street","duration":3}],"lineString":"[[51.5,-0.1]]"},
+                    "disruptions":[[{"routeOptions":[{"name":"Bakerloo"}]}]],
+                    "mode":{"id":"tube","routeOptions":[{"name":"Northern"}]},
+                    "routeOptions":[{"directions":["Edgware"],"lineIdentifier":{"name":"Not the name"},"name":"Victoria"}],
+                    "duration":12}
+                 ]}],
+                 "journeyVector":{"uri":"/journey"}}
+                """);
+
+        assertThat(results.message()).isNull();
+        assertThat(results.journeys()).containsExactly(new JourneyOption(12, null, null, List.of(
+                new JourneyLeg("tube", "Victoria", null, null, null, 12)
+        )));
+    }
+
+    // HELPERS
+    private void assertSameLegSummaries(String json) throws Exception {
+        for (RoutingController.SortBy sortBy : RoutingController.SortBy.values()) {
+            for (boolean includeBus : new boolean[] {true, false}) {
+                for (boolean includeTram : new boolean[] {true, false}) {
+                    Throwable legacyFailure = catchFailure(() -> legacyLegSummary(json, sortBy, includeBus, includeTram));
+                    if (legacyFailure != null) {
+                        assertThatThrownBy(() -> buildLegSummary(json, sortBy, includeBus, includeTram))
+                                .hasMessage(legacyFailure.getMessage());
+                        continue;
+                    }
+                    assertThat(buildLegSummary(json, sortBy, includeBus, includeTram))
+                            .as("%s bus=%s tram=%s", sortBy, includeBus, includeTram)
+                            .isEqualTo(legacyLegSummary(json, sortBy, includeBus, includeTram));
+                }
+            }
+        }
+    }
+
+    private JsonNode buildLegSummary(String json, RoutingController.SortBy sortBy, boolean includeBus, boolean includeTram)
+            throws Exception {
+        return objectMapper.valueToTree(routing.buildLegSummary(
+                "King's Cross", "Victoria", "940GZZLUKSX", "940GZZLUVIC", json, sortBy, includeBus, includeTram));
+    }
+
+    private static Throwable catchFailure(ThrowingCall call) {
+        try {
+            call.run();
+            return null;
+        } catch (Exception e) {
+            return e;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThrowingCall {
+        void run() throws Exception;
+    }
+
+    //RoutingService.buildLegSummary as it was before the streaming parser: readTree, then path lookups.
+    private JsonNode legacyLegSummary(String json, RoutingController.SortBy sortBy, boolean includeBus, boolean includeTram)
+            throws Exception {
+        JsonNode root = objectMapper.readTree(json);
+
+        JsonNode journeys = root.get("journeys");
+        if (journeys == null || !journeys.isArray() || journeys.size() == 0) {
+            JsonNode message = root.get("message");
+            if (message != null && !message.asText().isBlank()) {
+                throw new IllegalArgumentException("TfL: " + message.asText());
+            }
+            throw new IllegalArgumentException("TfL returned no journeys");
+        }
+
+        JsonNode best = legacyPickBestJourney((ArrayNode) journeys, sortBy, includeBus, includeTram);
+
+        int duration = best.path("duration").asInt(0);
+        String start = best.path("startDateTime").asText(null);
+        String arrive = best.path("arrivalDateTime").asText(null);
+
+        JsonNode legs = best.get("legs");
+        ArrayNode segments = objectMapper.createArrayNode();
+        if (legs != null && legs.isArray()) {
+            for (JsonNode leg : legs) {
+                ObjectNode seg = objectMapper.createObjectNode();
+                String line = leg.path("routeOptions").isArray() && leg.path("routeOptions").size() > 0
+                        ? leg.path("routeOptions").get(0).path("name").asText(null)
+                        : null;
+                String direction = leg.path("instruction").path("detailed").asText(null);
+                String dep = leg.path("departurePoint").path("commonName").asText(null);
+                String arr = leg.path("arrivalPoint").path("commonName").asText(null);
+
+                seg.put("mode", leg.path("mode").path("id").asText(null));
+                if (line != null && !line.isBlank()) seg.put("line", line);
+                if (direction != null && !direction.isBlank()) seg.put("direction", direction);
+                if (dep != null && !dep.isBlank()) seg.put("from", dep);
+                if (arr != null && !arr.isBlank()) seg.put("to", arr);
+                seg.put("durationMinutes", leg.path("duration").asInt(0));
+                segments.add(seg);
+            }
+        }
+
+        ObjectNode out = objectMapper.createObjectNode();
+        out.put("fromName", "King's Cross");
+        out.put("toName", "Victoria");
+        out.put("fromStopPointId", "940GZZLUKSX");
+        out.put("toStopPointId", "940GZZLUVIC");
+        out.put("durationMinutes", duration);
+        if (start != null) out.put("startDateTime", start);
+        if (arrive != null) out.put("arrivalDateTime", arrive);
+        out.put("interchanges", legacyInterchanges(legs));
+        out.put("summary", legacySummary(legs));
+        out.set("segments", segments);
+        return out;
+    }
+
+    private static JsonNode legacyPickBestJourney(ArrayNode journeys, RoutingController.SortBy sortBy,
+                                                  boolean includeBus, boolean includeTram) {
+        JsonNode best = null;
+        for (JsonNode candidate : journeys) {
+            if (!legacyAllowedByModes(candidate, includeBus, includeTram)) {
+                continue;
+            }
+            if (best == null) {
+                best = candidate;
+                continue;
+            }
+
+            int durCandidate = candidate.path("duration").asInt(Integer.MAX_VALUE);
+            int durBest = best.path("duration").asInt(Integer.MAX_VALUE);
+            int transfersCandidate = legacyInterchanges(candidate.get("legs"));
+            int transfersBest = legacyInterchanges(best.get("legs"));
+
+            if (sortBy == RoutingController.SortBy.FEWEST_TRANSFERS) {
+                if (transfersCandidate < transfersBest || (transfersCandidate == transfersBest && durCandidate < durBest)) {
+                    best = candidate;
+                }
+            } else if (durCandidate < durBest || (durCandidate == durBest && transfersCandidate < transfersBest)) {
+                best = candidate;
+            }
+        }
+
+        if (best == null) {
+            throw new IllegalArgumentException("No journeys matched mode filters (bus/tram).");
+        }
+        return best;
+    }
+
+    private static boolean legacyAllowedByModes(JsonNode journey, boolean includeBus, boolean includeTram) {
+        JsonNode legs = journey.get("legs");
+        if (legs == null || !legs.isArray()) return true;
+
+        for (JsonNode leg : legs) {
+            String mode = leg.path("mode").path("id").asText("").toLowerCase();
+            if (!includeBus && "bus".equals(mode)) return false;
+            if (!includeTram && "tram".equals(mode)) return false;
+        }
+        return true;
+    }
+
+    private static int legacyInterchanges(JsonNode legs) {
+        if (legs == null || !legs.isArray() || legs.size() == 0) return 0;
+
+        int nonWalk = 0;
+        for (JsonNode leg : legs) {
+            if (!"walking".equalsIgnoreCase(leg.path("mode").path("id").asText(""))) {
+                nonWalk++;
+            }
+        }
+        return nonWalk <= 1 ? 0 : nonWalk - 1;
+    }
+
+    private static String legacySummary(JsonNode legs) {
+        if (legs == null || !legs.isArray() || legs.size() == 0) return "Journey";
+
+        for (JsonNode leg : legs) {
+            if ("walking".equalsIgnoreCase(leg.path("mode").path("id").asText(""))) continue;
+
+            JsonNode routeOptions = leg.path("routeOptions");
+            if (routeOptions.isArray() && routeOptions.size() > 0) {
+                String name = routeOptions.get(0).path("name").asText("");
+                if (!name.isBlank()) return name;
+            }
+        }
+
+        List<String> modes = new ArrayList<>();
+        for (JsonNode leg : legs) {
+            String mode = leg.path("mode").path("id").asText("");
+            if (!mode.isBlank() && !modes.contains(mode)) modes.add(mode);
+        }
+        if (modes.isEmpty()) return "Journey";
+        return modes.size() == 1 ? modes.get(0) : String.join(" + ", modes);
+    }
+}
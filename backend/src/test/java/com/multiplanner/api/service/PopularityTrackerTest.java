@@ -0,0 +1,57 @@
+package com.multiplanner.api.service;
+
+import com.multiplanner.api.model.JourneyPair;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * PopularityTracker heavy hitters with a candidate set smaller than the number of pairs seen.
+ * - a pair that overtakes the weakest candidate replaces it; pairs that cannot overtake it are turned away
+ * - after decay, pairs are admitted again from the halved counts
+ */
+class PopularityTrackerTest {
+
+    @Test
+    void risingPairReplacesTheWeakestCandidate() {
+        PopularityTracker tracker = new PopularityTracker(3);
+        record(tracker, pair("A"), 5);
+        record(tracker, pair("B"), 4);
+        record(tracker, pair("C"), 3);
+
+        //Below the weakest candidate: turned away
+        record(tracker, pair("D"), 2);
+        assertThat(tracker.top(10, 1)).containsExactly(pair("A"), pair("B"), pair("C"));
+
+        //Overtakes C (its estimate keeps growing while it is turned away)
+        record(tracker, pair("D"), 4);
+        assertThat(tracker.top(10, 1)).containsExactly(pair("D"), pair("A"), pair("B"));
+    }
+
+    @Test
+    void decayLetsNewPairsIn() {
+        PopularityTracker tracker = new PopularityTracker(2);
+        record(tracker, pair("A"), 8);
+        record(tracker, pair("B"), 8);
+        record(tracker, pair("C"), 1);
+        assertThat(tracker.top(10, 1)).containsExactlyInAnyOrder(pair("A"), pair("B"));
+
+        //Halving drops C to 0; A and B to 4, so C needs 5 more requests to overtake them
+        tracker.decay();
+        record(tracker, pair("C"), 5);
+
+        assertThat(tracker.top(10, 1)).first().isEqualTo(pair("C"));
+    }
+
+    // HELPERS
+    private static JourneyPair pair(String to) {
+        return new JourneyPair("940GZZLUKSX", "940GZZLU" + to, "tube");
+    }
+
+    private static void record(PopularityTracker tracker, JourneyPair pair, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.record(pair);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.multiplanner.api.service;
+
+import com.multiplanner.api.model.JourneyLeg;
+import com.multiplanner.api.model.JourneyOption;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * RAPTOR over a small hand-built GTFS feed.
+ * - L1 (tube) A -> B -> C: a stopping trip at 08:00 and an express at 08:05 that overtakes it
+ * - L2 (bus) B -> D at 08:10 and 08:20; L5 (bus) A -> D direct but slow
+ * - L4 (night bus) A -> D at 24:30, only on the Friday service day
+ * - C -> E is a 3 minute walk (transfers.txt); E has no services
+ */
+class RaptorRouterTest {
+
+    private static final Set<String> ALL_MODES = Set.of("tube", "bus");
+    private static final LocalDate SATURDAY = LocalDate.of(2026, 10, 17);
+
+    @TempDir
+    Path feed;
+
+    private Timetable timetable;
+
+    @BeforeEach
+    void writeFeed() throws IOException {
+        write("agency.txt",
+                "agency_id,agency_name",
+                "TFL,Transport for London");
+        write("stops.txt",
+                "stop_id,stop_name,stop_lat,stop_lon,location_type,parent_station",
+                "A,Alpha Underground Station,51.50,-0.10,1,",
+                "A1,Alpha Platform 1,51.50,-0.10,0,A",
+                "B,Bravo,51.51,-0.10,1,",
+                "C,Charlie,51.52,-0.10,1,",
+                "D,Delta,51.53,-0.10,1,",
+                "E,Echo,51.5215,-0.10,1,");
+        write("routes.txt",
+                "route_id,agency_id,route_short_name,route_long_name,route_type",
+                "L1,TFL,,Victoria,1",
+                "L2,TFL,2,Bravo - Delta,3",
+                "L4,TFL,N4,Alpha - Delta,3",
+                "L5,TFL,5,Alpha - Delta,3");
+        write("calendar.txt",
+                "service_id,monday,tuesday,wednesday,thursday,friday,saturday,sunday,start_date,end_date",
+                "ALL,1,1,1,1,1,1,1,20260101,20271231",
+                "FRI,1,1,1,1,1,1,1,20261016,20261016");
+        write("trips.txt",
+                "route_id,service_id,trip_id,trip_headsign",
+                "L1,ALL,STOPPER,Charlie",
+                "L1,ALL,EXPRESS,Charlie",
+                "L2,ALL,BUS1,Delta",
+                "L2,ALL,BUS2,Delta",
+                "L4,FRI,NIGHT,Delta",
+                "L5,ALL,SLOW,Delta");
+        write("stop_times.txt",
+                "trip_id,arrival_time,departure_time,stop_id,stop_sequence",
+                "STOPPER,08:00:00,08:00:00,A1,1",
+                "STOPPER,08:10:00,08:12:00,B,2",
+                "STOPPER,08:30:00,08:30:00,C,3",
+                "EXPRESS,08:05:00,08:05:00,A1,1",
+                "EXPRESS,08:08:00,08:08:00,B,2",
+                "EXPRESS,08:15:00,08:15:00,C,3",
+                "BUS1,08:10:00,08:10:00,B,1",
+                "BUS1,08:20:00,08:20:00,D,2",
+                "BUS2,08:20:00,08:20:00,B,1",
+                "BUS2,08:30:00,08:30:00,D,2",
+                "NIGHT,24:30:00,24:30:00,A,1",
+                "NIGHT,25:00:00,25:00:00,D,2",
+                "SLOW,08:01:00,08:01:00,A,1",
+                "SLOW,09:00:00,09:00:00,D,2");
+        write("transfers.txt",
+                "from_stop_id,to_stop_id,transfer_type,min_transfer_time",
+                "C,E,2,180");
+
+        timetable = new GtfsTimetableLoader(0).load(feed);
+    }
+
+    @Test
+    void overtakingTripsAreSplitIntoSeparateRoutes() {
+        // L1 becomes two FIFO routes, plus L2, L4 and L5
+        assertThat(timetable.routeCount()).isEqualTo(5);
+
+        List<JourneyOption> options = route(120, "A", "C", SATURDAY, "08:00", ALL_MODES);
+
+        // The express boarded at 08:05 beats the stopping trip leaving first
+        assertThat(options).hasSize(1);
+        assertThat(options.get(0).startDateTime()).isEqualTo("2026-10-17T08:05:00");
+        assertThat(options.get(0).arrivalDateTime()).isEqualTo("2026-10-17T08:15:00");
+    }
+
+    @Test
+    void transferWaitsForTheChangeTime() {
+        // Off the express at B at 08:08: two minutes is enough for the 08:10 bus, three is not
+        List<JourneyOption> quick = route(120, "A", "D", SATURDAY, "08:00", ALL_MODES);
+        List<JourneyOption> slow = route(180, "A", "D", SATURDAY, "08:00", ALL_MODES);
+
+        assertThat(last(quick).arrivalDateTime()).isEqualTo("2026-10-17T08:20:00");
+        assertThat(modes(last(quick))).containsExactly("tube", "bus");
+        assertThat(last(slow).arrivalDateTime()).isEqualTo("2026-10-17T08:30:00");
+    }
+
+    @Test
+    void paretoSetHasFewestTripsAndFastestOptions() {
+        List<JourneyOption> options = route(120, "A", "D", SATURDAY, "08:00", ALL_MODES);
+
+        // The direct bus (one trip, 09:00), then the faster change at B (two trips, 08:20)
+        assertThat(options).hasSize(2);
+        assertThat(modes(options.get(0))).containsExactly("bus");
+        assertThat(options.get(0).arrivalDateTime()).isEqualTo("2026-10-17T09:00:00");
+        assertThat(options.get(1).arrivalDateTime()).isEqualTo("2026-10-17T08:20:00");
+    }
+
+    @Test
+    void footpathsReachStationsWithoutService() {
+        List<JourneyOption> options = route(120, "A", "E", SATURDAY, "08:00", ALL_MODES);
+
+        assertThat(options).hasSize(1);
+        assertThat(modes(options.get(0))).containsExactly("tube", "walking");
+        assertThat(options.get(0).legs().get(1).durationMinutes()).isEqualTo(3);
+        assertThat(options.get(0).arrivalDateTime()).isEqualTo("2026-10-17T08:18:00");
+    }
+
+    @Test
+    void modesOutsideTheAllowedSetAreNotRidden() {
+        List<JourneyOption> options = route(120, "A", "D", SATURDAY, "08:00", Set.of("tube"));
+
+        assertThat(options).isEmpty();
+    }
+
+    @Test
+    void previousServiceDayRunsPastMidnight() {
+        // Friday's 24:30 night bus is Saturday 00:30
+        List<JourneyOption> options = route(120, "A", "D", SATURDAY, "00:10", ALL_MODES);
+
+        assertThat(options).hasSize(1);
+        assertThat(options.get(0).startDateTime()).isEqualTo("2026-10-17T00:30:00");
+        assertThat(options.get(0).arrivalDateTime()).isEqualTo("2026-10-17T01:00:00");
+    }
+
+    @Test
+    void pastMidnightTripsOnlyRunAfterTheirOwnServiceDay() {
+        // No night bus after Saturday's service day, so the first answer is the morning's
+        List<JourneyOption> options = route(120, "A", "D", SATURDAY.plusDays(1), "00:10", ALL_MODES);
+
+        assertThat(options).isNotEmpty();
+        assertThat(options.get(0).arrivalDateTime()).isEqualTo("2026-10-18T09:00:00");
+    }
+
+    @Test
+    void platformsFoldIntoTheirStation() {
+        assertThat(timetable.stationByStopId.get("A1")).isEqualTo(timetable.stationByStopId.get("A"));
+        assertThat(timetable.stationCount()).isEqualTo(5);
+    }
+
+    // HELPERS
+    private List<JourneyOption> route(int changeSeconds, String from, String to, LocalDate date, String time, Set<String> modes) {
+        return new RaptorRouter(timetable, changeSeconds).route(
+                timetable.stationByStopId.get(from),
+                timetable.stationByStopId.get(to),
+                date,
+                LocalTime.parse(time).toSecondOfDay(),
+                modes,
+                5
+        );
+    }
+
+    private static JourneyOption last(List<JourneyOption> options) {
+        assertThat(options).isNotEmpty();
+        return options.get(options.size() - 1);
+    }
+
+    private static List<String> modes(JourneyOption option) {
+        return option.legs().stream().map(JourneyLeg::mode).toList();
+    }
+
+    private void write(String file, String... lines) throws IOException {
+        Files.write(feed.resolve(file), List.of(lines));
+    }
+}
@@ -0,0 +1,84 @@
+package com.multiplanner.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.multiplanner.api.config.SingleFlight;
+import com.multiplanner.api.model.Station;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * RoutingService fan-out with a real virtual-thread executor and mocked collaborators.
+ * - a failing task fails the request at once, but tasks already running are left to finish: they may be
+ *   leading a shared load that concurrent requests for the same key are waiting on
+ */
+class RoutingServiceTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final StopPointResolver resolver = mock(StopPointResolver.class);
+    private final RoutingService routing = TestRoutingServices.create(new ObjectMapper(), resolver, executor, true);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void failingLegDoesNotInterruptASiblingsSharedLoad() throws Exception {
+        SingleFlight singleFlight = new SingleFlight();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean loadFinished = new AtomicBoolean();
+
+        when(resolver.resolve(any())).thenAnswer(invocation -> {
+            Station station = invocation.getArgument(0);
+            if (station.getCode().equals("BAD")) {
+                //Fail only once the other stop is mid-load
+                loading.await();
+                throw new IllegalArgumentException("Unknown station");
+            }
+            return singleFlight.execute(station.getCode(), () -> {
+                loading.countDown();
+                release.await();
+                loadFinished.set(true);
+                return "940GZZLUKSX";
+            });
+        });
+
+        assertThatThrownBy(() -> routing.routeMulti(List.of(station("BAD"), station("KSX")), null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown station");
+
+        //Another request for the same stop joins the load the failed request started
+        CompletableFuture<Object> concurrent = CompletableFuture.supplyAsync(() -> {
+            try {
+                return singleFlight.execute("KSX", () -> "not coalesced");
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }, executor);
+        release.countDown();
+
+        assertThat(concurrent.get(5, TimeUnit.SECONDS)).isEqualTo("940GZZLUKSX");
+        assertThat(loadFinished).isTrue();
+    }
+
+    // HELPERS
+    private static Station station(String code) {
+        return new Station(code, code + " Station");
+    }
+}
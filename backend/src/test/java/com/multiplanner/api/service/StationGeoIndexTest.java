@@ -0,0 +1,173 @@
+package com.multiplanner.api.service;
+
+import com.multiplanner.api.model.NearbyStation;
+import com.multiplanner.api.model.Station;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * StationGeoIndex against a brute-force haversine scan.
+ * - random London-scale and world-scale points: KD-tree arrangement (quickselect) and branch pruning must not lose a neighbour
+ * - duplicate coordinates (quickselect with many equal keys), radius limits, the date line and failed refreshes
+ */
+class StationGeoIndexTest {
+
+    @Test
+    void nearestMatchesBruteForceAcrossLondon() {
+        Random random = new Random(42);
+        List<Station> stations = randomStations(random, 500, 51.28, 51.70, -0.51, 0.33);
+        StationGeoIndex index = indexOf(stations);
+
+        for (int q = 0; q < 200; q++) {
+            double lat = 51.28 + random.nextDouble() * 0.42;
+            double lon = -0.51 + random.nextDouble() * 0.84;
+            int limit = 1 + random.nextInt(10);
+            double radius = (q % 2 == 0) ? Double.POSITIVE_INFINITY : 500 + random.nextInt(5000);
+
+            assertSameStations(index.nearest(lat, lon, limit, radius), bruteForce(stations, lat, lon, limit, radius));
+        }
+    }
+
+    @Test
+    void nearestMatchesBruteForceAroundTheWorld() {
+        Random random = new Random(7);
+        List<Station> stations = randomStations(random, 300, -89, 89, -180, 180);
+        StationGeoIndex index = indexOf(stations);
+
+        for (int q = 0; q < 100; q++) {
+            double lat = -89 + random.nextDouble() * 178;
+            double lon = -180 + random.nextDouble() * 360;
+
+            assertSameStations(index.nearest(lat, lon, 5, Double.POSITIVE_INFINITY),
+                    bruteForce(stations, lat, lon, 5, Double.POSITIVE_INFINITY));
+        }
+    }
+
+    @Test
+    void neighboursAcrossTheDateLineAreFound() {
+        StationGeoIndex index = indexOf(List.of(
+                new Station("EAST", "East", 0.0, 179.99),
+                new Station("WEST", "West", 0.0, -179.99),
+                new Station("FAR", "Far", 0.0, 0.0)
+        ));
+
+        List<NearbyStation> nearest = index.nearest(0.0, -179.999, 2, 5_000);
+
+        assertThat(nearest).extracting(NearbyStation::code).containsExactly("WEST", "EAST");
+    }
+
+    @Test
+    void duplicateCoordinatesAreAllIndexed() {
+        List<Station> stations = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            stations.add(new Station("SAME" + i, "Same " + i, 51.5, -0.1));
+        }
+        stations.add(new Station("OTHER", "Other", 51.6, -0.1));
+        StationGeoIndex index = indexOf(stations);
+
+        assertThat(index.nearest(51.5, -0.1, 100, Double.POSITIVE_INFINITY)).hasSize(51);
+        assertThat(index.nearest(51.6, -0.1, 1, Double.POSITIVE_INFINITY))
+                .extracting(NearbyStation::code).containsExactly("OTHER");
+    }
+
+    @Test
+    void radiusAndLimitBoundTheAnswer() {
+        StationGeoIndex index = indexOf(List.of(
+                new Station("A", "A", 51.5000, -0.1),
+                new Station("B", "B", 51.5050, -0.1), // ~556 m north
+                new Station("C", "C", 51.5200, -0.1)  // ~2.2 km north
+        ));
+
+        assertThat(index.nearest(51.5, -0.1, 10, 1_000)).extracting(NearbyStation::code).containsExactly("A", "B");
+        assertThat(index.nearest(51.5, -0.1, 1, 1_000)).extracting(NearbyStation::code).containsExactly("A");
+        assertThat(index.nearest(51.5, -0.1, 0, 1_000)).isEmpty();
+        assertThat(index.nearest(51.5, -0.1, 10, 1_000).get(1).distanceMeters()).isBetween(550, 560);
+    }
+
+    @Test
+    void stationsWithoutCoordinatesAreSkipped() {
+        StationGeoIndex index = indexOf(List.of(
+                new Station("NONE", "Nowhere"),
+                new Station("A", "A", 51.5, -0.1)
+        ));
+
+        assertThat(index.nearest(51.5, -0.1, 10, Double.POSITIVE_INFINITY))
+                .extracting(NearbyStation::code).containsExactly("A");
+    }
+
+    @Test
+    void failedRefreshKeepsThePreviousTree() {
+        StationRepository repository = mock(StationRepository.class);
+        when(repository.findAll())
+                .thenReturn(List.of(new Station("A", "A", 51.5, -0.1)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        StationGeoIndex index = new StationGeoIndex(repository);
+
+        assertThat(index.isReady()).isFalse();
+        assertThat(index.nearest(51.5, -0.1, 1, Double.POSITIVE_INFINITY)).isEmpty();
+
+        index.refresh();
+        index.refresh();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.nearest(51.5, -0.1, 1, Double.POSITIVE_INFINITY)).hasSize(1);
+    }
+
+    @Test
+    void haversineDistance() {
+        // One degree of latitude is ~111.2 km
+        assertThat(StationGeoIndex.distanceMeters(51.0, -0.1, 52.0, -0.1)).isBetween(111_100.0, 111_300.0);
+        assertThat(StationGeoIndex.distanceMeters(51.5, -0.1, 51.5, -0.1)).isZero();
+    }
+
+    // HELPERS
+    private static StationGeoIndex indexOf(List<Station> stations) {
+        StationRepository repository = mock(StationRepository.class);
+        when(repository.findAll()).thenReturn(stations);
+        StationGeoIndex index = new StationGeoIndex(repository);
+        index.refresh();
+        return index;
+    }
+
+    private static List<Station> randomStations(Random random, int n, double minLat, double maxLat, double minLon, double maxLon) {
+        List<Station> stations = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            double lat = minLat + random.nextDouble() * (maxLat - minLat);
+            double lon = minLon + random.nextDouble() * (maxLon - minLon);
+            stations.add(new Station("S" + i, "Station " + i, lat, lon));
+        }
+        return stations;
+    }
+
+    private static List<NearbyStation> bruteForce(List<Station> stations, double lat, double lon, int limit, double radius) {
+        return stations.stream()
+                .map(s -> new NearbyStation(s.getCode(), s.getName(), s.getLat(), s.getLon(),
+                        (int) Math.round(StationGeoIndex.distanceMeters(lat, lon, s.getLat(), s.getLon()))))
+                .filter(s -> StationGeoIndex.distanceMeters(lat, lon, s.lat(), s.lon()) <= radius)
+                .sorted(Comparator.comparingDouble(s -> StationGeoIndex.distanceMeters(lat, lon, s.lat(), s.lon())))
+                .limit(limit)
+                .toList();
+    }
+
+    //Same distances in the same order; codes may only differ between stations at the same distance.
+    private static void assertSameStations(List<NearbyStation> actual, List<NearbyStation> expected) {
+        assertThat(actual).extracting(NearbyStation::distanceMeters)
+                .containsExactlyElementsOf(expected.stream().map(NearbyStation::distanceMeters).toList());
+        for (int i = 0; i < actual.size(); i++) {
+            int meters = actual.get(i).distanceMeters();
+            if (actual.stream().filter(s -> s.distanceMeters() == meters).count() == 1) {
+                assertThat(actual.get(i).code()).isEqualTo(expected.get(i).code());
+            }
+        }
+    }
+}
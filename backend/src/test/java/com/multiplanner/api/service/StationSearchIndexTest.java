@@ -0,0 +1,96 @@
+package com.multiplanner.api.service;
+
+import com.multiplanner.api.model.Station;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * StationSearchIndex ranking on a handful of stations, one per match kind.
+ * - whole-name prefix, then word prefix, then substring, then trigram (fuzzy) matches
+ * - fuzzy matches need pg_trgm's 0.3 similarity: 3 shared trigrams out of 10 is in, out of 11 is out
+ * - until the first load succeeds StationService searches Postgres instead
+ */
+class StationSearchIndexTest {
+
+    @Test
+    void ranksPrefixThenWordPrefixThenSubstringThenFuzzy() {
+        StationSearchIndex index = indexOf(
+                station("OXC", "Oxford Circus"),
+                station("CRB", "Crosby"),
+                station("ASH", "Ashcross Lane"),
+                station("KSX", "King's Cross"),
+                station("CRH", "Cross Harbour")
+        );
+
+        assertThat(codes(index.search("cross", 10))).containsExactly("CRH", "KSX", "ASH", "CRB");
+        assertThat(codes(index.search("  CROSS ", 2))).containsExactly("CRH", "KSX");
+    }
+
+    @Test
+    void shortQueriesStillFindSubstrings() {
+        StationSearchIndex index = indexOf(station("OXC", "Oxford Circus"), station("VIC", "Victoria"));
+
+        assertThat(codes(index.search("xf", 5))).containsExactly("OXC");
+        assertThat(index.search("   ", 5)).isEmpty();
+    }
+
+    @Test
+    void fuzzyMatchesNeedThePgTrgmThreshold() {
+        //"abcd" has 5 trigrams; each name shares "  a", " ab" and "abc" with it
+        StationSearchIndex index = indexOf(
+                station("SIM43", "Abcx"),       // 3 / (5 + 5 - 3) = 0.43
+                station("SIM30", "Abcxyzw"),    // 3 / (5 + 8 - 3) = 0.30
+                station("SIM27", "Abcxyzwv"),   // 3 / (5 + 9 - 3) = 0.27
+                station("SIM25", "Abxy")        // 2 / (5 + 5 - 2) = 0.25
+        );
+
+        assertThat(codes(index.search("abcd", 10))).containsExactly("SIM43", "SIM30");
+    }
+
+    @Test
+    void searchesPostgresUntilTheFirstLoad() {
+        StationRepository repository = mock(StationRepository.class);
+        when(repository.findAll()).thenThrow(new DataAccessResourceFailureException("Postgres is down"));
+        when(repository.search("cross")).thenReturn(List.of(station("KSX", "King's Cross")));
+        StationSearchIndex index = new StationSearchIndex(repository);
+        StationService service = new StationService(repository, index, mock(StationGeoIndex.class), 50, 2000);
+
+        index.load();
+        assertThat(index.isReady()).isFalse();
+        assertThat(index.search("cross", 5)).isEmpty();
+        assertThat(codes(service.searchStations("cross"))).containsExactly("KSX");
+
+        //Once loaded, searches stay in memory
+        doReturn(List.of(station("CRH", "Cross Harbour"))).when(repository).findAll();
+        index.refresh();
+        assertThat(codes(service.searchStations("cross"))).containsExactly("CRH");
+        verify(repository, times(1)).search("cross");
+    }
+
+    // HELPERS
+    private static StationSearchIndex indexOf(Station... stations) {
+        StationRepository repository = mock(StationRepository.class);
+        when(repository.findAll()).thenReturn(List.of(stations));
+        StationSearchIndex index = new StationSearchIndex(repository);
+        index.load();
+        return index;
+    }
+
+    private static Station station(String code, String name) {
+        return new Station(code, name);
+    }
+
+    private static List<String> codes(List<Station> stations) {
+        return stations.stream().map(Station::getCode).toList();
+    }
+}
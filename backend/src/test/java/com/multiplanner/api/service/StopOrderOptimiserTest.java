@@ -0,0 +1,161 @@
+package com.multiplanner.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static com.multiplanner.api.service.StopOrderOptimiser.UNREACHABLE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * StopOrderOptimiser against brute force over every permutation of the intermediate stops.
+ * - Held-Karp must find the optimum on random asymmetric costs, including unreachable pairs
+ * - the heuristic (used above the exact threshold) must return a valid order, never worse than nearest-neighbour alone
+ *   and close to the optimum on travel-time-like (roughly metric) costs
+ */
+class StopOrderOptimiserTest {
+
+    @Test
+    void heldKarpMatchesBruteForce() {
+        Random random = new Random(1);
+        for (int n = 4; n <= 9; n++) {
+            for (int run = 0; run < 20; run++) {
+                long[][] cost = randomCosts(random, n, 0.0);
+                int[] order = StopOrderOptimiser.bestOrder(cost, n - 2);
+
+                assertValidOrder(order, n);
+                assertThat(StopOrderOptimiser.pathCost(cost, order)).isEqualTo(bruteForceCost(cost));
+            }
+        }
+    }
+
+    @Test
+    void heldKarpAvoidsUnreachablePairs() {
+        Random random = new Random(2);
+        for (int run = 0; run < 50; run++) {
+            long[][] cost = randomCosts(random, 7, 0.3);
+            int[] order = StopOrderOptimiser.bestOrder(cost, 5);
+            long best = bruteForceCost(cost);
+
+            assertValidOrder(order, 7);
+            if (best < UNREACHABLE) {
+                assertThat(StopOrderOptimiser.pathCost(cost, order)).isEqualTo(best);
+            }
+        }
+    }
+
+    @Test
+    void heuristicIsValidAndNearOptimalOnMetricCosts() {
+        Random random = new Random(3);
+        for (int n = 6; n <= 10; n++) {
+            for (int run = 0; run < 20; run++) {
+                long[][] cost = metricCosts(random, n);
+                int[] order = StopOrderOptimiser.bestOrder(cost, 0);
+                long found = StopOrderOptimiser.pathCost(cost, order);
+
+                assertValidOrder(order, n);
+                assertThat(found).isLessThanOrEqualTo(nearestNeighbourCost(cost));
+                assertThat(found).isLessThanOrEqualTo(Math.round(bruteForceCost(cost) * 1.25));
+            }
+        }
+    }
+
+    @Test
+    void shortTripsKeepTheirOrder() {
+        long[][] cost = {{0, 5, 1}, {5, 0, 1}, {1, 1, 0}};
+
+        assertThat(StopOrderOptimiser.bestOrder(cost, 8)).containsExactly(0, 1, 2);
+    }
+
+    @Test
+    void disconnectedStopsKeepTheRequestedOrder() {
+        long[][] cost = new long[5][5];
+        for (long[] row : cost) {
+            Arrays.fill(row, UNREACHABLE);
+        }
+
+        assertThat(StopOrderOptimiser.bestOrder(cost, 8)).containsExactly(0, 1, 2, 3, 4);
+    }
+
+    // HELPERS
+    private static long[][] randomCosts(Random random, int n, double unreachableRate) {
+        long[][] cost = new long[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                cost[i][j] = (i == j) ? 0 : (random.nextDouble() < unreachableRate ? UNREACHABLE : 1 + random.nextInt(90));
+            }
+        }
+        return cost;
+    }
+
+    //Points on a plane, plus a small asymmetric wait, like journey times across a city.
+    private static long[][] metricCosts(Random random, int n) {
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = random.nextDouble() * 60;
+            y[i] = random.nextDouble() * 60;
+        }
+        long[][] cost = new long[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                cost[i][j] = (i == j) ? 0 : Math.round(Math.hypot(x[i] - x[j], y[i] - y[j])) + random.nextInt(5);
+            }
+        }
+        return cost;
+    }
+
+    private static long bruteForceCost(long[][] cost) {
+        int n = cost.length;
+        int[] order = new int[n];
+        Arrays.setAll(order, i -> i);
+        return permute(cost, order, 1);
+    }
+
+    private static long permute(long[][] cost, int[] order, int pos) {
+        if (pos >= order.length - 1) {
+            return StopOrderOptimiser.pathCost(cost, order);
+        }
+        long best = UNREACHABLE;
+        for (int i = pos; i < order.length - 1; i++) {
+            swap(order, pos, i);
+            best = Math.min(best, permute(cost, order, pos + 1));
+            swap(order, pos, i);
+        }
+        return best;
+    }
+
+    private static long nearestNeighbourCost(long[][] cost) {
+        int n = cost.length;
+        boolean[] visited = new boolean[n];
+        long total = 0;
+        int current = 0;
+        for (int step = 1; step < n - 1; step++) {
+            int next = -1;
+            for (int i = 1; i < n - 1; i++) {
+                if (!visited[i] && (next < 0 || cost[current][i] < cost[current][next])) {
+                    next = i;
+                }
+            }
+            visited[next] = true;
+            total += cost[current][next];
+            current = next;
+        }
+        return total + cost[current][n - 1];
+    }
+
+    private static void assertValidOrder(int[] order, int n) {
+        assertThat(order).hasSize(n);
+        assertThat(order[0]).isZero();
+        assertThat(order[n - 1]).isEqualTo(n - 1);
+        assertThat(Arrays.stream(order).sorted().toArray()).containsExactly(IntStream.range(0, n).toArray());
+    }
+
+    private static void swap(int[] order, int i, int j) {
+        int tmp = order[i];
+        order[i] = order[j];
+        order[j] = tmp;
+    }
+}
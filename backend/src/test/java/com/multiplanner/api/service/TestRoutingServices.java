@@ -0,0 +1,66 @@
+package com.multiplanner.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.concurrent.ExecutorService;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * RoutingService for unit tests, like BenchmarkRoutingServices for the benchmarks.
+ * - the local router and stations are Mockito mocks; the TfL cache (a mock unless given), resolver and executor are the test's
+ * - settings are the application.yml defaults, named here so the constructor call stays readable
+ */
+public final class TestRoutingServices {
+
+    private TestRoutingServices() {}
+
+    public static RoutingService create(ObjectMapper objectMapper, StopPointResolver resolver, ExecutorService executor, boolean parallelEnabled) {
+        return create(objectMapper, mock(JourneyCacheService.class), resolver, executor, parallelEnabled, false);
+    }
+
+    public static RoutingService create(
+            ObjectMapper objectMapper,
+            JourneyCacheService journeyCacheService,
+            StopPointResolver resolver,
+            ExecutorService executor,
+            boolean parallelEnabled,
+            boolean itineraryCacheEnabled
+    ) {
+        int maxConcurrency = 4;
+        int optimiseMaxStops = 10;
+        int optimiseExactMaxIntermediate = 6;
+        int matrixMaxCells = 100;
+        int batchMaxItineraries = 50;
+        int batchMaxLegs = 200;
+        boolean localFallback = false;
+        int snapMaxDistanceMeters = 1000;
+
+        return new RoutingService(
+                objectMapper,
+                journeyCacheService,
+                new JourneyResultsParser(objectMapper),
+                resolver,
+                new PopularityTracker(16),
+                new RoutingMetrics(new SimpleMeterRegistry()),
+                executor,
+                parallelEnabled,
+                maxConcurrency,
+                optimiseMaxStops,
+                optimiseExactMaxIntermediate,
+                matrixMaxCells,
+                batchMaxItineraries,
+                batchMaxLegs,
+                new ConcurrentMapCacheManager(),
+                itineraryCacheEnabled,
+                mock(LocalRoutingService.class),
+                localFallback,
+                mock(StationService.class),
+                snapMaxDistanceMeters
+        );
+    }
+}
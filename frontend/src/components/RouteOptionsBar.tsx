@@ -57,6 +57,7 @@ export default function RouteOptionsBar({ options, onChange }: Props) {
   const sortBy: SortBy = options.sortBy ?? "FASTEST";
   const includeBus = options.includeBus ?? true;
   const includeTram = options.includeTram ?? true;
+  const optimiseOrder = options.optimiseOrder ?? false;
 
   return (
     <div
@@ -83,6 +84,11 @@ export default function RouteOptionsBar({ options, onChange }: Props) {
           active={includeTram}
           onClick={() => onChange({ ...options, includeTram: !includeTram })}
         />
+        <ChipButton
+          label="Optimise order"
+          active={optimiseOrder}
+          onClick={() => onChange({ ...options, optimiseOrder: !optimiseOrder })}
+        />
       </div>
 
       {/* Right side: sort dropdown */}
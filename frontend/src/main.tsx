@@ -5,7 +5,7 @@ import RouteOptionsBar from "./components/RouteOptionsBar";
 import { StationSearch } from "./components/StationSearch";
 
 import type { Station } from "./services/stations";
-import { routeMulti } from "./services/api";
+import { routeMultiStream } from "./services/api";
 import type { MultiRouteResponse, LegSummary, Segment, RouteMultiOptions } from "./services/api";
 
 type Stop = Station | null;
@@ -87,6 +87,14 @@ function LegCard({ leg, index }: { leg: LegSummary; index: number }) {
         <span style={{ color: "#666" }}> • {leg.interchanges} change{leg.interchanges === 1 ? "" : "s"}</span>
       </div>
 
+      {leg.stale && leg.fetchedAt && (
+        <div style={{ marginTop: 4, color: "#8a6d3b", fontSize: 13 }}>
+          {leg.source === "lastKnown"
+            ? `Live data unavailable, showing journey from ${new Date(leg.fetchedAt).toLocaleTimeString()}`
+            : `Refreshing, showing journey from ${new Date(leg.fetchedAt).toLocaleTimeString()}`}
+        </div>
+      )}
+
       <div style={{ marginTop: 12, display: "grid", gap: 10 }}>
         {leg.segments.map((s, i) => (
           <SegmentRow key={i} s={s} />
@@ -105,6 +113,7 @@ function App() {
     includeBus: true,
     includeTram: true,
     sortBy: "FASTEST",
+    optimiseOrder: false,
   });
 
   const setStopAt = (idx: number, station: Station | null) => {
@@ -148,6 +157,8 @@ function App() {
   const [routeResult, setRouteResult] = React.useState<MultiRouteResponse | null>(null);
   const [routeError, setRouteError] = React.useState<string | null>(null);
   const [routing, setRouting] = React.useState(false);
+  // Legs received so far while a route is streaming (null = still waiting for that leg)
+  const [streamedLegs, setStreamedLegs] = React.useState<(LegSummary | null)[] | null>(null);
 
   const from = selection.from;
   const to = selection.to;
@@ -227,6 +238,7 @@ function App() {
                     includeBus: true,
                     includeTram: true,
                     sortBy: "FASTEST",
+                    optimiseOrder: false,
                   });
                 }}
               >
@@ -255,16 +267,24 @@ function App() {
                   setRouting(true);
                   setRouteError(null);
                   setRouteResult(null);
+                  setStreamedLegs(new Array(all.length - 1).fill(null));
 
                   try {
-                    //  Send options to backend 
-                    const data = await routeMulti(all, options);
+                    //  Send options to backend, showing each leg as soon as it arrives
+                    const data = await routeMultiStream(all, options, (index, leg) => {
+                      setStreamedLegs((prev) => {
+                        const next = [...(prev ?? [])];
+                        next[index] = leg;
+                        return next;
+                      });
+                    });
                     setRouteResult(data);
                   } catch (e) {
                     const msg = e instanceof Error ? e.message : String(e);
                     setRouteError(msg);
                   }finally {
                     setRouting(false);
+                    setStreamedLegs(null);
                   }
                 }}
                 style={{
@@ -284,6 +304,21 @@ function App() {
           </div>
         </div>
 
+        {/* Legs streaming in */}
+        {!routeResult && streamedLegs && (
+          <div style={{ display: "grid", gap: 12 }}>
+            {streamedLegs.map((leg, i) =>
+              leg ? (
+                <LegCard key={i} leg={leg} index={i} />
+              ) : (
+                <div key={i} style={{ border: "1px dashed #ddd", borderRadius: 14, padding: 14, color: "#888" }}>
+                  Leg {i + 1}: finding the best journey...
+                </div>
+              )
+            )}
+          </div>
+        )}
+
         {/* Results */}
         {routeResult && (
           <div style={{ display: "grid", gap: 12 }}>
@@ -314,6 +349,7 @@ function App() {
                 {options.sortBy === "FASTEST" ? "Fastest route" : "Fewest transfers"} •{" "}
                 {options.includeBus ? "Bus" : "No bus"} •{" "}
                 {options.includeTram ? "Tram" : "No tram"}
+                {routeResult.stopOrder?.some((stop, i) => stop !== i) ? " • Stops reordered" : ""}
               </div>
             </div>
 
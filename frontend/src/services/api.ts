@@ -15,10 +15,14 @@ export async function fetchHealth(): Promise<HealthResponse> {
 
 export type SortBy = "FASTEST" | "FEWEST_TRANSFERS";
 
+export type Engine = "TFL" | "LOCAL";
+
 export type RouteMultiOptions = {
   sortBy?: SortBy;
   includeBus?: boolean;
   includeTram?: boolean;
+  optimiseOrder?: boolean; // let the backend reorder the intermediate stops
+  engine?: Engine; // LOCAL routes on the backend's own timetable, without TfL
 };
 
 export type Segment = {
@@ -41,6 +45,11 @@ export type LegSummary = {
   interchanges: number;
   summary: string;
   segments: Segment[];
+  stale?: boolean; // served from cache while a fresh result is fetched
+  fetchedAt?: string;
+  // timetable: answered by the local timetable router instead of TfL
+  // lastKnown: TfL is unavailable, so the last journey seen for this leg is shown
+  source?: "timetable" | "lastKnown";
 };
 
 export type MultiRouteResponse = {
@@ -49,6 +58,7 @@ export type MultiRouteResponse = {
   totalDurationMinutes: number;
   totalInterchanges: number;
   results: LegSummary[];
+  stopOrder?: number[]; // indices into the requested stops, present when the order was optimised
 };
 
 export async function routeLeg(from: Station, to: Station): Promise<LegSummary> {
@@ -62,6 +72,27 @@ export async function routeLeg(from: Station, to: Station): Promise<LegSummary>
   return (await res.json()) as LegSummary;
 }
 
+// One line of /api/route/multi/stream
+type MultiRouteEvent =
+  | { type: "leg"; index: number; leg: LegSummary }
+  | ({ type: "totals" } & Omit<MultiRouteResponse, "results">)
+  | { type: "error"; status: number; error: string; message?: string };
+
+function multiRouteBody(stops: Station[], options: RouteMultiOptions) {
+  return JSON.stringify({
+    stops,
+    preferences: {
+      sortBy: options.sortBy ?? "FASTEST",
+      optimiseOrder: options.optimiseOrder ?? false,
+      engine: options.engine,
+    },
+    modes: {
+      includeBus: options.includeBus ?? true,
+      includeTram: options.includeTram ?? true,
+    },
+  });
+}
+
 export async function routeMulti(
   stops: Station[],
   options: RouteMultiOptions = {}
@@ -69,22 +100,67 @@ export async function routeMulti(
   const res = await fetch("/api/route/multi", {
     method: "POST",
     headers: { "Content-Type": "application/json" },
-    body: JSON.stringify({
-      stops,
-      preferences: {
-        sortBy: options.sortBy ?? "FASTEST",
-      },
-      modes: {
-        includeBus: options.includeBus ?? true,
-        includeTram: options.includeTram ?? true,
-      },
-    }),
+    body: multiRouteBody(stops, options),
   });
 
   if (!res.ok) return throwApiError(res);
   return (await res.json()) as MultiRouteResponse;
 }
 
+// Same result as routeMulti, but onLeg is called for each leg as soon as the backend has it
+export async function routeMultiStream(
+  stops: Station[],
+  options: RouteMultiOptions = {},
+  onLeg: (index: number, leg: LegSummary) => void
+): Promise<MultiRouteResponse> {
+  const res = await fetch("/api/route/multi/stream", {
+    method: "POST",
+    headers: { "Content-Type": "application/json" },
+    body: multiRouteBody(stops, options),
+  });
+
+  if (!res.ok) return throwApiError(res);
+  if (!res.body) return routeMulti(stops, options);
+
+  const reader = res.body.getReader();
+  const decoder = new TextDecoder();
+  const legs: LegSummary[] = [];
+  let buffer = "";
+
+  for (;;) {
+    const { done, value } = await reader.read();
+    if (done) break;
+    buffer += decoder.decode(value, { stream: true });
+
+    // NDJSON: one event per line
+    let newline: number;
+    while ((newline = buffer.indexOf("\n")) >= 0) {
+      const line = buffer.slice(0, newline).trim();
+      buffer = buffer.slice(newline + 1);
+      if (!line) continue;
+
+      const event = JSON.parse(line) as MultiRouteEvent;
+      if (event.type === "leg") {
+        legs[event.index] = event.leg;
+        onLeg(event.index, event.leg);
+      } else if (event.type === "totals") {
+        return {
+          mode: event.mode,
+          legs: event.legs,
+          totalDurationMinutes: event.totalDurationMinutes,
+          totalInterchanges: event.totalInterchanges,
+          stopOrder: event.stopOrder,
+          results: legs,
+        };
+      } else {
+        throw new Error(event.message || fallbackMessage(event.status));
+      }
+    }
+  }
+
+  throw new Error("Route stream ended early");
+}
+
 async function throwApiError(res: Response): Promise<never> {
   let data: any = null;
 
@@ -102,7 +178,7 @@ async function throwApiError(res: Response): Promise<never> {
   const backendMsg =
     (data && (data.message || data.error))
       ? String(data.message || data.error)
-      : "there are no journeys for this route";
+      : "";
 
   // Fallback to plain text if JSON wasn't available/useful
   let textMsg = "";
@@ -114,6 +190,13 @@ async function throwApiError(res: Response): Promise<never> {
     }
   }
 
-  const msg = backendMsg || textMsg || `HTTP ${res.status}`;
+  const msg = backendMsg || textMsg || fallbackMessage(res.status);
   throw new Error(msg);
 }
+
+// What to tell the user when the backend sent no message: only a 400 means the route itself has no journeys
+function fallbackMessage(status: number): string {
+  if (status === 400) return "there are no journeys for this route";
+  if (status === 429 || status === 503) return "Live journey data is unavailable right now, please try again shortly";
+  return `Something went wrong (HTTP ${status})`;
+}
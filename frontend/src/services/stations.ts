@@ -3,6 +3,8 @@
 export type Station = {
   code: string;
   name: string;
+  lat?: number;
+  lon?: number;
 };
 
 export async function searchStations(query: string): Promise<Station[]> {
@@ -1,5 +1,6 @@
 CREATE EXTENSION IF NOT EXISTS pg_trgm;
 
+DROP TABLE IF EXISTS stop_point_mappings;
 DROP TABLE IF EXISTS stations;
 DROP TABLE IF EXISTS naptan_raw;
 
@@ -63,3 +64,13 @@ CREATE TABLE stations (
 -- Autocomplete / similarity
 CREATE INDEX stations_name_trgm_idx ON stations USING gin (name gin_trgm_ops);
 CREATE INDEX stations_locality_trgm_idx ON stations USING gin (locality gin_trgm_ops);
+
+-- Station name / ATCO code -> TfL StopPoint id (filled by the backend on demand or by precompute)
+CREATE TABLE stop_point_mappings (
+  name_key TEXT PRIMARY KEY, -- lower(station name), the TfL search term
+  atco_code TEXT,
+  stop_point_id TEXT NOT NULL,
+  resolved_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX stop_point_mappings_atco_idx ON stop_point_mappings (atco_code);
@@ -0,0 +1,14 @@
+-- Adds the StopPoint mapping table to a database initialised before it existed
+-- (docker-entrypoint-initdb.d only runs on an empty volume). Safe to run more than once.
+CREATE TABLE IF NOT EXISTS stop_point_mappings (
+  name_key TEXT PRIMARY KEY, -- lower(station name), the TfL search term
+  atco_code TEXT,
+  stop_point_id TEXT NOT NULL,
+  resolved_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS stop_point_mappings_atco_idx ON stop_point_mappings (atco_code);
+
+-- Earlier builds stored the ATCO code as the mapping when TfL had no match; drop those so the
+-- stations are searched again (a genuine match that equals its code is simply re-resolved once)
+DELETE FROM stop_point_mappings WHERE stop_point_id = atco_code;